@@ -0,0 +1,348 @@
+package bench;
+
+import dao.StudentDAO;
+import dao.StudentQuery;
+import database.DatabaseConnection;
+import database.ReplicaSet;
+import models.Student;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.sql.DriverPropertyInfo;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+// Read-replica routing against three stand-in databases (a primary and two
+// replicas) served by an in-process JDBC driver. Each answers every query with
+// one row and remembers that it did, and can be switched off like a crashed
+// server. Checks that
+//   the routed reads go to the replicas, round-robin, and the rest to the primary
+//   reads after a write stay on the primary for db.replica.stickyMs, then move back
+//   a replica that goes down mid-read is taken out of rotation, the read reruns
+//   elsewhere without failing, and the replica comes back once healthy
+//   with every replica down, reads fall back to the primary
+// and exits with 1 if a check fails.
+//
+// Run with: ant replica-check
+public class ReplicaRoutingCheck {
+    private static final long STICKY_MS = 300;
+    private static final long HEALTH_CHECK_MS = 200;
+
+    private static int failures;
+
+    public static void main(String[] args) throws Exception {
+        System.setProperty("db.driver", StandInDriver.class.getName());
+        System.setProperty("db.url", "jdbc:standin:primary");
+        System.setProperty("db.replicas", "jdbc:standin:replica-a, jdbc:standin:replica-b");
+        System.setProperty("db.replica.stickyMs", Long.toString(STICKY_MS));
+        System.setProperty("db.replica.healthCheckMs", Long.toString(HEALTH_CHECK_MS));
+        System.setProperty("db.pool.minSize", "0");
+        System.setProperty("dao.statistics.ttlMs", "0");
+        StandInDatabase primary = StandInDriver.add("primary");
+        StandInDatabase replicaA = StandInDriver.add("replica-a");
+        StandInDatabase replicaB = StandInDriver.add("replica-b");
+        StudentDAO studentDAO = new StudentDAO();
+        StudentQuery byDepartment = StudentQuery.builder()
+            .departmentIn(Collections.singletonList("Computer Science")).limit(50).build();
+
+        System.out.println("== routing ==");
+        check("getAllStudents reads a replica", isReplica(servedBy(studentDAO::getAllStudents)));
+        check("searchByName reads a replica", isReplica(servedBy(() -> studentDAO.searchByName("Kumar"))));
+        check("searchByName prefix reads a replica", isReplica(servedBy(() -> studentDAO.searchByName("K"))));
+        check("searchByDepartment reads a replica", isReplica(servedBy(() -> studentDAO.searchByDepartment("Civil"))));
+        check("query reads a replica", isReplica(servedBy(() -> studentDAO.query(byDepartment))));
+        check("count reads a replica", isReplica(servedBy(() -> studentDAO.count(byDepartment))));
+        check("getStatistics reads a replica", isReplica(servedBy(studentDAO::getStatistics)));
+        check("findById reads the primary", "primary".equals(servedBy(() -> studentDAO.findById(42))));
+        check("searchByRollNo reads the primary", "primary".equals(servedBy(() -> studentDAO.searchByRollNo("CS42"))));
+
+        System.out.println("== load balancing ==");
+        Map<String, Integer> served = readMany(studentDAO, 200);
+        System.out.println("  200 reads: " + served);
+        check("reads split evenly across the replicas",
+            served.getOrDefault("replica-a", 0) == 100 && served.getOrDefault("replica-b", 0) == 100);
+
+        System.out.println("== read-your-writes ==");
+        check("addStudent writes the primary", studentDAO.addStudent(
+            new Student("Sticky Student", "RYW1", "Civil", null, null, 70)) && "primary".equals(StandInDriver.lastQueryBy));
+        check("the next read goes to the primary", "primary".equals(servedBy(studentDAO::getAllStudents)));
+        check("and so does getStatistics", "primary".equals(servedBy(studentDAO::getStatistics)));
+        Thread.sleep(STICKY_MS + 50);
+        check("after db.replica.stickyMs reads go back to the replicas",
+            isReplica(servedBy(studentDAO::getAllStudents)));
+
+        System.out.println("== failover ==");
+        replicaA.down = true;
+        int failed = countFailedReads(studentDAO, 20);
+        served = readMany(studentDAO, 100);
+        System.out.println("  replica-a down: " + failed + " failed reads while it was noticed, then " + served);
+        check("no read fails", failed == 0);
+        check("replica-a is out of rotation", !replicaStatus("students-replica-1").isHealthy());
+        check("replica-b serves every read", served.getOrDefault("replica-b", 0) == 100);
+
+        replicaA.down = false;
+        Thread.sleep(HEALTH_CHECK_MS * 3);
+        served = readMany(studentDAO, 100);
+        System.out.println("  replica-a back: " + served);
+        check("a health check puts replica-a back", replicaStatus("students-replica-1").isHealthy()
+            && served.getOrDefault("replica-a", 0) == 50);
+
+        replicaA.down = true;
+        check("getStatistics reruns elsewhere too", studentDAO.getStatistics().getTotalStudents() > 0
+            && studentDAO.getStatistics().getTotalStudents() > 0);
+        replicaB.down = true;
+        failed = countFailedReads(studentDAO, 20);
+        served = readMany(studentDAO, 100);
+        System.out.println("  both down: " + failed + " failed reads, then " + served);
+        check("no read fails", failed == 0);
+        check("with every replica down reads fall back to the primary", served.getOrDefault("primary", 0) == 100);
+
+        ReplicaSet replicas = DatabaseConnection.getReplicaSet();
+        System.out.println("== " + replicas.getStickyReads() + " sticky reads, " + replicas.getFallbackReads()
+            + " fallback reads ==");
+        for (ReplicaSet.Status status : replicas.getStatus()) {
+            System.out.println("  " + status.getName() + " " + (status.isHealthy() ? "up" : "down") + ", "
+                + status.getReads() + " reads, pool " + status.getPool());
+        }
+        System.out.println("primary queries: " + primary.queries + ", replica-a: " + replicaA.queries
+            + ", replica-b: " + replicaB.queries);
+        DatabaseConnection.closeConnection();
+        System.out.println(failures == 0 ? "PASS" : "FAIL (" + failures + ")");
+        System.exit(failures == 0 ? 0 : 1);
+    }
+
+    private static void check(String label, boolean passed) {
+        System.out.printf("  %-60s %s%n", label, passed ? "ok" : "FAILED");
+        if (!passed) {
+            failures++;
+        }
+    }
+
+    private static boolean isReplica(String database) {
+        return database != null && database.startsWith("replica-");
+    }
+
+    // Which database answered the query a read ran
+    private static String servedBy(Supplier<?> read) {
+        StandInDriver.lastQueryBy = null;
+        read.get();
+        return StandInDriver.lastQueryBy;
+    }
+
+    private static Map<String, Integer> readMany(StudentDAO studentDAO, int reads) {
+        Map<String, Integer> served = new HashMap<>();
+        for (int i = 0; i < reads; i++) {
+            served.merge(String.valueOf(servedBy(studentDAO::getAllStudents)), 1, Integer::sum);
+        }
+        return served;
+    }
+
+    // getAllStudents returns an empty list when its query fails
+    private static int countFailedReads(StudentDAO studentDAO, int reads) {
+        int failed = 0;
+        for (int i = 0; i < reads; i++) {
+            if (studentDAO.getAllStudents().isEmpty()) {
+                failed++;
+            }
+        }
+        return failed;
+    }
+
+    private static ReplicaSet.Status replicaStatus(String name) {
+        for (ReplicaSet.Status status : DatabaseConnection.getReplicaSet().getStatus()) {
+            if (status.getName().equals(name)) {
+                return status;
+            }
+        }
+        throw new IllegalArgumentException(name);
+    }
+
+    static final class StandInDatabase {
+        private final String name;
+        private volatile boolean down;
+        private volatile int queries;
+
+        private StandInDatabase(String name) {
+            this.name = name;
+        }
+
+        private void checkUp() throws SQLException {
+            if (down) {
+                throw new SQLException("Communications link failure: " + name + " is down", "08S01");
+            }
+        }
+    }
+
+    // jdbc:standin:<name>. Connections, statements and result sets are proxies that
+    // fail with SQLSTATE 08S01 while their database is down.
+    public static final class StandInDriver implements Driver {
+        private static final Map<String, StandInDatabase> DATABASES = new ConcurrentHashMap<>();
+        static volatile String lastQueryBy;
+
+        static {
+            try {
+                DriverManager.registerDriver(new StandInDriver());
+            } catch (SQLException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        static StandInDatabase add(String name) {
+            return DATABASES.computeIfAbsent(name, StandInDatabase::new);
+        }
+
+        @Override
+        public Connection connect(String url, Properties info) throws SQLException {
+            if (!acceptsURL(url)) {
+                return null;
+            }
+            StandInDatabase database = DATABASES.get(url.substring("jdbc:standin:".length()));
+            if (database == null) {
+                throw new SQLException("Unknown database " + url, "08001");
+            }
+            database.checkUp();
+            return connection(database);
+        }
+
+        private static Connection connection(StandInDatabase database) {
+            boolean[] closed = {false};
+            boolean[] autoCommit = {true};
+            return (Connection) Proxy.newProxyInstance(StandInDriver.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "close":
+                            closed[0] = true;
+                            return null;
+                        case "isClosed":
+                            return closed[0] || database.down;
+                        case "isValid":
+                            return !closed[0] && !database.down;
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "toString":
+                            return "StandIn[" + database.name + "]";
+                        default:
+                            break;
+                    }
+                    database.checkUp();
+                    switch (method.getName()) {
+                        case "prepareStatement":
+                        case "createStatement":
+                            return statement(database, method.getReturnType());
+                        case "getAutoCommit":
+                            return autoCommit[0];
+                        case "setAutoCommit":
+                            autoCommit[0] = (Boolean) args[0];
+                            return null;
+                        case "isReadOnly":
+                            return false;
+                        default:
+                            return null;
+                    }
+                });
+        }
+
+        private static Object statement(StandInDatabase database, Class<?> type) {
+            return Proxy.newProxyInstance(StandInDriver.class.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("close")) {
+                        return null;
+                    }
+                    database.checkUp();
+                    switch (method.getName()) {
+                        case "executeQuery":
+                            database.queries++;
+                            lastQueryBy = database.name;
+                            return resultSet(database, 1);
+                        case "executeUpdate":
+                            lastQueryBy = database.name;
+                            return 1;
+                        case "getGeneratedKeys":
+                            return resultSet(database, 1);
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        default:
+                            return null;
+                    }
+                });
+        }
+
+        // rows rows, every one with the database's name in its text columns
+        private static ResultSet resultSet(StandInDatabase database, int rows) {
+            String[] columns = {"id", "name", "roll_no", "department", "email", "phone", "marks", "version"};
+            int[] row = {0};
+            return (ResultSet) Proxy.newProxyInstance(StandInDriver.class.getClassLoader(),
+                new Class<?>[]{ResultSet.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "next":
+                            database.checkUp();
+                            return ++row[0] <= rows;
+                        case "findColumn":
+                            for (int i = 0; i < columns.length; i++) {
+                                if (columns[i].equals(args[0])) {
+                                    return i + 1;
+                                }
+                            }
+                            throw new SQLException("No column " + args[0]);
+                        case "getString":
+                            return database.name;
+                        case "getInt":
+                            return row[0];
+                        case "getLong":
+                            return (long) row[0];
+                        case "getDouble":
+                            return 50.0;
+                        case "wasNull":
+                            return false;
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "equals":
+                            return proxy == args[0];
+                        default:
+                            return null;
+                    }
+                });
+        }
+
+        @Override
+        public boolean acceptsURL(String url) {
+            return url.startsWith("jdbc:standin:");
+        }
+
+        @Override
+        public DriverPropertyInfo[] getPropertyInfo(String url, Properties info) {
+            return new DriverPropertyInfo[0];
+        }
+
+        @Override
+        public int getMajorVersion() {
+            return 1;
+        }
+
+        @Override
+        public int getMinorVersion() {
+            return 0;
+        }
+
+        @Override
+        public boolean jdbcCompliant() {
+            return false;
+        }
+
+        @Override
+        public Logger getParentLogger() {
+            return Logger.getGlobal();
+        }
+    }
+}
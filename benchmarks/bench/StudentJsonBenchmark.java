@@ -0,0 +1,191 @@
+package bench;
+
+import dao.RowMapper;
+import dao.StudentRowMapper;
+import models.Student;
+import server.StudentJsonWriter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+// JSON encoding of a student result three ways, from the same in-memory cursor:
+//  1. cursor only: read every column and discard it (what any approach pays)
+//  2. naive: map rows to a List<Student>, serialize each with a reflective
+//     getter-based mapper into a String, then encode it to bytes
+//  3. StudentJsonWriter: straight from the cursor into its reusable buffer
+// Reports output MB/sec and bytes allocated per row (thread allocation counter).
+//
+// Run with: ant bench-json [-Dbench.rows=200000]
+public class StudentJsonBenchmark {
+    private static final int ROUNDS = 20;
+    private static final String[] COLUMNS = {"id", "name", "roll_no", "department", "email", "phone", "marks", "version"};
+    private static final String[] DEPARTMENTS = {"Computer Science", "Electronics", "Mechanical", "Civil"};
+
+    public static void main(String[] args) throws Exception {
+        int rows = Integer.getInteger("bench.rows", 200_000);
+        Object[][] data = new Object[rows][];
+        for (int i = 0; i < rows; i++) {
+            data[i] = new Object[]{i + 1, "Student " + i, "CS" + i, DEPARTMENTS[i % DEPARTMENTS.length],
+                i % 5 == 0 ? null : "student" + i + "@email.com", "98765" + (10_000 + i % 90_000), 40 + (i % 600) / 10.0,
+                i % 7};
+        }
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        CountingOutputStream sink = new CountingOutputStream();
+        StudentJsonWriter writer = new StudentJsonWriter(sink);
+        ReflectiveJson reflective = new ReflectiveJson();
+
+        Approach cursorOnly = () -> {
+            ResultSet rs = resultSet(data);
+            long sum = 0;
+            while (rs.next()) {
+                sum += rs.getInt(1) + (rs.getString(2).length()) + (rs.getString(3).length())
+                    + rs.getString(4).length() + (rs.getString(5) == null ? 0 : 1) + rs.getString(6).length()
+                    + (long) rs.getDouble(7) + rs.getInt(8);
+            }
+            sink.write((int) sum);
+        };
+        Approach naive = () -> {
+            ResultSet rs = resultSet(data);
+            RowMapper<Student> mapper = new StudentRowMapper();
+            List<Student> students = new ArrayList<>();
+            while (rs.next()) {
+                students.add(mapper.mapRow(rs));
+            }
+            sink.write(reflective.toJson(students).getBytes(StandardCharsets.UTF_8));
+        };
+        Approach streaming = () -> {
+            writer.reset(sink);
+            writer.writeRows(resultSet(data));
+            writer.flush();
+        };
+
+        System.out.println("== JSON for " + rows + " students (" + ROUNDS + " rounds) ==");
+        double baseline = measure("cursor only       ", cursorOnly, rows, sink, threads, 0);
+        measure("naive (reflective)", naive, rows, sink, threads, baseline);
+        measure("StudentJsonWriter ", streaming, rows, sink, threads, baseline);
+    }
+
+    // Returns bytes allocated per row
+    private static double measure(String label, Approach approach, int rows, CountingOutputStream sink,
+                                  com.sun.management.ThreadMXBean threads, double baseline) throws Exception {
+        for (int i = 0; i < ROUNDS / 2; i++) {
+            approach.run();
+        }
+        long threadId = Thread.currentThread().getId();
+        sink.count = 0;
+        long allocated = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            approach.run();
+        }
+        long nanos = System.nanoTime() - start;
+        double perRow = (threads.getThreadAllocatedBytes(threadId) - allocated) / (double) rows / ROUNDS;
+        if (baseline == 0) {
+            System.out.printf("%s : %8.1f ns/row  %7.1f B/row allocated (the cursor's own cost)%n",
+                label, nanos / (double) rows / ROUNDS, perRow);
+        } else {
+            System.out.printf("%s : %8.1f ns/row  %7.1f MB/s  %7.1f B/row allocated beyond the cursor%n",
+                label, nanos / (double) rows / ROUNDS, sink.count / (nanos / 1e9) / 1e6, perRow - baseline);
+        }
+        return perRow;
+    }
+
+    @FunctionalInterface
+    private interface Approach {
+        void run() throws SQLException, IOException;
+    }
+
+    // What a generic mapper does: walk the getters and box every value
+    private static final class ReflectiveJson {
+        private final List<Method> getters = new ArrayList<>();
+
+        private ReflectiveJson() {
+            for (Method method : Student.class.getMethods()) {
+                if (method.getName().startsWith("get") && method.getParameterCount() == 0
+                        && !Modifier.isStatic(method.getModifiers()) && method.getDeclaringClass() == Student.class) {
+                    getters.add(method);
+                }
+            }
+        }
+
+        private String toJson(List<Student> students) throws IOException {
+            StringBuilder json = new StringBuilder().append('[');
+            try {
+                for (int i = 0; i < students.size(); i++) {
+                    json.append(i == 0 ? "{" : ",{");
+                    for (int g = 0; g < getters.size(); g++) {
+                        Method getter = getters.get(g);
+                        String field = getter.getName().substring(3);
+                        json.append(g == 0 ? "" : ",").append('"')
+                            .append(Character.toLowerCase(field.charAt(0))).append(field.substring(1)).append("\":");
+                        Object value = getter.invoke(students.get(i));
+                        if (value instanceof String) {
+                            json.append('"').append(((String) value).replace("\\", "\\\\").replace("\"", "\\\"")).append('"');
+                        } else {
+                            json.append(value);
+                        }
+                    }
+                    json.append('}');
+                }
+            } catch (ReflectiveOperationException e) {
+                throw new IOException(e);
+            }
+            return json.append(']').toString();
+        }
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) {
+            count += length;
+        }
+    }
+
+    // In-memory ResultSet over rows; values are handed back as stored, so reading a
+    // column allocates only what the proxy call itself does
+    private static ResultSet resultSet(Object[][] rows) {
+        int[] cursor = {-1};
+        return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[]{ResultSet.class},
+            (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "next":
+                        return ++cursor[0] < rows.length;
+                    case "findColumn":
+                        for (int i = 0; i < COLUMNS.length; i++) {
+                            if (COLUMNS[i].equalsIgnoreCase((String) args[0])) {
+                                return i + 1;
+                            }
+                        }
+                        throw new SQLException("Column not found: " + args[0]);
+                    case "getInt":
+                    case "getString":
+                    case "getDouble":
+                        return rows[cursor[0]][(Integer) args[0] - 1];
+                    case "close":
+                        return null;
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    case "equals":
+                        return proxy == args[0];
+                    default:
+                        throw new UnsupportedOperationException(method.getName());
+                }
+            });
+    }
+}
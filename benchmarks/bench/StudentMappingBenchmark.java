@@ -0,0 +1,163 @@
+package bench;
+
+import dao.RowMapper;
+import dao.StudentRowMapper;
+import database.DatabaseConnection;
+import models.Student;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Properties;
+
+// Before/after micro-benchmark for StudentDAO's read path:
+//  1. per-row mapping: name-based getXxx("column") lookups vs StudentRowMapper's
+//     index lookups resolved once per ResultSet (in memory, no database needed)
+//  2. per-query preparation: plain client-side statements vs Connector/J's
+//     server-side prepared statement cache (needs a reachable MySQL, see db.* properties)
+//
+// Run with: ant bench-mapping
+public class StudentMappingBenchmark {
+    private static final int ROWS = 10_000;
+    private static final int ROUNDS = 200;
+    private static final int QUERIES = 2_000;
+
+    private static final String[] COLUMNS = {"id", "name", "roll_no", "department", "email", "phone", "marks", "version", "created_at"};
+
+    public static void main(String[] args) throws Exception {
+        Object[][] rows = new Object[ROWS][];
+        for (int i = 0; i < ROWS; i++) {
+            rows[i] = new Object[]{i + 1, "Student " + i, "CS" + i, "Computer Science",
+                "student" + i + "@email.com", "98765" + (10000 + i % 90000), 40.0 + i % 60, i % 7, null};
+        }
+
+        System.out.println("== Row mapping (" + ROWS + " rows x " + ROUNDS + " rounds) ==");
+        // Warm up both paths before measuring
+        for (int i = 0; i < ROUNDS / 4; i++) {
+            mapByName(resultSet(rows));
+            mapByIndex(resultSet(rows));
+        }
+        long blackhole = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            blackhole += mapByName(resultSet(rows));
+        }
+        double byName = (System.nanoTime() - start) / (double) (ROWS * ROUNDS);
+        start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            blackhole += mapByIndex(resultSet(rows));
+        }
+        double byIndex = (System.nanoTime() - start) / (double) (ROWS * ROUNDS);
+        System.out.printf("by column name   : %8.1f ns/row%n", byName);
+        System.out.printf("StudentRowMapper : %8.1f ns/row%n", byIndex);
+        System.out.println("(checksum " + blackhole + ")");
+
+        System.out.println();
+        System.out.println("== Statement preparation (" + QUERIES + " lookups by id) ==");
+        try {
+            System.out.printf("no statement cache     : %8.1f us/query%n", preparedLookups(false));
+            System.out.printf("server-side stmt cache : %8.1f us/query%n", preparedLookups(true));
+        } catch (SQLException e) {
+            System.out.println("skipped, database unavailable: " + e.getMessage());
+        }
+    }
+
+    // The mapping StudentDAO used to copy into every query method
+    private static long mapByName(ResultSet rs) throws SQLException {
+        long sum = 0;
+        while (rs.next()) {
+            Student student = new Student(
+                rs.getInt("id"),
+                rs.getString("name"),
+                rs.getString("roll_no"),
+                rs.getString("department"),
+                rs.getString("email"),
+                rs.getString("phone"),
+                rs.getDouble("marks"),
+                rs.getInt("version")
+            );
+            sum += student.getId();
+        }
+        return sum;
+    }
+
+    private static long mapByIndex(ResultSet rs) throws SQLException {
+        long sum = 0;
+        RowMapper<Student> mapper = new StudentRowMapper();
+        while (rs.next()) {
+            sum += mapper.mapRow(rs).getId();
+        }
+        return sum;
+    }
+
+    private static double preparedLookups(boolean statementCache) throws SQLException {
+        Properties properties = new Properties();
+        properties.setProperty("user", System.getProperty("db.user", "root"));
+        properties.setProperty("password", System.getProperty("db.password", ""));
+        if (statementCache) {
+            DatabaseConnection.addStatementCacheProperties(properties);
+        }
+        String url = System.getProperty("db.url",
+            "jdbc:mysql://localhost:3306/studentmanagement?zeroDateTimeBehavior=CONVERT_TO_NULL");
+        String query = "SELECT id, name, roll_no, department, email, phone, marks FROM students WHERE id=?";
+        try (Connection conn = DriverManager.getConnection(url, properties)) {
+            long start = 0;
+            for (int i = -QUERIES / 4; i < QUERIES; i++) {
+                if (i == 0) {
+                    start = System.nanoTime();
+                }
+                try (PreparedStatement stmt = conn.prepareStatement(query)) {
+                    stmt.setInt(1, 1 + Math.floorMod(i, 100));
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        rs.next();
+                    }
+                }
+            }
+            return (System.nanoTime() - start) / 1000.0 / QUERIES;
+        }
+    }
+
+    // In-memory ResultSet over rows. Like real drivers, label lookups resolve the
+    // label to an index case-insensitively on every call.
+    private static ResultSet resultSet(Object[][] rows) {
+        int[] cursor = {-1};
+        return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[]{ResultSet.class},
+            (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "next":
+                        return ++cursor[0] < rows.length;
+                    case "findColumn":
+                        return findColumn((String) args[0]);
+                    case "getInt":
+                    case "getString":
+                    case "getDouble":
+                        int column = args[0] instanceof String ? findColumn((String) args[0]) : (Integer) args[0];
+                        Object value = rows[cursor[0]][column - 1];
+                        if (method.getName().equals("getString")) {
+                            return value == null ? null : value.toString();
+                        }
+                        return value;
+                    case "close":
+                        return null;
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    case "equals":
+                        return proxy == args[0];
+                    default:
+                        throw new UnsupportedOperationException(method.getName());
+                }
+            });
+    }
+
+    private static int findColumn(String label) throws SQLException {
+        for (int i = 0; i < COLUMNS.length; i++) {
+            if (COLUMNS[i].equalsIgnoreCase(label)) {
+                return i + 1;
+            }
+        }
+        throw new SQLException("Column not found: " + label);
+    }
+}
@@ -0,0 +1,105 @@
+package bench;
+
+import models.Student;
+import service.StudentSnapshot;
+import service.StudentSnapshotFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Vector;
+
+// Retained heap of the roster held three ways:
+//  1. List<Student>, as returned by StudentDAO.getAllStudents
+//  2. DefaultTableModel-style Vector rows with boxed ids and marks
+//  3. StudentSnapshot (primitive and packed columns)
+//  4. StudentSnapshot mapped from a StudentSnapshotFile, plus the time to open it
+// Strings are created per row, as a JDBC driver would, so nothing is shared by accident.
+//
+// Run with: ant bench-memory [-Dbench.rows=1000000]
+public class StudentMemoryBenchmark {
+    private static final String[] DEPARTMENTS = {
+        "Computer Science", "Electronics", "Mechanical", "Civil", "Electrical", "Chemical", "Biotechnology", "Mathematics"
+    };
+
+    public static void main(String[] args) throws IOException {
+        int rows = Integer.getInteger("bench.rows", 1_000_000);
+        System.out.println("== Retained heap for " + rows + " students ==");
+
+        long baseline = usedHeap();
+        List<Student> students = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            students.add(generate(i));
+        }
+        long listBytes = usedHeap() - baseline;
+
+        baseline = usedHeap();
+        Vector<Vector<Object>> tableRows = new Vector<>(rows);
+        for (int i = 0; i < rows; i++) {
+            Student s = generate(i);
+            Vector<Object> row = new Vector<>(7);
+            row.add(s.getId());
+            row.add(s.getName());
+            row.add(s.getRollNo());
+            row.add(s.getDepartment());
+            row.add(s.getEmail());
+            row.add(s.getPhone());
+            row.add(s.getMarks());
+            tableRows.add(row);
+        }
+        long tableBytes = usedHeap() - baseline;
+
+        baseline = usedHeap();
+        StudentSnapshot.Builder builder = new StudentSnapshot.Builder(rows);
+        for (int i = 0; i < rows; i++) {
+            builder.add(generate(i));
+        }
+        StudentSnapshot snapshot = builder.build();
+        builder = null;
+        long snapshotBytes = usedHeap() - baseline;
+
+        Path file = Files.createTempFile("students", ".snapshot");
+        StudentSnapshotFile.write(snapshot, file, 0);
+        baseline = usedHeap();
+        long opening = System.nanoTime();
+        StudentSnapshot mapped = StudentSnapshotFile.open(file);
+        double openMillis = (System.nanoTime() - opening) / 1e6;
+        long mappedBytes = usedHeap() - baseline;
+
+        System.out.printf("List<Student>           : %8.1f MB  (%5.1f bytes/row)%n", mb(listBytes), (double) listBytes / rows);
+        System.out.printf("DefaultTableModel rows  : %8.1f MB  (%5.1f bytes/row)%n", mb(tableBytes), (double) tableBytes / rows);
+        System.out.printf("StudentSnapshot         : %8.1f MB  (%5.1f bytes/row, %.1f MB by estimate)%n",
+            mb(snapshotBytes), (double) snapshotBytes / rows, mb(snapshot.estimatedBytes()));
+
+        System.out.printf("Mapped StudentSnapshot  : %8.1f MB  (%5.1f bytes/row, %.1f MB file, opened in %.1f ms)%n",
+            mb(mappedBytes), (double) mappedBytes / rows, mb(Files.size(file)), openMillis);
+
+        // Keep all four alive until every measurement is taken
+        System.out.println("(kept " + (students.size() + tableRows.size() + snapshot.size() + mapped.size()) + " rows)");
+        Files.deleteIfExists(file);
+    }
+
+    private static Student generate(int i) {
+        return new Student(i + 1, "Student " + i, "RN" + i, new String(DEPARTMENTS[i % DEPARTMENTS.length]),
+            "student" + i + "@email.com", String.valueOf(9_000_000_000L + i), 35 + (i * 7919 % 6500) / 100.0);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 4; i++) {
+            System.gc();
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static double mb(long bytes) {
+        return bytes / (1024.0 * 1024.0);
+    }
+}
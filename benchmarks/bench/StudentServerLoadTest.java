@@ -0,0 +1,210 @@
+package bench;
+
+import dao.StudentDAO;
+import metrics.LatencyHistogram;
+import models.StatisticsSnapshot;
+import models.Student;
+import server.StudentServer;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Closed-loop load test of the REST server: bench.concurrency clients each send
+// requests back to back for bench.seconds after a warm-up, and the harness
+// reports requests/sec, latency percentiles and the status mix. The request mix
+// is 60% GET /students/{id}, 20% keyset pages, 10% department search and 10%
+// /stats; a third of the GETs revalidate with the ETag seen last time, and all
+// accept gzip.
+//
+// By default the server runs in-process over an in-memory DAO, which measures the
+// HTTP, JSON, ETag and gzip layers alone. -Dbench.db=true uses a real StudentDAO
+// (db.* properties), and -Dbench.url=http://host:port targets a running server.
+//
+// Run with: ant bench-server [-Dbench.concurrency=256] [-Dbench.seconds=20]
+public class StudentServerLoadTest {
+    private static final String[] DEPARTMENTS = {
+        "Computer Science", "Electronics", "Mechanical", "Civil", "Electrical", "Chemical", "Biotechnology", "Mathematics"
+    };
+
+    public static void main(String[] args) throws Exception {
+        int concurrency = Integer.getInteger("bench.concurrency", 128);
+        int seconds = Integer.getInteger("bench.seconds", 10);
+        int warmupSeconds = Integer.getInteger("bench.warmupSeconds", 3);
+        int rows = Integer.getInteger("bench.rows", 10_000);
+        String url = System.getProperty("bench.url");
+
+        StudentServer server = null;
+        if (url == null) {
+            StudentDAO dao = Boolean.getBoolean("bench.db") ? new StudentDAO() : new InMemoryStudentDAO(rows);
+            server = new StudentServer(dao, new InetSocketAddress("localhost", 0),
+                Integer.getInteger("server.threads", 32), Integer.getInteger("server.queue", 1_024));
+            server.start();
+            url = "http://localhost:" + server.getPort();
+        }
+
+        ExecutorService clients = Executors.newFixedThreadPool(concurrency);
+        ExecutorService io = Executors.newFixedThreadPool(Math.max(4, concurrency / 8));
+        HttpClient http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .executor(io)
+            .build();
+        try {
+            System.out.println("== " + url + ", " + concurrency + " clients ==");
+            run(http, clients, url, concurrency, warmupSeconds, rows);
+            Result result = run(http, clients, url, concurrency, seconds, rows);
+            result.print(seconds);
+        } finally {
+            clients.shutdownNow();
+            io.shutdownNow();
+            if (server != null) {
+                server.stop(0);
+            }
+        }
+    }
+
+    private static Result run(HttpClient http, ExecutorService clients, String url, int concurrency, int seconds,
+                              int rows) throws InterruptedException {
+        Result result = new Result();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        List<Future<?>> running = new ArrayList<>();
+        for (int c = 0; c < concurrency; c++) {
+            running.add(clients.submit(() -> {
+                Map<String, String> etags = new LinkedHashMap<>();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (System.nanoTime() < deadline) {
+                    String path = nextPath(random, rows);
+                    HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(url + path))
+                        .timeout(Duration.ofSeconds(30))
+                        .header("Accept-Encoding", "gzip");
+                    String etag = etags.get(path);
+                    if (etag != null && random.nextInt(3) == 0) {
+                        request.header("If-None-Match", etag);
+                    }
+                    long start = System.nanoTime();
+                    try {
+                        HttpResponse<byte[]> response = http.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+                        result.latency.record(System.nanoTime() - start);
+                        result.bytes.add(response.body().length);
+                        result.statuses.computeIfAbsent(response.statusCode(), s -> new LongAdder()).increment();
+                        response.headers().firstValue("ETag").ifPresent(tag -> {
+                            if (etags.size() < 1_000) {
+                                etags.put(path, tag);
+                            }
+                        });
+                    } catch (Exception e) {
+                        result.errors.increment();
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : running) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                result.errors.increment();
+            }
+        }
+        return result;
+    }
+
+    private static String nextPath(ThreadLocalRandom random, int rows) {
+        int pick = random.nextInt(10);
+        if (pick < 6) {
+            return "/students/" + (1 + random.nextInt(rows));
+        } else if (pick < 8) {
+            return "/students?afterId=" + (random.nextInt(rows / 100 + 1) * 100) + "&limit=50";
+        } else if (pick < 9) {
+            return "/students/search?department=" + DEPARTMENTS[random.nextInt(DEPARTMENTS.length)].replace(" ", "+");
+        }
+        return "/stats";
+    }
+
+    private static final class Result {
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+        private final LongAdder bytes = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+
+        private void print(int seconds) {
+            long requests = latency.getCount();
+            System.out.printf("requests/sec : %,10.0f%n", requests / (double) seconds);
+            System.out.printf("latency ms   : p50 %.2f  p90 %.2f  p99 %.2f  p99.9 %.2f  max %.2f%n",
+                ms(latency.getPercentileNanos(50)), ms(latency.getPercentileNanos(90)),
+                ms(latency.getPercentileNanos(99)), ms(latency.getPercentileNanos(99.9)), ms(latency.getMaxNanos()));
+            System.out.printf("body MB/sec  : %10.1f (after gzip)%n", bytes.sum() / 1e6 / seconds);
+            StringBuilder mix = new StringBuilder();
+            statuses.entrySet().stream().sorted(Map.Entry.comparingByKey())
+                .forEach(e -> mix.append(e.getKey()).append('=').append(e.getValue().sum()).append("  "));
+            System.out.println("statuses     : " + mix + (errors.sum() > 0 ? "errors=" + errors.sum() : ""));
+        }
+
+        private static double ms(long nanos) {
+            return nanos / 1e6;
+        }
+    }
+
+    // Reads from generated rows, so the server can be measured without a database
+    private static final class InMemoryStudentDAO extends StudentDAO {
+        private final List<Student> students = new ArrayList<>();
+        private final StatisticsSnapshot statistics;
+
+        private InMemoryStudentDAO(int rows) {
+            Map<String, StatisticsSnapshot.DepartmentStatistics> departments = new LinkedHashMap<>();
+            for (int i = 1; i <= rows; i++) {
+                students.add(new Student(i, "Student " + i, "BR" + i, DEPARTMENTS[i % DEPARTMENTS.length],
+                    "student" + i + "@email.com", "98765" + (10_000 + i % 90_000), 40 + i % 60));
+            }
+            for (String department : DEPARTMENTS) {
+                departments.put(department, new StatisticsSnapshot.DepartmentStatistics(department, rows / DEPARTMENTS.length,
+                    99, 40, 69.5));
+            }
+            statistics = new StatisticsSnapshot(rows, 99, 40, 69.5, departments);
+        }
+
+        @Override
+        public Student findById(int id) {
+            return id >= 1 && id <= students.size() ? students.get(id - 1) : null;
+        }
+
+        @Override
+        public List<Student> getStudentsPage(int afterId, int pageSize) {
+            int from = Math.max(0, Math.min(afterId, students.size()));
+            return students.subList(from, Math.min(from + pageSize, students.size()));
+        }
+
+        // The first 100 matches, a typical search result size
+        @Override
+        public List<Student> searchByDepartment(String department) {
+            List<Student> matches = new ArrayList<>();
+            for (int i = 0; i < students.size() && matches.size() < 100; i++) {
+                if (students.get(i).getDepartment().equals(department)) {
+                    matches.add(students.get(i));
+                }
+            }
+            return matches;
+        }
+
+        @Override
+        public StatisticsSnapshot getStatistics() {
+            return statistics;
+        }
+    }
+}
@@ -11,9 +11,29 @@ CREATE TABLE IF NOT EXISTS students (
     email VARCHAR(100),
     phone VARCHAR(10),
     marks DOUBLE,
-    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+    version INT NOT NULL DEFAULT 0,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3),
+    INDEX idx_students_department (department),
+    INDEX idx_students_name (name),
+    INDEX idx_students_marks (marks),
+    INDEX idx_students_created_at (created_at),
+    INDEX idx_students_updated_at (updated_at),
+    FULLTEXT INDEX ft_students_name (name) WITH PARSER ngram
 );
 
+-- Ids removed from students, so clients holding a local copy can sync deletions
+CREATE TABLE IF NOT EXISTS student_deletions (
+    id INT PRIMARY KEY,
+    deleted_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+    INDEX idx_student_deletions_deleted_at (deleted_at)
+);
+
+DROP TRIGGER IF EXISTS students_after_delete;
+CREATE TRIGGER students_after_delete AFTER DELETE ON students FOR EACH ROW
+    INSERT INTO student_deletions (id, deleted_at) VALUES (OLD.id, CURRENT_TIMESTAMP(3))
+    ON DUPLICATE KEY UPDATE deleted_at = CURRENT_TIMESTAMP(3);
+
 -- Sample Data
 INSERT INTO students (name, roll_no, department, email, phone, marks) VALUES
 ('Rajesh Kumar', 'CS001', 'Computer Science', 'rajesh@email.com', '9876543210', 85.5),
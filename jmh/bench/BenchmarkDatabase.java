@@ -0,0 +1,108 @@
+package bench;
+
+import dao.StudentDAO;
+import database.DatabaseConnection;
+import models.Student;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+// Embedded H2 (MySQL mode) database for benchmarks, created from database_schema.sql
+// and padded out with generated students. Points DatabaseConnection at it through
+// the same db.* system properties the application reads.
+public final class BenchmarkDatabase {
+    static final String[] DEPARTMENTS = {
+        "Computer Science", "Electronics", "Mechanical", "Civil", "Electrical", "Chemical", "Biotechnology", "Mathematics"
+    };
+    static final String[] FIRST_NAMES = {
+        "Rajesh", "Priya", "Amit", "Neha", "Vikram", "Anita", "Suresh", "Kavya", "Arjun", "Meera", "Rohan", "Divya"
+    };
+    static final String[] LAST_NAMES = {
+        "Kumar", "Singh", "Patel", "Sharma", "Reddy", "Iyer", "Nair", "Gupta", "Das", "Menon", "Joshi", "Rao"
+    };
+
+    private static final int SEED_BATCH = 5_000;
+
+    private BenchmarkDatabase() {
+    }
+
+    // Create the schema and insert rows students (the sample rows from the schema file count towards it)
+    public static void start(String name, int rows) throws IOException, SQLException {
+        System.setProperty("db.driver", "org.h2.Driver");
+        System.setProperty("db.url", "jdbc:h2:mem:" + name + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+        System.setProperty("db.user", "sa");
+        System.setProperty("db.password", "");
+        // H2 has no FULLTEXT ... WITH PARSER ngram, so measure the LIKE path
+        System.setProperty("dao.search.fullText", "false");
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             Statement stmt = conn.createStatement()) {
+            for (String sql : schemaStatements()) {
+                stmt.execute(sql);
+            }
+        }
+
+        StudentDAO studentDAO = new StudentDAO();
+        List<Student> batch = new ArrayList<>(SEED_BATCH);
+        for (int i = studentDAO.getTotalStudents(); i < rows; i++) {
+            batch.add(generate(i));
+            if (batch.size() == SEED_BATCH) {
+                studentDAO.addStudentsBatch(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            studentDAO.addStudentsBatch(batch);
+        }
+    }
+
+    public static void stop() {
+        try (Connection conn = DatabaseConnection.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("DROP ALL OBJECTS");
+        } catch (SQLException e) {
+            System.err.println("Error dropping benchmark database: " + e.getMessage());
+        }
+        DatabaseConnection.closeConnection();
+    }
+
+    static Student generate(int i) {
+        String name = FIRST_NAMES[i % FIRST_NAMES.length] + " " + LAST_NAMES[(i / FIRST_NAMES.length) % LAST_NAMES.length]
+            + " " + i;
+        return new Student(name, "BR" + i, DEPARTMENTS[i % DEPARTMENTS.length], "student" + i + "@email.com",
+            String.valueOf(9_000_000_000L + i), 35 + (i * 7919 % 6500) / 100.0);
+    }
+
+    // database_schema.sql, minus what only makes sense on a MySQL server
+    private static List<String> schemaStatements() throws IOException {
+        Path schema = Paths.get(System.getProperty("bench.schema", "database_schema.sql"));
+        StringBuilder script = new StringBuilder();
+        for (String line : Files.readAllLines(schema, StandardCharsets.UTF_8)) {
+            String trimmed = line.trim();
+            if (trimmed.startsWith("--") || trimmed.contains("FULLTEXT")) {
+                continue;
+            }
+            script.append(line).append('\n');
+        }
+        List<String> statements = new ArrayList<>();
+        for (String sql : script.toString().split(";")) {
+            String statement = sql.trim().replaceAll(",\\s*\\)\\s*$", "\n)");
+            String upper = statement.toUpperCase();
+            // H2 triggers are Java classes, not SQL bodies
+            if (statement.isEmpty() || upper.startsWith("CREATE DATABASE") || upper.startsWith("USE ")
+                    || upper.contains(" TRIGGER ")) {
+                continue;
+            }
+            statements.add(statement);
+        }
+        return statements;
+    }
+}
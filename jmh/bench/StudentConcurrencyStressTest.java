@@ -0,0 +1,249 @@
+package bench;
+
+import dao.StudentDAO;
+import dao.UpdateResult;
+import database.DatabaseConnection;
+import database.PoolMetrics;
+import metrics.LatencyHistogram;
+import models.Student;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Concurrency stress test for StudentDAO and the connection pool: bench.threads
+// workers hammer the students table for bench.seconds with
+//   50% optimistic read-modify-write of a few contended rows: marks + 1, retried on CONFLICT
+//   25% insert of a new student
+//   25% delete of a student this run inserted
+// then check that no increment was lost (each contended row's marks and version
+// moved by exactly its successful increments), that every insert not deleted is
+// there and every delete is gone. Prints throughput, latency percentiles, the
+// conflict rate and pool waits, and exits with 1 if a check fails.
+//
+// Runs against an embedded H2 seeded from database_schema.sql, or against the
+// database in the db.* properties when -Ddb.url is given; rows it creates there
+// are deleted afterwards.
+//
+// Run with: ant stress [-Dbench.threads=32] [-Dbench.seconds=10] [-Dbench.rows=20]
+public class StudentConcurrencyStressTest {
+    public static void main(String[] args) throws Exception {
+        int threads = Integer.getInteger("bench.threads", 32);
+        int seconds = Integer.getInteger("bench.seconds", 10);
+        int contended = Integer.getInteger("bench.rows", 20);
+        boolean external = System.getProperty("db.url") != null;
+        if (!external) {
+            BenchmarkDatabase.start("stress", 0);
+        }
+        // Unique per run, so checks and cleanup only see this run's rows
+        String tag = "ST" + Long.toString(System.currentTimeMillis() % 2_000_000_000L, 36);
+
+        StudentDAO studentDAO = new StudentDAO();
+        int[] ids = new int[contended];
+        for (int i = 0; i < contended; i++) {
+            Student student = new Student(tag + " hot " + i, tag + "H" + i, "Stress", null, null, 0);
+            if (!studentDAO.addStudent(student)) {
+                throw new SQLException("Could not seed contended students");
+            }
+            ids[i] = student.getId();
+        }
+
+        Run run = new Run(studentDAO, tag, ids);
+        ExecutorService workers = Executors.newFixedThreadPool(threads);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        List<Future<?>> running = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            running.add(workers.submit(() -> {
+                while (System.nanoTime() < deadline) {
+                    run.step(ThreadLocalRandom.current());
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : running) {
+            future.get();
+        }
+        workers.shutdown();
+
+        System.out.println("== " + threads + " threads, " + seconds + " s, " + contended + " contended rows, "
+            + (external ? System.getProperty("db.url") : "embedded H2") + " ==");
+        run.print(seconds);
+        boolean passed = run.verify();
+        if (external) {
+            run.cleanUp();
+        } else {
+            BenchmarkDatabase.stop();
+        }
+        System.exit(passed ? 0 : 1);
+    }
+
+    private static final class Run {
+        private final StudentDAO studentDAO;
+        private final String tag;
+        private final int[] ids;
+        private final AtomicIntegerArray increments;
+        private final AtomicInteger nextRollNo = new AtomicInteger();
+        private final ConcurrentLinkedQueue<Student> live = new ConcurrentLinkedQueue<>();
+        private final Set<String> deleted = ConcurrentHashMap.newKeySet();
+        private final LatencyHistogram incrementLatency = new LatencyHistogram();
+        private final LatencyHistogram insertLatency = new LatencyHistogram();
+        private final LatencyHistogram deleteLatency = new LatencyHistogram();
+        private final LongAdder conflicts = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+
+        private Run(StudentDAO studentDAO, String tag, int[] ids) {
+            this.studentDAO = studentDAO;
+            this.tag = tag;
+            this.ids = ids;
+            this.increments = new AtomicIntegerArray(ids.length);
+        }
+
+        private void step(ThreadLocalRandom random) {
+            int pick = random.nextInt(4);
+            if (pick < 2) {
+                increment(random.nextInt(ids.length));
+            } else if (pick == 3 && !live.isEmpty()) {
+                delete();
+            } else {
+                insert();
+            }
+        }
+
+        // Read, add one, write back; lost races re-read and try again
+        private void increment(int index) {
+            long start = System.nanoTime();
+            while (true) {
+                Student student = studentDAO.findById(ids[index]);
+                if (student == null) {
+                    failures.increment();
+                    return;
+                }
+                student.setMarks(student.getMarks() + 1);
+                UpdateResult result = studentDAO.update(student);
+                if (result == UpdateResult.UPDATED) {
+                    increments.incrementAndGet(index);
+                    incrementLatency.record(System.nanoTime() - start);
+                    return;
+                }
+                if (result != UpdateResult.CONFLICT) {
+                    failures.increment();
+                    return;
+                }
+                conflicts.increment();
+            }
+        }
+
+        private void insert() {
+            long start = System.nanoTime();
+            int n = nextRollNo.incrementAndGet();
+            Student student = new Student(tag + " student " + n, tag + "-" + n, "Stress", null, null, 50);
+            if (studentDAO.addStudent(student)) {
+                live.add(student);
+                insertLatency.record(System.nanoTime() - start);
+            } else {
+                failures.increment();
+            }
+        }
+
+        private void delete() {
+            Student student = live.poll();
+            if (student == null) {
+                return;
+            }
+            long start = System.nanoTime();
+            if (studentDAO.deleteStudent(student.getId())) {
+                deleted.add(student.getRollNo());
+                deleteLatency.record(System.nanoTime() - start);
+            } else {
+                live.add(student);
+                failures.increment();
+            }
+        }
+
+        private void print(int seconds) {
+            long operations = incrementLatency.getCount() + insertLatency.getCount() + deleteLatency.getCount();
+            System.out.printf("operations/sec : %,10.0f%n", operations / (double) seconds);
+            print("increment", incrementLatency, seconds);
+            print("insert", insertLatency, seconds);
+            print("delete", deleteLatency, seconds);
+            System.out.printf("conflicts      : %,d (%.2f retries per increment)%n", conflicts.sum(),
+                conflicts.sum() / (double) Math.max(1, incrementLatency.getCount()));
+            System.out.println("failures       : " + failures.sum());
+            PoolMetrics pool = DatabaseConnection.getPoolMetrics();
+            System.out.printf("pool           : %d connections, avg wait %.2f ms, max wait %.2f ms, %d timeouts%n",
+                pool.getTotal(), pool.getAverageWaitMillis(), pool.getMaxWaitMillis(), pool.getTimeoutCount());
+        }
+
+        private static void print(String label, LatencyHistogram latency, int seconds) {
+            System.out.printf("  %-12s : %,8.0f/s  p50 %.2f ms  p99 %.2f ms  max %.2f ms%n", label,
+                latency.getCount() / (double) seconds, latency.getPercentileNanos(50) / 1e6,
+                latency.getPercentileNanos(99) / 1e6, latency.getMaxNanos() / 1e6);
+        }
+
+        // Compare the table, read past every cache, with what the workers did
+        private boolean verify() throws SQLException {
+            Map<String, Student> stored = new HashMap<>();
+            studentDAO.streamStudents("Stress", tag, rs -> {
+                Student student = new Student(rs.getInt(1), rs.getString(2), rs.getString(3), rs.getString(4),
+                    rs.getString(5), rs.getString(6), rs.getDouble(7), rs.getInt(8));
+                stored.put(student.getRollNo(), student);
+                return true;
+            });
+
+            int lost = 0;
+            for (int i = 0; i < ids.length; i++) {
+                Student student = stored.get(tag + "H" + i);
+                int expected = increments.get(i);
+                if (student == null || student.getMarks() != expected || student.getVersion() != expected) {
+                    lost++;
+                    System.out.println("row " + ids[i] + ": expected marks and version " + expected + ", found "
+                        + (student == null ? "no row" : student.getMarks() + " / v" + student.getVersion()));
+                }
+            }
+            int missing = 0;
+            Set<String> liveRollNos = new HashSet<>();
+            for (Student student : live) {
+                liveRollNos.add(student.getRollNo());
+                if (!stored.containsKey(student.getRollNo())) {
+                    missing++;
+                }
+            }
+            int undeleted = 0;
+            int unexpected = 0;
+            for (String rollNo : stored.keySet()) {
+                if (deleted.contains(rollNo)) {
+                    undeleted++;
+                } else if (!rollNo.startsWith(tag + "H") && !liveRollNos.contains(rollNo)) {
+                    unexpected++;
+                }
+            }
+
+            boolean passed = lost == 0 && missing == 0 && undeleted == 0 && unexpected == 0 && failures.sum() == 0;
+            System.out.printf("checks         : %d lost increments, %d missing inserts, %d undeleted, %d unexpected rows"
+                + "  -> %s%n", lost, missing, undeleted, unexpected, passed ? "PASS" : "FAIL");
+            return passed;
+        }
+
+        private void cleanUp() throws SQLException {
+            List<Integer> created = new ArrayList<>();
+            studentDAO.streamStudents("Stress", tag, rs -> created.add(rs.getInt(1)));
+            for (int id : created) {
+                studentDAO.deleteStudent(id);
+            }
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package bench;
+
+import dao.StudentDAO;
+import dao.UpdateResult;
+import models.StatisticsSnapshot;
+import models.Student;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import javax.swing.table.DefaultTableModel;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// StudentDAO and table-model hot paths against an embedded H2 seeded from
+// database_schema.sql. Throughput plus sampled latency percentiles for every
+// benchmark; run with -prof gc (the default in 'ant bench') for allocation rate.
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx3g"})
+@State(Scope.Benchmark)
+public class StudentDaoBenchmark {
+    private static final int PAGE_SIZE = 200;
+    private static final int MARKS_BATCH = 100;
+
+    @Param({"1000", "100000", "1000000"})
+    public int rows;
+
+    private StudentDAO studentDAO;
+    private int nextInsert;
+    private int probe;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        BenchmarkDatabase.start("dao_" + rows, rows);
+        studentDAO = new StudentDAO();
+        nextInsert = rows;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchmarkDatabase.stop();
+    }
+
+    // Rotates lookups across the table so no single row stays hot
+    private int nextProbe() {
+        probe = (probe + 7919) % rows;
+        return probe;
+    }
+
+    @Benchmark
+    public boolean insert() {
+        return studentDAO.addStudent(BenchmarkDatabase.generate(nextInsert++));
+    }
+
+    // The common edit, a new mark, written the old way: every column, roll_no's unique index included
+    @Benchmark
+    public UpdateResult updateAllColumns() {
+        Student student = studentDAO.findById(1 + nextProbe());
+        student.setMarks(student.getMarks() + 0.25);
+        student.markAllDirty();
+        return studentDAO.update(student);
+    }
+
+    // The same edit writing only the dirty column
+    @Benchmark
+    public UpdateResult updateMarksOnly() {
+        Student student = studentDAO.findById(1 + nextProbe());
+        student.setMarks(student.getMarks() + 0.25);
+        return studentDAO.update(student);
+    }
+
+    // MARKS_BATCH marks in one batched statement
+    @Benchmark
+    public int updateMarksBatch() throws SQLException {
+        Map<Integer, Double> marks = new HashMap<>();
+        for (int i = 0; i < MARKS_BATCH; i++) {
+            marks.put(1 + nextProbe(), 35 + probe % 65 + 0.5);
+        }
+        return studentDAO.updateMarks(marks);
+    }
+
+    // The same MARKS_BATCH marks as one optimistic update each
+    @Benchmark
+    public int updateMarksOneByOne() {
+        int updated = 0;
+        for (int i = 0; i < MARKS_BATCH; i++) {
+            Student student = studentDAO.findById(1 + nextProbe());
+            student.setMarks(35 + probe % 65 + 0.5);
+            if (studentDAO.update(student) == UpdateResult.UPDATED) {
+                updated++;
+            }
+        }
+        return updated;
+    }
+
+    @Benchmark
+    public List<Student> getAllStudents() {
+        return studentDAO.getAllStudents();
+    }
+
+    // Same rows off the cursor, one fetch at a time, without building the list
+    @Benchmark
+    public void streamAllStudents(Blackhole blackhole) throws SQLException {
+        try (Stream<Student> students = studentDAO.streamStudents(null, null)) {
+            students.forEach(blackhole::consume);
+        }
+    }
+
+    @Benchmark
+    public List<Student> searchByName() {
+        return studentDAO.searchByName(BenchmarkDatabase.LAST_NAMES[nextProbe() % BenchmarkDatabase.LAST_NAMES.length]
+            + " " + probe);
+    }
+
+    @Benchmark
+    public List<Student> searchByNamePrefix() {
+        return studentDAO.searchByName(BenchmarkDatabase.FIRST_NAMES[nextProbe() % BenchmarkDatabase.FIRST_NAMES.length]
+            .substring(0, 1));
+    }
+
+    @Benchmark
+    public List<Student> searchByDepartment() {
+        return studentDAO.searchByDepartment(BenchmarkDatabase.DEPARTMENTS[nextProbe() % BenchmarkDatabase.DEPARTMENTS.length]);
+    }
+
+    @Benchmark
+    public Student searchByRollNo() {
+        return studentDAO.searchByRollNo("BR" + nextProbe());
+    }
+
+    @Benchmark
+    public StatisticsSnapshot statisticsCached() {
+        return studentDAO.getStatistics();
+    }
+
+    // Zero TTL: every call runs the aggregate query
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = {"-Xmx3g", "-Ddao.statistics.ttlMs=0"})
+    public StatisticsSnapshot statisticsQuery() {
+        return studentDAO.getStatistics();
+    }
+
+    // What the View Students tab did before paging: every row into a DefaultTableModel
+    @Benchmark
+    public DefaultTableModel tableModelFullLoad() {
+        DefaultTableModel model = new DefaultTableModel(
+            new String[]{"ID", "Name", "Roll No", "Department", "Email", "Phone", "Marks"}, 0);
+        for (Student student : studentDAO.getAllStudents()) {
+            model.addRow(new Object[]{
+                student.getId(), student.getName(), student.getRollNo(), student.getDepartment(),
+                student.getEmail(), student.getPhone(), student.getMarks()
+            });
+        }
+        return model;
+    }
+
+    // What StudentTableModel needs to paint the first screen: the row count and one keyset page
+    @Benchmark
+    public void tableModelFirstPage(Blackhole blackhole) {
+        blackhole.consume(studentDAO.countStudents(null, null));
+        blackhole.consume(studentDAO.getStudentsPage(0, PAGE_SIZE));
+    }
+
+    // Scrolling: a keyset page from a random position in the table
+    @Benchmark
+    public List<Student> tableModelPageAt() {
+        int afterId = studentDAO.getIdAtOffset(nextProbe());
+        return studentDAO.getStudentsPage(afterId, PAGE_SIZE);
+    }
+}
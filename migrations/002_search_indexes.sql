@@ -0,0 +1,8 @@
+-- Search indexes for databases created from database_schema.sql before they were added there.
+-- department/name B-tree indexes serve equality and prefix searches;
+-- the n-gram FULLTEXT index serves ranked substring search on name.
+USE student_management;
+
+CREATE INDEX idx_students_department ON students (department);
+CREATE INDEX idx_students_name ON students (name);
+CREATE FULLTEXT INDEX ft_students_name ON students (name) WITH PARSER ngram;
@@ -0,0 +1,23 @@
+-- Change tracking for clients that keep a local copy of students (-Ddao.offline=true).
+-- updated_at moves on every insert and update; deletes are recorded in
+-- student_deletions by a trigger. A client pulls rows and deletions newer than its
+-- last sync watermark instead of reloading the whole table.
+USE student_management;
+
+ALTER TABLE students
+    ADD COLUMN updated_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3),
+    ADD INDEX idx_students_updated_at (updated_at);
+
+-- Existing rows count as changed when they were created
+UPDATE students SET updated_at = created_at WHERE created_at IS NOT NULL;
+
+CREATE TABLE IF NOT EXISTS student_deletions (
+    id INT PRIMARY KEY,
+    deleted_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+    INDEX idx_student_deletions_deleted_at (deleted_at)
+);
+
+DROP TRIGGER IF EXISTS students_after_delete;
+CREATE TRIGGER students_after_delete AFTER DELETE ON students FOR EACH ROW
+    INSERT INTO student_deletions (id, deleted_at) VALUES (OLD.id, CURRENT_TIMESTAMP(3))
+    ON DUPLICATE KEY UPDATE deleted_at = CURRENT_TIMESTAMP(3);
@@ -0,0 +1,6 @@
+-- Indexes for the multi-criteria student query (StudentQuery): marks ranges and
+-- created_at ranges, each combinable with the existing department/name indexes.
+USE student_management;
+
+CREATE INDEX idx_students_marks ON students (marks);
+CREATE INDEX idx_students_created_at ON students (created_at);
@@ -0,0 +1,8 @@
+-- Optimistic locking for concurrent editors. Every update bumps version and only
+-- applies WHERE id=? AND version=<the version the editor read>; an update that
+-- matches no row lost the race and is reported as a conflict instead of silently
+-- overwriting the other change.
+USE student_management;
+
+ALTER TABLE students
+    ADD COLUMN version INT NOT NULL DEFAULT 0;
@@ -0,0 +1,77 @@
+package dao;
+
+import metrics.OperationMetrics;
+import models.Student;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+
+// Maps an open forward-only ResultSet row by row for StudentDAO's Stream reads.
+// Owns the connection, statement and result set, closing them when the rows run
+// out, a read fails, or the stream is closed early; the operation is recorded once,
+// on that close.
+class CursorSpliterator extends Spliterators.AbstractSpliterator<Student> implements AutoCloseable {
+    private final Connection conn;
+    private final PreparedStatement stmt;
+    private final ResultSet rs;
+    private final OperationMetrics metrics;
+    private final long start;
+    private final RowMapper<Student> mapper = new StudentRowMapper();
+    private long rows;
+    private boolean failed;
+    private boolean closed;
+
+    CursorSpliterator(Connection conn, PreparedStatement stmt, ResultSet rs, OperationMetrics metrics, long start) {
+        super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+        this.conn = conn;
+        this.stmt = stmt;
+        this.rs = rs;
+        this.metrics = metrics;
+        this.start = start;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super Student> action) {
+        if (closed) {
+            return false;
+        }
+        Student student;
+        try {
+            if (!rs.next()) {
+                close();
+                return false;
+            }
+            student = mapper.mapRow(rs);
+        } catch (SQLException e) {
+            failed = true;
+            close();
+            throw new UncheckedSQLException(e);
+        }
+        rows++;
+        action.accept(student);
+        return true;
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try (Connection c = conn; PreparedStatement s = stmt; ResultSet r = rs) {
+            // Closed in reverse order by try-with-resources
+        } catch (SQLException e) {
+            System.err.println("Error closing student cursor: " + e.getMessage());
+        }
+        if (failed) {
+            metrics.recordError(start);
+        } else {
+            metrics.record(start, rows);
+        }
+    }
+}
@@ -0,0 +1,302 @@
+package dao;
+
+import models.Student;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+// Local copy of the students table in id order, plus the sync watermark: the
+// newest updated_at / deleted_at (epoch millis) pulled so far. Saved to a single
+// binary file, rewritten atomically. Rows are stored and returned as copies.
+class LocalStudentStore {
+    // Older formats are ignored and the next sync pulls the whole table again
+    private static final int MAGIC = 0x53545332; // "STS2"
+
+    private final Path file;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TreeMap<Integer, Student> rows = new TreeMap<>();
+    // Ids in order for positional lookups; rebuilt on first use after a change
+    private volatile int[] ids;
+    private long watermark;
+    private long version;
+    private long savedVersion;
+
+    LocalStudentStore(Path file) {
+        this.file = file;
+    }
+
+    // Read the saved copy, if any. A missing or unreadable file leaves the store empty,
+    // so the next sync pulls the whole table.
+    void load() {
+        lock.writeLock().lock();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("not a student cache file");
+            }
+            long savedWatermark = in.readLong();
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                Student student = new Student(in.readInt(), readString(in), readString(in), readString(in),
+                    readString(in), readString(in), in.readDouble(), in.readInt());
+                student.markClean();
+                rows.put(student.getId(), student);
+            }
+            watermark = savedWatermark;
+        } catch (NoSuchFileException e) {
+            // First run
+        } catch (IOException e) {
+            System.err.println("Ignoring local student cache " + file + ": " + e.getMessage());
+            rows.clear();
+            watermark = 0;
+        } finally {
+            ids = null;
+            savedVersion = version;
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Write the store out if it changed since the last save
+    void save() throws IOException {
+        lock.readLock().lock();
+        try {
+            if (version == savedVersion && Files.exists(file)) {
+                return;
+            }
+            Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16))) {
+                out.writeInt(MAGIC);
+                out.writeLong(watermark);
+                out.writeInt(rows.size());
+                for (Student student : rows.values()) {
+                    out.writeInt(student.getId());
+                    writeString(out, student.getName());
+                    writeString(out, student.getRollNo());
+                    writeString(out, student.getDepartment());
+                    writeString(out, student.getEmail());
+                    writeString(out, student.getPhone());
+                    out.writeDouble(student.hasMarks() ? student.getMarks() : Double.NaN);
+                    out.writeInt(student.getVersion());
+                }
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            savedVersion = version;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    long getWatermark() {
+        lock.readLock().lock();
+        try {
+            return watermark;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    void advanceWatermark(long millis) {
+        lock.writeLock().lock();
+        try {
+            if (millis > watermark) {
+                watermark = millis;
+                version++;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Changes with every write, for callers caching something derived from the rows
+    long version() {
+        lock.readLock().lock();
+        try {
+            return version;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    boolean isEmpty() {
+        lock.readLock().lock();
+        try {
+            return rows.isEmpty();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return rows.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    Student get(int id) {
+        lock.readLock().lock();
+        try {
+            Student student = rows.get(id);
+            return student == null ? null : StudentCache.copyOf(student);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Store a row; returns the copy it replaced, or null if the id is new
+    Student put(Student student) {
+        lock.writeLock().lock();
+        try {
+            Student previous = rows.put(student.getId(), StudentCache.copyOf(student));
+            if (previous == null) {
+                ids = null;
+            }
+            version++;
+            return previous;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Overwrite a row already in the store; an unknown id is left for the next sync
+    void replace(Student student) {
+        lock.writeLock().lock();
+        try {
+            if (rows.replace(student.getId(), StudentCache.copyOf(student)) != null) {
+                version++;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Returns the removed row, or null if the id was not present
+    Student remove(int id) {
+        lock.writeLock().lock();
+        try {
+            Student previous = rows.remove(id);
+            if (previous != null) {
+                ids = null;
+                version++;
+            }
+            return previous;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Up to limit rows with id greater than afterId, in id order
+    List<Student> page(int afterId, int limit) {
+        lock.readLock().lock();
+        try {
+            List<Student> page = new ArrayList<>(Math.min(limit, rows.size()));
+            for (Student student : rows.tailMap(afterId, false).values()) {
+                if (page.size() == limit) {
+                    break;
+                }
+                page.add(StudentCache.copyOf(student));
+            }
+            return page;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Id at a zero-based position in id order, or -1 if out of range
+    int idAt(int offset) {
+        int[] sorted = sortedIds();
+        return offset >= 0 && offset < sorted.length ? sorted[offset] : -1;
+    }
+
+    // Matching rows in id order, stopping after limit
+    List<Student> select(Predicate<Student> filter, int limit) {
+        lock.readLock().lock();
+        try {
+            List<Student> matches = new ArrayList<>();
+            for (Student student : rows.values()) {
+                if (matches.size() == limit) {
+                    break;
+                }
+                if (filter.test(student)) {
+                    matches.add(StudentCache.copyOf(student));
+                }
+            }
+            return matches;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int count(Predicate<Student> filter) {
+        lock.readLock().lock();
+        try {
+            int count = 0;
+            for (Student student : rows.values()) {
+                if (filter.test(student)) {
+                    count++;
+                }
+            }
+            return count;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Visit stored rows without copying; the visitor must not keep or modify them
+    void forEach(Consumer<Student> visitor) {
+        lock.readLock().lock();
+        try {
+            for (Student student : rows.values()) {
+                visitor.accept(student);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int[] sortedIds() {
+        lock.readLock().lock();
+        try {
+            int[] sorted = ids;
+            if (sorted != null) {
+                return sorted;
+            }
+            sorted = new int[rows.size()];
+            int i = 0;
+            for (Map.Entry<Integer, Student> entry : rows.entrySet()) {
+                sorted[i++] = entry.getKey();
+            }
+            // Benign race: concurrent readers may each build the same array
+            ids = sorted;
+            return sorted;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
@@ -0,0 +1,478 @@
+package dao;
+
+import database.DatabaseConnection;
+import metrics.DaoMetrics;
+import metrics.OperationMetrics;
+import models.StatisticsSnapshot;
+import models.Student;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+// StudentDAO for clients on a slow link. Reads are served from a LocalStudentStore
+// persisted between runs; before a read, if the last sync is older than the sync
+// interval, one delta query pulls the rows whose updated_at and the deletions
+// whose deleted_at are newer than the store's watermark (migration 003). Changes
+// made by other clients are announced to change listeners like local ones.
+// Writes go to the database as usual and are applied to the store straight away.
+// The callback form of streamStudents still reads from the database cursor; the
+// Stream form walks the local copy a page at a time.
+public class OfflineStudentDAO extends StudentDAO {
+    private static final long SYNC_INTERVAL_MILLIS = Long.getLong("dao.offline.syncMs", 5_000L);
+    private static final long SAVE_INTERVAL_MILLIS = 60_000L;
+    // Re-read this far behind the watermark: a transaction that committed late can
+    // carry an updated_at slightly older than rows already pulled
+    private static final long WATERMARK_OVERLAP_MILLIS = 5_000L;
+    // A sync with more changes than this is announced as one reload
+    private static final int MAX_CHANGE_EVENTS = 1_000;
+
+    private static final String FULL_QUERY = "SELECT " + STUDENT_COLUMNS + ", updated_at AS changed_at, 0 AS deleted "
+            + "FROM students";
+    private static final String DELTA_QUERY = "SELECT " + STUDENT_COLUMNS + ", updated_at AS changed_at, 0 AS deleted "
+            + "FROM students WHERE updated_at > ? "
+            + "UNION ALL SELECT id, NULL, NULL, NULL, NULL, NULL, NULL, NULL, deleted_at, 1 "
+            + "FROM student_deletions WHERE deleted_at > ? ORDER BY changed_at";
+
+    private static final OperationMetrics SYNC = DaoMetrics.operation("syncDelta");
+
+    private final LocalStudentStore store;
+    private final ReentrantLock syncLock = new ReentrantLock();
+    // Set after the first pull, successful or not
+    private volatile boolean synced;
+    private volatile long lastSyncAttempt;
+    private long lastSave = System.currentTimeMillis();
+    private volatile CachedStatistics statistics;
+
+    public OfflineStudentDAO(Path cacheFile) {
+        store = new LocalStudentStore(cacheFile);
+        store.load();
+    }
+
+    // Pull changes since the watermark now. Returns false if the database could not be
+    // reached, in which case reads keep serving the local copy.
+    public boolean sync() {
+        syncLock.lock();
+        try {
+            return pullChanges();
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    // Save the local copy for the next start
+    public void close() {
+        syncLock.lock();
+        try {
+            store.save();
+        } catch (IOException e) {
+            System.err.println("Error saving local student cache: " + e.getMessage());
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    private void syncIfDue() {
+        if (synced && System.currentTimeMillis() - lastSyncAttempt < SYNC_INTERVAL_MILLIS) {
+            return;
+        }
+        // Until the first pull, wait for it; afterwards serve what we have while another thread pulls
+        if (!synced) {
+            syncLock.lock();
+        } else if (!syncLock.tryLock()) {
+            return;
+        }
+        try {
+            if (!synced || System.currentTimeMillis() - lastSyncAttempt >= SYNC_INTERVAL_MILLIS) {
+                pullChanges();
+            }
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    private boolean pullChanges() {
+        long start = System.nanoTime();
+        lastSyncAttempt = System.currentTimeMillis();
+        long watermark = store.getWatermark();
+        boolean full = watermark == 0;
+        List<StudentChangeEvent> events = new ArrayList<>();
+        int changes = 0;
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(full ? FULL_QUERY : DELTA_QUERY,
+                 ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            stmt.setFetchSize(STREAM_FETCH_SIZE);
+            if (!full) {
+                Timestamp since = new Timestamp(watermark - WATERMARK_OVERLAP_MILLIS);
+                stmt.setTimestamp(1, since);
+                stmt.setTimestamp(2, since);
+            }
+            StudentRowMapper mapper = new StudentRowMapper();
+            long newest = watermark;
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    Timestamp changedAt = rs.getTimestamp("changed_at");
+                    if (changedAt != null) {
+                        newest = Math.max(newest, changedAt.getTime());
+                    }
+                    StudentChangeEvent event;
+                    if (rs.getInt("deleted") == 1) {
+                        Student previous = store.remove(rs.getInt("id"));
+                        event = previous == null ? null : StudentChangeEvent.deleted(previous);
+                    } else {
+                        Student student = mapper.mapRow(rs);
+                        Student previous = store.put(student);
+                        event = previous == null ? StudentChangeEvent.added(student)
+                            : sameFields(previous, student) ? null : StudentChangeEvent.updated(student, previous);
+                    }
+                    if (event != null && ++changes <= MAX_CHANGE_EVENTS) {
+                        events.add(event);
+                    }
+                }
+            }
+            store.advanceWatermark(newest);
+            SYNC.record(start, changes);
+        } catch (SQLException e) {
+            SYNC.recordError(start);
+            System.err.println("Error syncing local student cache, serving local copy: " + e.getMessage());
+            synced = true;
+            return false;
+        }
+        synced = true;
+
+        if (changes > MAX_CHANGE_EVENTS || (full && changes > 0)) {
+            fireChange(StudentChangeEvent.reloaded());
+        } else {
+            for (StudentChangeEvent event : events) {
+                fireChange(event);
+            }
+        }
+        if (changes > 0 && System.currentTimeMillis() - lastSave >= SAVE_INTERVAL_MILLIS) {
+            lastSave = System.currentTimeMillis();
+            try {
+                store.save();
+            } catch (IOException e) {
+                System.err.println("Error saving local student cache: " + e.getMessage());
+            }
+        }
+        return true;
+    }
+
+    private static boolean sameFields(Student a, Student b) {
+        return Objects.equals(a.getName(), b.getName())
+            && Objects.equals(a.getRollNo(), b.getRollNo())
+            && Objects.equals(a.getDepartment(), b.getDepartment())
+            && Objects.equals(a.getEmail(), b.getEmail())
+            && Objects.equals(a.getPhone(), b.getPhone())
+            && Double.compare(a.getMarks(), b.getMarks()) == 0;
+    }
+
+    // Writes: database first, then the local copy
+
+    @Override
+    public boolean addStudent(Student student) {
+        boolean added = super.addStudent(student);
+        if (added) {
+            store.put(student);
+        }
+        return added;
+    }
+
+    @Override
+    public void addStudentsBatch(List<Student> students) throws SQLException {
+        super.addStudentsBatch(students);
+        sync();
+    }
+
+    @Override
+    public void applyMutations(List<StudentMutation> mutations) throws SQLException {
+        try {
+            super.applyMutations(mutations);
+        } catch (StaleMutationException e) {
+            // Someone else's change got there first; pull it, like a conflicting update()
+            sync();
+            throw e;
+        }
+        for (StudentMutation mutation : mutations) {
+            switch (mutation.getType()) {
+                case ADD:
+                    store.put(mutation.getStudent());
+                    break;
+                case UPDATE:
+                    store.replace(mutation.getStudent());
+                    break;
+                default:
+                    store.remove(mutation.getId());
+            }
+        }
+    }
+
+    @Override
+    public int updateMarks(Map<Integer, Double> marksById) throws SQLException {
+        int updated = super.updateMarks(marksById);
+        sync();
+        return updated;
+    }
+
+    // A conflict means the local copy is behind, so pull before the caller re-reads
+    @Override
+    public UpdateResult update(Student student) {
+        UpdateResult result = super.update(student);
+        if (result == UpdateResult.UPDATED) {
+            store.replace(student);
+        } else if (result == UpdateResult.CONFLICT || result == UpdateResult.NOT_FOUND) {
+            sync();
+        }
+        return result;
+    }
+
+    @Override
+    public int delete(int id) {
+        int rows = super.delete(id);
+        if (rows >= 0) {
+            store.remove(id);
+        }
+        return rows;
+    }
+
+    // Reads, served locally with the same filters and ordering as the SQL versions
+
+    @Override
+    public List<Student> getAllStudents() {
+        syncIfDue();
+        return store.select(student -> true, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<Student> getStudentsPage(int afterId, int pageSize) {
+        syncIfDue();
+        return store.page(afterId, pageSize);
+    }
+
+    @Override
+    public int getIdAtOffset(int offset) {
+        syncIfDue();
+        return store.idAt(offset);
+    }
+
+    // Pages of STREAM_FETCH_SIZE copies are taken from the store as the stream is
+    // consumed, so rows added or removed meanwhile may or may not be seen
+    @Override
+    public Stream<Student> streamStudents(String department, String name) {
+        syncIfDue();
+        Predicate<Student> filter = filter(department, name);
+        Spliterator<Student> pages = new Spliterators.AbstractSpliterator<Student>(Long.MAX_VALUE,
+                Spliterator.ORDERED | Spliterator.NONNULL) {
+            private Iterator<Student> page = List.<Student>of().iterator();
+            private int lastId = Integer.MIN_VALUE;
+            private boolean exhausted;
+
+            @Override
+            public boolean tryAdvance(Consumer<? super Student> action) {
+                while (true) {
+                    while (page.hasNext()) {
+                        Student student = page.next();
+                        if (filter.test(student)) {
+                            action.accept(student);
+                            return true;
+                        }
+                    }
+                    if (exhausted) {
+                        return false;
+                    }
+                    List<Student> next = store.page(lastId, STREAM_FETCH_SIZE);
+                    exhausted = next.size() < STREAM_FETCH_SIZE;
+                    if (!next.isEmpty()) {
+                        lastId = next.get(next.size() - 1).getId();
+                    }
+                    page = next.iterator();
+                }
+            }
+        };
+        return StreamSupport.stream(pages, false);
+    }
+
+    @Override
+    public int countStudents(String department, String name) {
+        syncIfDue();
+        return store.count(filter(department, name));
+    }
+
+    @Override
+    public Student findById(int id) {
+        syncIfDue();
+        return store.get(id);
+    }
+
+    @Override
+    public List<Student> searchByName(String name, int limit) {
+        String term = name.trim();
+        if (term.isEmpty()) {
+            return getAllStudents();
+        }
+        syncIfDue();
+        String needle = term.toLowerCase(Locale.ROOT);
+        boolean prefixOnly = term.length() < FULLTEXT_MIN_LENGTH;
+        List<Student> matches = store.select(student -> {
+            String value = lower(student.getName());
+            return prefixOnly ? value.startsWith(needle) : value.contains(needle);
+        }, Integer.MAX_VALUE);
+        matches.sort(Comparator.comparing((Student student) -> !lower(student.getName()).startsWith(needle))
+            .thenComparing(student -> lower(student.getName())));
+        return matches.size() > limit ? new ArrayList<>(matches.subList(0, limit)) : matches;
+    }
+
+    @Override
+    public List<Student> searchByDepartment(String department) {
+        syncIfDue();
+        return store.select(filter(department, null), Integer.MAX_VALUE);
+    }
+
+    @Override
+    public Student searchByRollNo(String rollNo) {
+        syncIfDue();
+        List<Student> match = store.select(student -> rollNo.equalsIgnoreCase(student.getRollNo()), 1);
+        return match.isEmpty() ? null : match.get(0);
+    }
+
+    @Override
+    public StatisticsSnapshot getStatistics() {
+        syncIfDue();
+        long version = store.version();
+        CachedStatistics cached = statistics;
+        if (cached != null && cached.version == version) {
+            return cached.snapshot;
+        }
+        Map<String, double[]> byDepartment = new TreeMap<>();
+        store.forEach(student -> {
+            // count, sum, max, min
+            double[] acc = byDepartment.computeIfAbsent(student.getDepartment(),
+                d -> new double[]{0, 0, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY});
+            acc[0]++;
+            acc[1] += student.getMarks();
+            acc[2] = Math.max(acc[2], student.getMarks());
+            acc[3] = Math.min(acc[3], student.getMarks());
+        });
+        Map<String, StatisticsSnapshot.DepartmentStatistics> departments = new TreeMap<>();
+        int total = 0;
+        double sum = 0;
+        double highest = Double.NEGATIVE_INFINITY;
+        double lowest = Double.POSITIVE_INFINITY;
+        for (Map.Entry<String, double[]> entry : byDepartment.entrySet()) {
+            double[] acc = entry.getValue();
+            departments.put(entry.getKey(), new StatisticsSnapshot.DepartmentStatistics(entry.getKey(), (int) acc[0],
+                acc[2], acc[3], acc[1] / acc[0]));
+            total += (int) acc[0];
+            sum += acc[1];
+            highest = Math.max(highest, acc[2]);
+            lowest = Math.min(lowest, acc[3]);
+        }
+        StatisticsSnapshot snapshot = total == 0
+            ? StatisticsSnapshot.EMPTY
+            : new StatisticsSnapshot(total, highest, lowest, sum / total, departments);
+        statistics = new CachedStatistics(version, snapshot);
+        return snapshot;
+    }
+
+    // created_at is not kept locally, so queries filtering on it go to the database
+    @Override
+    public List<Student> query(StudentQuery query) {
+        if (query.getCreatedFrom() != null || query.getCreatedTo() != null) {
+            return super.query(query);
+        }
+        syncIfDue();
+        List<Student> matches = store.select(filter(query), Integer.MAX_VALUE);
+        Comparator<Student> order = order(query);
+        matches.sort(order);
+        int from = query.getOffset();
+        if (query.getAfter() != null) {
+            from = 0;
+            while (from < matches.size() && order.compare(matches.get(from), query.getAfter()) <= 0) {
+                from++;
+            }
+        }
+        int to = (int) Math.min(matches.size(), (long) from + query.getLimit());
+        return from >= to ? new ArrayList<>() : new ArrayList<>(matches.subList(from, to));
+    }
+
+    @Override
+    public int count(StudentQuery query) {
+        if (query.getCreatedFrom() != null || query.getCreatedTo() != null) {
+            return super.count(query);
+        }
+        syncIfDue();
+        return store.count(filter(query));
+    }
+
+    private static Predicate<Student> filter(StudentQuery query) {
+        Set<String> departments = new HashSet<>();
+        for (String department : query.getDepartments()) {
+            departments.add(lower(department));
+        }
+        String prefix = query.getNamePrefix() == null ? null : query.getNamePrefix().toLowerCase(Locale.ROOT);
+        Double min = query.getMinMarks();
+        Double max = query.getMaxMarks();
+        return student -> (departments.isEmpty() || departments.contains(lower(student.getDepartment())))
+            && (min == null || student.getMarks() >= min)
+            && (max == null || student.getMarks() <= max)
+            && (prefix == null || lower(student.getName()).startsWith(prefix));
+    }
+
+    // The query's ORDER BY, with strings compared case-insensitively like the server
+    @SuppressWarnings("unchecked")
+    private static Comparator<Student> order(StudentQuery query) {
+        StudentQuery.SortColumn column = query.getSortColumn();
+        Comparator<Student> order = (a, b) -> {
+            Object x = column.valueOf(a);
+            Object y = column.valueOf(b);
+            int byValue = x instanceof String
+                ? String.CASE_INSENSITIVE_ORDER.compare((String) x, (String) y)
+                : ((Comparable<Object>) x).compareTo(y);
+            return byValue != 0 ? byValue : Integer.compare(a.getId(), b.getId());
+        };
+        return query.isDescending() ? order.reversed() : order;
+    }
+
+    // Same matching as the SQL filters: department equality and name substring,
+    // both case-insensitive like the server's default collation
+    private static Predicate<Student> filter(String department, String name) {
+        String needle = name == null ? null : name.toLowerCase(Locale.ROOT);
+        return student -> (department == null || department.equalsIgnoreCase(student.getDepartment()))
+            && (needle == null || lower(student.getName()).contains(needle));
+    }
+
+    private static String lower(String value) {
+        return value == null ? "" : value.toLowerCase(Locale.ROOT);
+    }
+
+    private static final class CachedStatistics {
+        private final long version;
+        private final StatisticsSnapshot snapshot;
+
+        private CachedStatistics(long version, StatisticsSnapshot snapshot) {
+            this.version = version;
+            this.snapshot = snapshot;
+        }
+    }
+}
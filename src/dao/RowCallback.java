@@ -0,0 +1,10 @@
+package dao;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+// Receives rows from a streaming query one at a time; return false to stop early
+@FunctionalInterface
+public interface RowCallback {
+    boolean processRow(ResultSet rs) throws SQLException;
+}
@@ -0,0 +1,10 @@
+package dao;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+// Turns the current row of a ResultSet into an object
+@FunctionalInterface
+public interface RowMapper<T> {
+    T mapRow(ResultSet rs) throws SQLException;
+}
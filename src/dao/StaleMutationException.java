@@ -0,0 +1,12 @@
+package dao;
+
+import java.sql.SQLException;
+
+// A queued update refused because the row's version moved on since the update
+// was made: someone else changed the student first
+public class StaleMutationException extends SQLException {
+    public StaleMutationException(StudentMutation mutation, int actualVersion) {
+        super("Student " + mutation.getId() + " was changed by someone else (version " + actualVersion
+            + ", expected " + mutation.getExpectedVersion() + ")");
+    }
+}
@@ -0,0 +1,63 @@
+package dao;
+
+import models.Student;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Bounded LRU of id -> Student. Entries are defensive copies so callers can
+// mutate what they get back without corrupting the cache.
+public class StudentCache {
+    private final Map<Integer, Student> entries;
+    // Bumped on every write-through so a read that raced a write cannot cache stale data
+    private long version;
+
+    public StudentCache(int maxEntries) {
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Student> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    public synchronized Student get(int id) {
+        Student student = entries.get(id);
+        return student == null ? null : copyOf(student);
+    }
+
+    public synchronized long version() {
+        return version;
+    }
+
+    // Cache a freshly loaded row unless a write happened since the load started
+    public synchronized void putIfUnchanged(Student student, long expectedVersion) {
+        if (version == expectedVersion) {
+            entries.put(student.getId(), copyOf(student));
+        }
+    }
+
+    // Write-through after a successful update. Two updates of one id can finish in
+    // either order, so a copy older than the cached one is not let in.
+    public synchronized void put(Student student) {
+        version++;
+        Student cached = entries.get(student.getId());
+        if (cached == null || cached.getVersion() <= student.getVersion()) {
+            entries.put(student.getId(), copyOf(student));
+        }
+    }
+
+    public synchronized void remove(int id) {
+        version++;
+        entries.remove(id);
+    }
+
+    public synchronized void clear() {
+        version++;
+        entries.clear();
+    }
+
+    static Student copyOf(Student student) {
+        return new Student(student);
+    }
+}
@@ -0,0 +1,50 @@
+package dao;
+
+import models.Student;
+
+// A committed change to the students table. Students are copies taken when the
+// event was raised, so listeners may keep them.
+public final class StudentChangeEvent {
+    public enum Type {
+        ADDED,
+        UPDATED,
+        DELETED,
+        // Many rows changed at once (bulk import); listeners should re-read
+        RELOADED
+    }
+
+    private final Type type;
+    private final Student student;
+    private final Student previous;
+
+    private StudentChangeEvent(Type type, Student student, Student previous) {
+        this.type = type;
+        this.student = student == null ? null : StudentCache.copyOf(student);
+        this.previous = previous == null ? null : StudentCache.copyOf(previous);
+    }
+
+    static StudentChangeEvent added(Student student) {
+        return new StudentChangeEvent(Type.ADDED, student, null);
+    }
+
+    // previous is the row as it was before the update, or null if it could not be read
+    static StudentChangeEvent updated(Student student, Student previous) {
+        return new StudentChangeEvent(Type.UPDATED, student, previous);
+    }
+
+    static StudentChangeEvent deleted(Student previous) {
+        return new StudentChangeEvent(Type.DELETED, previous, previous);
+    }
+
+    static StudentChangeEvent reloaded() {
+        return new StudentChangeEvent(Type.RELOADED, null, null);
+    }
+
+    public Type getType() { return type; }
+
+    // The row after the change; for DELETED the row that was removed; null for RELOADED
+    public Student getStudent() { return student; }
+
+    // The row before the change for UPDATED and DELETED, when known
+    public Student getPrevious() { return previous; }
+}
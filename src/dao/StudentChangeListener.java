@@ -0,0 +1,6 @@
+package dao;
+
+// Notified after a student change is committed, on the thread that made it
+public interface StudentChangeListener {
+    void studentChanged(StudentChangeEvent event);
+}
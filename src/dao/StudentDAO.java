@@ -1,221 +1,941 @@
 package dao;
 
 import database.DatabaseConnection;
+import metrics.DaoMetrics;
+import metrics.OperationMetrics;
+import models.StatisticsSnapshot;
 import models.Student;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class StudentDAO {
+    // Column list shared by every student query; streamStudents callers rely on this order
+    static final String STUDENT_COLUMNS = "id, name, roll_no, department, email, phone, marks, version";
 
-    // Add new student
+    // Column written for each Student.Field, by ordinal
+    private static final String[] FIELD_COLUMNS = {"name", "roll_no", "department", "email", "phone", "marks"};
+
+    // Writes made by other clients are picked up once the cached statistics expire
+    private static final long STATISTICS_TTL_MILLIS = Long.getLong("dao.statistics.ttlMs", 30_000L);
+
+    // Shared by every DAO instance so a write through any of them invalidates cached reads
+    private static final AtomicLong dataVersion = new AtomicLong();
+    private static volatile CachedStatistics statisticsCache;
+    // Rows per round trip for streaming reads (needs useCursorFetch=true on MySQL)
+    static final int STREAM_FETCH_SIZE = Integer.getInteger("dao.fetchSize", 500);
+
+    // Matches MySQL's default ngram_token_size; shorter terms can't use the FULLTEXT index
+    static final int FULLTEXT_MIN_LENGTH = 2;
+    static final int SEARCH_LIMIT = Integer.getInteger("dao.search.limit", 500);
+    private static volatile boolean fullTextAvailable = Boolean.parseBoolean(System.getProperty("dao.search.fullText", "true"));
+    // Roll numbers per IN list when checking an import chunk for duplicates
+    private static final int ROLL_NO_LOOKUP_BATCH = 1000;
+
+    private static final StudentCache studentCache = new StudentCache(Integer.getInteger("dao.studentCache.size", 1000));
+    // Shared by every StudentDAO instance, like the caches above
+    private static final List<StudentChangeListener> changeListeners = new CopyOnWriteArrayList<>();
+
+    private static final OperationMetrics ADD = DaoMetrics.operation("addStudent");
+    private static final OperationMetrics ADD_BATCH = DaoMetrics.operation("addStudentsBatch");
+    private static final OperationMetrics APPLY_MUTATIONS = DaoMetrics.operation("applyMutations");
+    private static final OperationMetrics EXISTING_ROLL_NOS = DaoMetrics.operation("findExistingRollNos");
+    private static final OperationMetrics GET_ALL = DaoMetrics.operation("getAllStudents");
+    private static final OperationMetrics GET_PAGE = DaoMetrics.operation("getStudentsPage");
+    private static final OperationMetrics ID_AT_OFFSET = DaoMetrics.operation("getIdAtOffset");
+    private static final OperationMetrics STREAM = DaoMetrics.operation("streamStudents");
+    private static final OperationMetrics COUNT = DaoMetrics.operation("countStudents");
+    private static final OperationMetrics UPDATE = DaoMetrics.operation("updateStudent");
+    private static final OperationMetrics UPDATE_MARKS = DaoMetrics.operation("updateMarks");
+    private static final OperationMetrics DELETE = DaoMetrics.operation("deleteStudent");
+    private static final OperationMetrics FIND_BY_ID = DaoMetrics.operation("findById");
+    private static final OperationMetrics SEARCH_NAME = DaoMetrics.operation("searchByName");
+    private static final OperationMetrics SEARCH_DEPARTMENT = DaoMetrics.operation("searchByDepartment");
+    private static final OperationMetrics SEARCH_ROLL_NO = DaoMetrics.operation("searchByRollNo");
+    private static final OperationMetrics STATISTICS = DaoMetrics.operation("getStatistics");
+    private static final OperationMetrics QUERY = DaoMetrics.operation("query");
+    private static final OperationMetrics QUERY_COUNT = DaoMetrics.operation("queryCount");
+
+    // Add new student; on success the generated id and version 0 are set on the student
     public boolean addStudent(Student student) {
+        long start = System.nanoTime();
         String query = "INSERT INTO students (name, roll_no, department, email, phone, marks) VALUES (?, ?, ?, ?, ?, ?)";
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(query)) {
+             PreparedStatement stmt = conn.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
             stmt.setString(1, student.getName());
             stmt.setString(2, student.getRollNo());
             stmt.setString(3, student.getDepartment());
             stmt.setString(4, student.getEmail());
             stmt.setString(5, student.getPhone());
-            stmt.setDouble(6, student.getMarks());
+            bindMarks(stmt, 6, student);
             stmt.executeUpdate();
+            invalidateCaches();
+            try (ResultSet keys = stmt.getGeneratedKeys()) {
+                if (keys.next()) {
+                    student.setId(keys.getInt(1));
+                }
+            }
+            student.setVersion(0);
+            student.markClean();
+            ADD.record(start, 1);
+            fireChange(StudentChangeEvent.added(student));
             return true;
         } catch (SQLException e) {
+            ADD.recordError(start);
             System.err.println("Error adding student: " + e.getMessage());
             return false;
         }
     }
 
+    // Insert many students with one JDBC batch inside a single transaction.
+    // Nothing from the batch is kept if any row fails; the error is rethrown so
+    // the caller can retry or report the rows individually.
+    public void addStudentsBatch(List<Student> students) throws SQLException {
+        long start = System.nanoTime();
+        String query = "INSERT INTO students (name, roll_no, department, email, phone, marks) VALUES (?, ?, ?, ?, ?, ?)";
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(query)) {
+                for (Student student : students) {
+                    stmt.setString(1, student.getName());
+                    stmt.setString(2, student.getRollNo());
+                    stmt.setString(3, student.getDepartment());
+                    stmt.setString(4, student.getEmail());
+                    stmt.setString(5, student.getPhone());
+                    bindMarks(stmt, 6, student);
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            ADD_BATCH.recordError(start);
+            throw e;
+        }
+        invalidateCaches();
+        ADD_BATCH.record(start, students.size());
+        fireChange(StudentChangeEvent.reloaded());
+    }
+
+    // Apply queued mutations in order inside a single transaction. Consecutive
+    // mutations of the same kind go to the server as one JDBC batch. All or
+    // nothing: on failure the transaction is rolled back and the error rethrown,
+    // a StaleMutationException if an update's row has moved on to another version.
+    // Inserted students get their generated ids set on the mutation's copy, and
+    // updated ones the version they produced.
+    public void applyMutations(List<StudentMutation> mutations) throws SQLException {
+        long start = System.nanoTime();
+        List<StudentChangeEvent> events = new ArrayList<>(mutations.size());
+        List<StudentMutation> updated = new ArrayList<>();
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement insert = conn.prepareStatement(
+                     "INSERT INTO students (name, roll_no, department, email, phone, marks) VALUES (?, ?, ?, ?, ?, ?)",
+                     Statement.RETURN_GENERATED_KEYS);
+                 PreparedStatement update = conn.prepareStatement(
+                     "UPDATE students SET name=?, roll_no=?, department=?, email=?, phone=?, marks=?, version=version+1"
+                         + " WHERE id=? AND (? < 0 OR version=?)");
+                 PreparedStatement delete = conn.prepareStatement("DELETE FROM students WHERE id=?")) {
+                int from = 0;
+                while (from < mutations.size()) {
+                    StudentMutation.Type type = mutations.get(from).getType();
+                    int to = from;
+                    while (to < mutations.size() && mutations.get(to).getType() == type) {
+                        to++;
+                    }
+                    List<StudentMutation> run = mutations.subList(from, to);
+                    if (type == StudentMutation.Type.ADD) {
+                        applyInserts(insert, run, events);
+                    } else {
+                        applyChanges(conn, type == StudentMutation.Type.UPDATE ? update : delete, run, events, updated);
+                    }
+                    from = to;
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            APPLY_MUTATIONS.recordError(start);
+            throw e;
+        }
+        invalidateCaches();
+        for (StudentMutation mutation : mutations) {
+            if (mutation.getType() != StudentMutation.Type.ADD) {
+                studentCache.remove(mutation.getId());
+            }
+        }
+        // A checked update produced the version after the one it expected; an overwrite can't tell
+        for (StudentMutation mutation : updated) {
+            if (mutation.getExpectedVersion() >= 0) {
+                mutation.getStudent().setVersion(mutation.getExpectedVersion() + 1);
+                mutation.getStudent().markClean();
+                studentCache.put(mutation.getStudent());
+            }
+        }
+        APPLY_MUTATIONS.record(start, mutations.size());
+        for (StudentChangeEvent event : events) {
+            fireChange(event);
+        }
+    }
+
+    private void applyInserts(PreparedStatement insert, List<StudentMutation> run, List<StudentChangeEvent> events)
+            throws SQLException {
+        for (StudentMutation mutation : run) {
+            bindStudent(insert, mutation.getStudent());
+            insert.addBatch();
+        }
+        insert.executeBatch();
+        try (ResultSet keys = insert.getGeneratedKeys()) {
+            for (StudentMutation mutation : run) {
+                if (keys.next()) {
+                    mutation.getStudent().setId(keys.getInt(1));
+                }
+                mutation.getStudent().setVersion(0);
+                mutation.getStudent().markClean();
+                events.add(StudentChangeEvent.added(mutation.getStudent()));
+            }
+        }
+    }
+
+    // Updates and deletes by id. Previous rows are read first, only if someone is listening.
+    // An update that finds its row at another version than it expects is refused with a
+    // StaleMutationException; one whose row is gone is skipped, like a delete of a missing id.
+    private void applyChanges(Connection conn, PreparedStatement stmt, List<StudentMutation> run,
+                              List<StudentChangeEvent> events, List<StudentMutation> updated) throws SQLException {
+        List<Student> previous = new ArrayList<>(run.size());
+        for (StudentMutation mutation : run) {
+            previous.add(changeListeners.isEmpty() ? null : readPrevious(conn, mutation.getId()));
+            if (mutation.getType() == StudentMutation.Type.UPDATE) {
+                bindStudent(stmt, mutation.getStudent());
+                stmt.setInt(7, mutation.getId());
+                stmt.setInt(8, mutation.getExpectedVersion());
+                stmt.setInt(9, mutation.getExpectedVersion());
+            } else {
+                stmt.setInt(1, mutation.getId());
+            }
+            stmt.addBatch();
+        }
+        int[] counts = stmt.executeBatch();
+        for (int i = 0; i < run.size(); i++) {
+            StudentMutation mutation = run.get(i);
+            if (counts[i] == 0) {
+                if (mutation.getExpectedVersion() >= 0) {
+                    int version = readVersion(conn, mutation.getId());
+                    if (version >= 0) {
+                        // Whatever we cached for this id is out of date
+                        studentCache.remove(mutation.getId());
+                        throw new StaleMutationException(mutation, version);
+                    }
+                }
+                continue;
+            }
+            if (mutation.getType() == StudentMutation.Type.UPDATE) {
+                updated.add(mutation);
+                events.add(StudentChangeEvent.updated(mutation.getStudent(), previous.get(i)));
+            } else {
+                events.add(previous.get(i) != null ? StudentChangeEvent.deleted(previous.get(i)) : StudentChangeEvent.reloaded());
+            }
+        }
+    }
+
+    private static void bindStudent(PreparedStatement stmt, Student student) throws SQLException {
+        stmt.setString(1, student.getName());
+        stmt.setString(2, student.getRollNo());
+        stmt.setString(3, student.getDepartment());
+        stmt.setString(4, student.getEmail());
+        stmt.setString(5, student.getPhone());
+        bindMarks(stmt, 6, student);
+    }
+
+    // Which of the given roll numbers are already taken. Asked ROLL_NO_LOOKUP_BATCH at a
+    // time: MySQL refuses a statement with more than 65,535 placeholders.
+    public Set<String> findExistingRollNos(Collection<String> rollNos) {
+        Set<String> existing = new HashSet<>();
+        if (rollNos.isEmpty()) {
+            return existing;
+        }
+        long start = System.nanoTime();
+        List<String> all = new ArrayList<>(rollNos);
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            for (int from = 0; from < all.size(); from += ROLL_NO_LOOKUP_BATCH) {
+                List<String> slice = all.subList(from, Math.min(from + ROLL_NO_LOOKUP_BATCH, all.size()));
+                StringBuilder query = new StringBuilder("SELECT roll_no FROM students WHERE roll_no IN (");
+                for (int i = 0; i < slice.size(); i++) {
+                    query.append(i == 0 ? "?" : ", ?");
+                }
+                query.append(")");
+                try (PreparedStatement stmt = conn.prepareStatement(query.toString())) {
+                    int index = 1;
+                    for (String rollNo : slice) {
+                        stmt.setString(index++, rollNo);
+                    }
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            existing.add(rs.getString(1));
+                        }
+                    }
+                }
+            }
+            EXISTING_ROLL_NOS.record(start, existing.size());
+        } catch (SQLException e) {
+            EXISTING_ROLL_NOS.recordError(start);
+            System.err.println("Error checking existing roll numbers: " + e.getMessage());
+        }
+        return existing;
+    }
+
     // Get all students
     public List<Student> getAllStudents() {
-        List<Student> students = new ArrayList<>();
-        String query = "SELECT * FROM students";
+        long start = System.nanoTime();
+        String query = "SELECT " + STUDENT_COLUMNS + " FROM students";
+        try {
+            return DatabaseConnection.read(conn -> {
+                try (PreparedStatement stmt = conn.prepareStatement(query)) {
+                    return readStudents(stmt, GET_ALL, start);
+                }
+            });
+        } catch (SQLException e) {
+            GET_ALL.recordError(start);
+            System.err.println("Error fetching students: " + e.getMessage());
+        }
+        return new ArrayList<>();
+    }
+
+    // Keyset page: up to pageSize students with id greater than afterId, in id order
+    public List<Student> getStudentsPage(int afterId, int pageSize) {
+        long start = System.nanoTime();
+        String query = "SELECT " + STUDENT_COLUMNS + " FROM students WHERE id > ? ORDER BY id LIMIT ?";
         try (Connection conn = DatabaseConnection.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(query)) {
-            while (rs.next()) {
-                Student student = new Student(
-                    rs.getInt("id"),
-                    rs.getString("name"),
-                    rs.getString("roll_no"),
-                    rs.getString("department"),
-                    rs.getString("email"),
-                    rs.getString("phone"),
-                    rs.getDouble("marks")
-                );
-                students.add(student);
+             PreparedStatement stmt = conn.prepareStatement(query)) {
+            stmt.setInt(1, afterId);
+            stmt.setInt(2, pageSize);
+            return readStudents(stmt, GET_PAGE, start);
+        } catch (SQLException e) {
+            GET_PAGE.recordError(start);
+            System.err.println("Error fetching students page: " + e.getMessage());
+        }
+        return new ArrayList<>();
+    }
+
+    // Id of the student at a zero-based position in id order, or -1 if out of range.
+    // Walks only the primary key, used to find a keyset boundary when jumping to a far page.
+    public int getIdAtOffset(int offset) {
+        long start = System.nanoTime();
+        String query = "SELECT id FROM students ORDER BY id LIMIT 1 OFFSET ?";
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(query)) {
+            stmt.setInt(1, offset);
+            try (ResultSet rs = stmt.executeQuery()) {
+                boolean found = rs.next();
+                ID_AT_OFFSET.record(start, found ? 1 : 0);
+                if (found) {
+                    return rs.getInt(1);
+                }
             }
         } catch (SQLException e) {
-            System.err.println("Error fetching students: " + e.getMessage());
+            ID_AT_OFFSET.recordError(start);
+            System.err.println("Error locating student offset: " + e.getMessage());
         }
-        return students;
+        return -1;
     }
 
-    // Update student
-    public boolean updateStudent(Student student) {
-        String query = "UPDATE students SET name=?, roll_no=?, department=?, email=?, phone=?, marks=? WHERE id=?";
+    // Stream students straight off a forward-only cursor without building a list.
+    // Either filter may be null: department matches exactly like searchByDepartment,
+    // name is a substring match like searchByName. Columns are, in order:
+    // id, name, roll_no, department, email, phone, marks, version.
+    public void streamStudents(String department, String name, RowCallback callback) throws SQLException {
+        long start = System.nanoTime();
+        long rows = 0;
+        String query = "SELECT " + STUDENT_COLUMNS + " FROM students"
+                + filterClause(department, name) + " ORDER BY id";
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(query, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            stmt.setFetchSize(STREAM_FETCH_SIZE);
+            bindFilter(stmt, department, name);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    rows++;
+                    if (!callback.processRow(rs)) {
+                        break;
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            STREAM.recordError(start);
+            throw e;
+        }
+        STREAM.record(start, rows);
+    }
+
+    // The same rows as a lazy Stream over the open cursor: rows are fetched
+    // STREAM_FETCH_SIZE at a time as the stream is consumed, so memory does not grow
+    // with the result. The stream holds a connection until it is exhausted or closed;
+    // use it in try-with-resources. Errors while reading throw UncheckedSQLException.
+    public Stream<Student> streamStudents(String department, String name) throws SQLException {
+        long start = System.nanoTime();
+        String query = "SELECT " + STUDENT_COLUMNS + " FROM students"
+                + filterClause(department, name) + " ORDER BY id";
+        Connection conn = DatabaseConnection.getConnection();
+        PreparedStatement stmt = null;
+        try {
+            stmt = conn.prepareStatement(query, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            stmt.setFetchSize(STREAM_FETCH_SIZE);
+            bindFilter(stmt, department, name);
+            CursorSpliterator cursor = new CursorSpliterator(conn, stmt, stmt.executeQuery(), STREAM, start);
+            return StreamSupport.stream(cursor, false).onClose(cursor::close);
+        } catch (SQLException | RuntimeException e) {
+            STREAM.recordError(start);
+            try (Connection c = conn; PreparedStatement s = stmt) {
+                // Release what was opened before the failure
+            } catch (SQLException closeError) {
+                e.addSuppressed(closeError);
+            }
+            throw e;
+        }
+    }
+
+    // Number of rows streamStudents would visit with the same filters
+    public int countStudents(String department, String name) {
+        long start = System.nanoTime();
+        String query = "SELECT COUNT(*) FROM students" + filterClause(department, name);
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
-            stmt.setString(1, student.getName());
-            stmt.setString(2, student.getRollNo());
-            stmt.setString(3, student.getDepartment());
-            stmt.setString(4, student.getEmail());
-            stmt.setString(5, student.getPhone());
-            stmt.setDouble(6, student.getMarks());
-            stmt.setInt(7, student.getId());
-            stmt.executeUpdate();
-            return true;
+            bindFilter(stmt, department, name);
+            try (ResultSet rs = stmt.executeQuery()) {
+                COUNT.record(start, 1);
+                if (rs.next()) {
+                    return rs.getInt(1);
+                }
+            }
+        } catch (SQLException e) {
+            COUNT.recordError(start);
+            System.err.println("Error counting students: " + e.getMessage());
+        }
+        return 0;
+    }
+
+    private static String filterClause(String department, String name) {
+        if (department != null && name != null) {
+            return " WHERE department=? AND name LIKE ?";
+        } else if (department != null) {
+            return " WHERE department=?";
+        } else if (name != null) {
+            return " WHERE name LIKE ?";
+        }
+        return "";
+    }
+
+    private static void bindFilter(PreparedStatement stmt, String department, String name) throws SQLException {
+        int index = 1;
+        if (department != null) {
+            stmt.setString(index++, department);
+        }
+        if (name != null) {
+            stmt.setString(index, "%" + name + "%");
+        }
+    }
+
+    // Students matching every filter of the query, in its order, one page of it
+    public List<Student> query(StudentQuery query) {
+        long start = System.nanoTime();
+        String sql = "SELECT " + STUDENT_COLUMNS + " FROM students" + query.whereClause(true)
+                + query.orderClause() + (query.getOffset() > 0 ? " LIMIT ? OFFSET ?" : " LIMIT ?");
+        try {
+            return DatabaseConnection.read(conn -> {
+                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    int index = query.bind(stmt, true);
+                    stmt.setInt(index++, query.getLimit());
+                    if (query.getOffset() > 0) {
+                        stmt.setInt(index, query.getOffset());
+                    }
+                    return readStudents(stmt, QUERY, start);
+                }
+            });
+        } catch (SQLException e) {
+            QUERY.recordError(start);
+            System.err.println("Error querying students: " + e.getMessage());
+        }
+        return new ArrayList<>();
+    }
+
+    // Number of students matching the query's filters; order, paging and limit are ignored
+    public int count(StudentQuery query) {
+        long start = System.nanoTime();
+        String sql = "SELECT COUNT(*) FROM students" + query.whereClause(false);
+        try {
+            return DatabaseConnection.read(conn -> {
+                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    query.bind(stmt, false);
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        QUERY_COUNT.record(start, 1);
+                        return rs.next() ? rs.getInt(1) : 0;
+                    }
+                }
+            });
+        } catch (SQLException e) {
+            QUERY_COUNT.recordError(start);
+            System.err.println("Error counting students: " + e.getMessage());
+        }
+        return 0;
+    }
+
+    // Update student; true only if the row was written. See update() for why it may not be.
+    public boolean updateStudent(Student student) {
+        return update(student) == UpdateResult.UPDATED;
+    }
+
+    // Optimistic update of the student's dirty fields: only those columns are written
+    // (a student built from values has all of them dirty), and only if the row still
+    // has the student's version. On success the student moves on to the new version
+    // and is clean. A lost race leaves the row alone and returns CONFLICT; re-read the
+    // student and retry or give up. Nothing dirty means nothing to write: UPDATED.
+    public UpdateResult update(Student student) {
+        if (!student.isDirty()) {
+            return UpdateResult.UPDATED;
+        }
+        long start = System.nanoTime();
+        StringBuilder query = new StringBuilder("UPDATE students SET ");
+        for (Student.Field field : Student.Field.values()) {
+            if (student.isDirty(field)) {
+                query.append(FIELD_COLUMNS[field.ordinal()]).append("=?, ");
+            }
+        }
+        query.append("version=version+1 WHERE id=? AND version=?");
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(query.toString())) {
+            Student previous = changeListeners.isEmpty() ? null : readPrevious(conn, student.getId());
+            int index = 1;
+            for (Student.Field field : Student.Field.values()) {
+                if (student.isDirty(field)) {
+                    bindField(stmt, index++, student, field);
+                }
+            }
+            stmt.setInt(index++, student.getId());
+            stmt.setInt(index, student.getVersion());
+            int rows = stmt.executeUpdate();
+            UPDATE.record(start, rows);
+            if (rows == 0) {
+                // Whatever we cached for this id is out of date
+                studentCache.remove(student.getId());
+                return readVersion(conn, student.getId()) < 0 ? UpdateResult.NOT_FOUND : UpdateResult.CONFLICT;
+            }
+            // The version matched, so the columns not written are as stored
+            student.setVersion(student.getVersion() + 1);
+            student.markClean();
+            invalidateCaches();
+            studentCache.put(student);
+            // The row read beforehand is only the one replaced if no one else wrote in between
+            boolean replaced = previous != null && previous.getVersion() + 1 == student.getVersion();
+            fireChange(StudentChangeEvent.updated(student, replaced ? previous : null));
+            return UpdateResult.UPDATED;
         } catch (SQLException e) {
+            UPDATE.recordError(start);
             System.err.println("Error updating student: " + e.getMessage());
-            return false;
+            return UpdateResult.FAILED;
+        }
+    }
+
+    private static void bindField(PreparedStatement stmt, int index, Student student, Student.Field field)
+            throws SQLException {
+        switch (field) {
+            case NAME: stmt.setString(index, student.getName()); break;
+            case ROLL_NO: stmt.setString(index, student.getRollNo()); break;
+            case DEPARTMENT: stmt.setString(index, student.getDepartment()); break;
+            case EMAIL: stmt.setString(index, student.getEmail()); break;
+            case PHONE: stmt.setString(index, student.getPhone()); break;
+            default: bindMarks(stmt, index, student);
+        }
+    }
+
+    private static void bindMarks(PreparedStatement stmt, int index, Student student) throws SQLException {
+        if (student.hasMarks()) {
+            stmt.setDouble(index, student.getMarks());
+        } else {
+            stmt.setNull(index, Types.DOUBLE);
+        }
+    }
+
+    // Set the marks of many students (id -> marks) with one JDBC batch in a single
+    // transaction; with rewriteBatchedStatements the driver sends it in one round trip.
+    // Only marks and version are written, without a version check: marks entered in
+    // bulk win, and anyone editing one of these students meanwhile gets a conflict.
+    // All or nothing: on failure the transaction is rolled back and the error
+    // rethrown. Returns how many of the students were found and updated.
+    public int updateMarks(Map<Integer, Double> marksById) throws SQLException {
+        if (marksById.isEmpty()) {
+            return 0;
+        }
+        long start = System.nanoTime();
+        int updated = 0;
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(
+                     "UPDATE students SET marks=?, version=version+1 WHERE id=?")) {
+                for (Map.Entry<Integer, Double> entry : marksById.entrySet()) {
+                    stmt.setDouble(1, entry.getValue());
+                    stmt.setInt(2, entry.getKey());
+                    stmt.addBatch();
+                }
+                for (int count : stmt.executeBatch()) {
+                    // A driver that rewrote the batch may only know it succeeded
+                    updated += count == Statement.SUCCESS_NO_INFO ? 1 : count;
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            UPDATE_MARKS.recordError(start);
+            throw e;
+        }
+        invalidateCaches();
+        for (Integer id : marksById.keySet()) {
+            studentCache.remove(id);
         }
+        UPDATE_MARKS.record(start, updated);
+        fireChange(StudentChangeEvent.reloaded());
+        return updated;
     }
 
-    // Delete student
+    // Current version of a row, or -1 if there is no such row
+    private int readVersion(Connection conn, int id) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT version FROM students WHERE id=?")) {
+            stmt.setInt(1, id);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : -1;
+            }
+        }
+    }
+
+    // Delete student; true unless the database refused, including when there was no such row
     public boolean deleteStudent(int id) {
+        return delete(id) >= 0;
+    }
+
+    // Delete student; the number of rows deleted (0 if there was no such row), or -1 on error
+    public int delete(int id) {
+        long start = System.nanoTime();
         String query = "DELETE FROM students WHERE id=?";
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
+            Student previous = changeListeners.isEmpty() ? null : readPrevious(conn, id);
             stmt.setInt(1, id);
-            stmt.executeUpdate();
-            return true;
+            int rows = stmt.executeUpdate();
+            invalidateCaches();
+            studentCache.remove(id);
+            DELETE.record(start, rows);
+            if (rows > 0) {
+                fireChange(previous != null ? StudentChangeEvent.deleted(previous) : StudentChangeEvent.reloaded());
+            }
+            return rows;
         } catch (SQLException e) {
+            DELETE.recordError(start);
             System.err.println("Error deleting student: " + e.getMessage());
-            return false;
+            return -1;
         }
     }
 
-    // Search by name
-    public List<Student> searchByName(String name) {
-        List<Student> students = new ArrayList<>();
-        String query = "SELECT * FROM students WHERE name LIKE ?";
+    // Find by primary key, served from the id cache when possible
+    public Student findById(int id) {
+        long start = System.nanoTime();
+        Student cached = studentCache.get(id);
+        if (cached != null) {
+            FIND_BY_ID.record(start, 1);
+            return cached;
+        }
+        long version = studentCache.version();
+        String query = "SELECT " + STUDENT_COLUMNS + " FROM students WHERE id=?";
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
-            stmt.setString(1, "%" + name + "%");
-            ResultSet rs = stmt.executeQuery();
-            while (rs.next()) {
-                Student student = new Student(
-                    rs.getInt("id"),
-                    rs.getString("name"),
-                    rs.getString("roll_no"),
-                    rs.getString("department"),
-                    rs.getString("email"),
-                    rs.getString("phone"),
-                    rs.getDouble("marks")
-                );
-                students.add(student);
+            stmt.setInt(1, id);
+            Student student = readStudent(stmt, FIND_BY_ID, start);
+            if (student != null) {
+                studentCache.putIfUnchanged(student, version);
             }
+            return student;
         } catch (SQLException e) {
+            FIND_BY_ID.recordError(start);
+            System.err.println("Error finding student by id: " + e.getMessage());
+        }
+        return null;
+    }
+
+    // Most rows a name search returns (-Ddao.search.limit)
+    public static int getSearchLimit() {
+        return SEARCH_LIMIT;
+    }
+
+    public List<Student> searchByName(String name) {
+        return searchByName(name, SEARCH_LIMIT);
+    }
+
+    // Search by name, at most limit rows. A single character matches names that start
+    // with it (using the name index), not names that contain it; longer queries use the
+    // n-gram FULLTEXT index when the server has it, otherwise a substring scan. Prefix
+    // matches rank first, then by relevance.
+    public List<Student> searchByName(String name, int limit) {
+        long start = System.nanoTime();
+        String term = name.trim();
+        if (term.isEmpty()) {
+            return getAllStudents();
+        }
+        if (term.length() < FULLTEXT_MIN_LENGTH) {
+            return searchNames("SELECT " + STUDENT_COLUMNS + " FROM students "
+                    + "WHERE name LIKE ? ORDER BY name LIMIT ?", escapeLike(term) + "%", limit, start);
+        }
+        if (fullTextAvailable) {
+            String phrase = "\"" + term.replace("\"", "") + "\"";
+            String query = "SELECT " + STUDENT_COLUMNS + " FROM students "
+                    + "WHERE MATCH(name) AGAINST(? IN BOOLEAN MODE) "
+                    + "ORDER BY name LIKE ? DESC, MATCH(name) AGAINST(? IN BOOLEAN MODE) DESC, name LIMIT ?";
+            try {
+                return DatabaseConnection.read(conn -> {
+                    try (PreparedStatement stmt = conn.prepareStatement(query)) {
+                        stmt.setString(1, phrase);
+                        stmt.setString(2, escapeLike(term) + "%");
+                        stmt.setString(3, phrase);
+                        stmt.setInt(4, limit);
+                        return readStudents(stmt, SEARCH_NAME, start);
+                    }
+                });
+            } catch (SQLException e) {
+                // 1191: no FULLTEXT index; SQLSTATE class 42: server doesn't understand MATCH.
+                // Either way use the substring scan from now on; other errors fall back just this once.
+                if (e.getErrorCode() == 1191 || (e.getSQLState() != null && e.getSQLState().startsWith("42"))) {
+                    fullTextAvailable = false;
+                }
+                System.err.println("Full-text name search failed, falling back to LIKE: " + e.getMessage());
+            }
+        }
+        String pattern = escapeLike(term);
+        String query = "SELECT " + STUDENT_COLUMNS + " FROM students "
+                + "WHERE name LIKE ? ORDER BY name LIKE ? DESC, name LIMIT ?";
+        try {
+            return DatabaseConnection.read(conn -> {
+                try (PreparedStatement stmt = conn.prepareStatement(query)) {
+                    stmt.setString(1, "%" + pattern + "%");
+                    stmt.setString(2, pattern + "%");
+                    stmt.setInt(3, limit);
+                    return readStudents(stmt, SEARCH_NAME, start);
+                }
+            });
+        } catch (SQLException e) {
+            SEARCH_NAME.recordError(start);
             System.err.println("Error searching by name: " + e.getMessage());
         }
-        return students;
+        return new ArrayList<>();
     }
 
-    // Search by department
-    public List<Student> searchByDepartment(String department) {
+    private List<Student> searchNames(String query, String pattern, int limit, long start) {
+        try {
+            return DatabaseConnection.read(conn -> {
+                try (PreparedStatement stmt = conn.prepareStatement(query)) {
+                    stmt.setString(1, pattern);
+                    stmt.setInt(2, limit);
+                    return readStudents(stmt, SEARCH_NAME, start);
+                }
+            });
+        } catch (SQLException e) {
+            SEARCH_NAME.recordError(start);
+            System.err.println("Error searching by name: " + e.getMessage());
+        }
+        return new ArrayList<>();
+    }
+
+    // Run a student query and record it against metrics once every row is read
+    private List<Student> readStudents(PreparedStatement stmt, OperationMetrics metrics, long start) throws SQLException {
         List<Student> students = new ArrayList<>();
-        String query = "SELECT * FROM students WHERE department=?";
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(query)) {
-            stmt.setString(1, department);
-            ResultSet rs = stmt.executeQuery();
+        RowMapper<Student> mapper = new StudentRowMapper();
+        try (ResultSet rs = stmt.executeQuery()) {
             while (rs.next()) {
-                Student student = new Student(
-                    rs.getInt("id"),
-                    rs.getString("name"),
-                    rs.getString("roll_no"),
-                    rs.getString("department"),
-                    rs.getString("email"),
-                    rs.getString("phone"),
-                    rs.getDouble("marks")
-                );
-                students.add(student);
+                students.add(mapper.mapRow(rs));
             }
+        }
+        metrics.record(start, students.size());
+        return students;
+    }
+
+    private Student readStudent(PreparedStatement stmt, OperationMetrics metrics, long start) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery()) {
+            Student student = rs.next() ? new StudentRowMapper().mapRow(rs) : null;
+            metrics.record(start, student == null ? 0 : 1);
+            return student;
+        }
+    }
+
+    // Escape LIKE wildcards so user input is matched literally
+    static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    // Search by department
+    public List<Student> searchByDepartment(String department) {
+        long start = System.nanoTime();
+        String query = "SELECT " + STUDENT_COLUMNS + " FROM students WHERE department=?";
+        try {
+            return DatabaseConnection.read(conn -> {
+                try (PreparedStatement stmt = conn.prepareStatement(query)) {
+                    stmt.setString(1, department);
+                    return readStudents(stmt, SEARCH_DEPARTMENT, start);
+                }
+            });
         } catch (SQLException e) {
+            SEARCH_DEPARTMENT.recordError(start);
             System.err.println("Error searching by department: " + e.getMessage());
         }
-        return students;
+        return new ArrayList<>();
     }
 
-    // Search by roll number
+    // Search by roll number. Stays on the primary: it is how the write-behind queue
+    // and the REST server tell why a write just failed, or whether it went through.
     public Student searchByRollNo(String rollNo) {
-        String query = "SELECT * FROM students WHERE roll_no=?";
+        long start = System.nanoTime();
+        String query = "SELECT " + STUDENT_COLUMNS + " FROM students WHERE roll_no=?";
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
             stmt.setString(1, rollNo);
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                return new Student(
-                    rs.getInt("id"),
-                    rs.getString("name"),
-                    rs.getString("roll_no"),
-                    rs.getString("department"),
-                    rs.getString("email"),
-                    rs.getString("phone"),
-                    rs.getDouble("marks")
-                );
-            }
+            return readStudent(stmt, SEARCH_ROLL_NO, start);
         } catch (SQLException e) {
+            SEARCH_ROLL_NO.recordError(start);
             System.err.println("Error searching by roll no: " + e.getMessage());
         }
         return null;
     }
 
-    // Get statistics
+    // Get statistics (served from the snapshot cache)
     public int getTotalStudents() {
-        String query = "SELECT COUNT(*) FROM students";
-        try (Connection conn = DatabaseConnection.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(query)) {
-            if (rs.next()) {
-                return rs.getInt(1);
-            }
+        return getStatistics().getTotalStudents();
+    }
+
+    public double getHighestMarks() {
+        return getStatistics().getHighestMarks();
+    }
+
+    public double getLowestMarks() {
+        return getStatistics().getLowestMarks();
+    }
+
+    public double getAverageMarks() {
+        return getStatistics().getAverageMarks();
+    }
+
+    // Overall and per-department statistics in one query, cached until the next write
+    public StatisticsSnapshot getStatistics() {
+        long start = System.nanoTime();
+        long version = dataVersion.get();
+        CachedStatistics cached = statisticsCache;
+        if (cached != null && cached.version == version
+                && System.currentTimeMillis() - cached.loadedAt < STATISTICS_TTL_MILLIS) {
+            STATISTICS.record(start, 0);
+            return cached.snapshot;
+        }
+        String query = "SELECT department, COUNT(*), COUNT(marks), SUM(marks), MAX(marks), MIN(marks) "
+                + "FROM students GROUP BY department ORDER BY department";
+        try {
+            StatisticsSnapshot snapshot = DatabaseConnection.read(conn -> readStatistics(conn, query));
+            statisticsCache = new CachedStatistics(version, snapshot);
+            STATISTICS.record(start, snapshot.getDepartments().size());
+            return snapshot;
         } catch (SQLException e) {
-            System.err.println("Error getting total students: " + e.getMessage());
+            STATISTICS.recordError(start);
+            System.err.println("Error getting statistics: " + e.getMessage());
         }
-        return 0;
+        return StatisticsSnapshot.EMPTY;
     }
 
-    public double getHighestMarks() {
-        String query = "SELECT MAX(marks) FROM students";
-        try (Connection conn = DatabaseConnection.getConnection();
-             Statement stmt = conn.createStatement();
+    // Fold the per-department aggregates into overall figures; SQL aggregates skip NULL marks
+    private static StatisticsSnapshot readStatistics(Connection conn, String query) throws SQLException {
+        try (Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(query)) {
-            if (rs.next()) {
-                return rs.getDouble(1);
+            Map<String, StatisticsSnapshot.DepartmentStatistics> departments = new LinkedHashMap<>();
+            int total = 0;
+            int marksCount = 0;
+            double marksSum = 0;
+            double highest = Double.NEGATIVE_INFINITY;
+            double lowest = Double.POSITIVE_INFINITY;
+            while (rs.next()) {
+                String department = rs.getString(1);
+                int count = rs.getInt(2);
+                int deptMarksCount = rs.getInt(3);
+                double deptSum = rs.getDouble(4);
+                double deptMax = rs.getDouble(5);
+                double deptMin = rs.getDouble(6);
+                departments.put(department, new StatisticsSnapshot.DepartmentStatistics(department, count,
+                        deptMax, deptMin, deptMarksCount == 0 ? 0 : deptSum / deptMarksCount));
+
+                total += count;
+                if (deptMarksCount > 0) {
+                    marksCount += deptMarksCount;
+                    marksSum += deptSum;
+                    highest = Math.max(highest, deptMax);
+                    lowest = Math.min(lowest, deptMin);
+                }
             }
-        } catch (SQLException e) {
-            System.err.println("Error getting highest marks: " + e.getMessage());
+            return marksCount == 0
+                    ? new StatisticsSnapshot(total, 0, 0, 0, departments)
+                    : new StatisticsSnapshot(total, highest, lowest, marksSum / marksCount, departments);
         }
-        return 0;
     }
 
-    public double getLowestMarks() {
-        String query = "SELECT MIN(marks) FROM students";
-        try (Connection conn = DatabaseConnection.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(query)) {
-            if (rs.next()) {
-                return rs.getDouble(1);
+    // Called after every successful write so cached reads are refreshed
+    private static void invalidateCaches() {
+        dataVersion.incrementAndGet();
+        DatabaseConnection.recordWrite();
+    }
+
+    // Register for committed changes made through any StudentDAO in this process
+    public static void addChangeListener(StudentChangeListener listener) {
+        changeListeners.add(listener);
+    }
+
+    public static void removeChangeListener(StudentChangeListener listener) {
+        changeListeners.remove(listener);
+    }
+
+    static void fireChange(StudentChangeEvent event) {
+        for (StudentChangeListener listener : changeListeners) {
+            try {
+                listener.studentChanged(event);
+            } catch (RuntimeException e) {
+                System.err.println("Error in student change listener: " + e.getMessage());
             }
-        } catch (SQLException e) {
-            System.err.println("Error getting lowest marks: " + e.getMessage());
         }
-        return 0;
     }
 
-    public double getAverageMarks() {
-        String query = "SELECT AVG(marks) FROM students";
-        try (Connection conn = DatabaseConnection.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(query)) {
-            if (rs.next()) {
-                return rs.getDouble(1);
+    // The row as it is before an update or delete, so listeners can adjust what they derived from it
+    private Student readPrevious(Connection conn, int id) throws SQLException {
+        String query = "SELECT " + STUDENT_COLUMNS + " FROM students WHERE id=?";
+        try (PreparedStatement stmt = conn.prepareStatement(query)) {
+            stmt.setInt(1, id);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? new StudentRowMapper().mapRow(rs) : null;
             }
-        } catch (SQLException e) {
-            System.err.println("Error getting average marks: " + e.getMessage());
         }
-        return 0;
+    }
+
+    private static final class CachedStatistics {
+        private final long version;
+        private final long loadedAt = System.currentTimeMillis();
+        private final StatisticsSnapshot snapshot;
+
+        private CachedStatistics(long version, StatisticsSnapshot snapshot) {
+            this.version = version;
+            this.snapshot = snapshot;
+        }
     }
 }
@@ -0,0 +1,56 @@
+package dao;
+
+import models.Student;
+
+// One queued write: an insert, an update by id or a delete by id. The student is
+// a private copy; for an insert its id is filled in once the row is written. An
+// update normally applies only while the row is still at the version it was
+// based on; an overwrite applies whatever the version.
+public final class StudentMutation {
+    public enum Type {
+        ADD,
+        UPDATE,
+        DELETE
+    }
+
+    private final Type type;
+    private final Student student;
+    private final int id;
+    private final int expectedVersion;
+
+    private StudentMutation(Type type, Student student, int id, int expectedVersion) {
+        this.type = type;
+        this.student = student == null ? null : StudentCache.copyOf(student);
+        this.id = id;
+        this.expectedVersion = expectedVersion;
+    }
+
+    public static StudentMutation add(Student student) {
+        return new StudentMutation(Type.ADD, student, 0, -1);
+    }
+
+    // Applied only if the row still has the student's version
+    public static StudentMutation update(Student student) {
+        return new StudentMutation(Type.UPDATE, student, student.getId(), student.getVersion());
+    }
+
+    // Applied whatever the row's version, e.g. an update journaled before versions were recorded
+    public static StudentMutation overwrite(Student student) {
+        return new StudentMutation(Type.UPDATE, student, student.getId(), -1);
+    }
+
+    public static StudentMutation delete(int id) {
+        return new StudentMutation(Type.DELETE, null, id, -1);
+    }
+
+    public Type getType() { return type; }
+
+    // Null for DELETE
+    public Student getStudent() { return student; }
+
+    // The target row; 0 for an ADD not yet written
+    public int getId() { return type == Type.ADD ? student.getId() : id; }
+
+    // The version an UPDATE expects the row to have; -1 for an overwrite and for inserts and deletes
+    public int getExpectedVersion() { return expectedVersion; }
+}
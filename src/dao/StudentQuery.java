@@ -0,0 +1,258 @@
+package dao;
+
+import models.Student;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+// Multi-criteria student query for StudentDAO.query/count. Every filter is
+// optional and they combine with AND: department IN, marks range (inclusive),
+// name prefix and created_at range (from inclusive, to exclusive). Rows come back
+// ordered by one column with id as the tie-break, and are paged either with a
+// keyset cursor (after the last row of the previous page) or LIMIT/OFFSET.
+//
+// The SQL text depends only on which filters are set, never on their values, and
+// the IN list is padded to a power of two, so the server's prepared statement
+// cache sees a small, fixed set of statements.
+public final class StudentQuery {
+    public enum SortColumn {
+        ID("id"),
+        NAME("name"),
+        ROLL_NO("roll_no"),
+        DEPARTMENT("department"),
+        // Nullable columns sort as if null were empty / zero, the values a Student holds for them
+        EMAIL("COALESCE(email, '')"),
+        PHONE("COALESCE(phone, '')"),
+        MARKS("COALESCE(marks, 0)");
+
+        private final String expression;
+
+        SortColumn(String expression) {
+            this.expression = expression;
+        }
+
+        // Same order as the table columns
+        public static SortColumn forTableColumn(int column) {
+            return values()[column];
+        }
+
+        // The value this column sorts a student by
+        public Object valueOf(Student student) {
+            switch (this) {
+                case ID: return student.getId();
+                case NAME: return student.getName();
+                case ROLL_NO: return student.getRollNo();
+                case DEPARTMENT: return student.getDepartment();
+                case EMAIL: return student.getEmail() == null ? "" : student.getEmail();
+                case PHONE: return student.getPhone() == null ? "" : student.getPhone();
+                default: return student.getMarks();
+            }
+        }
+    }
+
+    private final List<String> departments;
+    private final Double minMarks;
+    private final Double maxMarks;
+    private final String namePrefix;
+    private final LocalDateTime createdFrom;
+    private final LocalDateTime createdTo;
+    private final SortColumn sortColumn;
+    private final boolean descending;
+    private final Student after;
+    private final int offset;
+    private final int limit;
+
+    private StudentQuery(Builder builder) {
+        departments = Collections.unmodifiableList(new ArrayList<>(builder.departments));
+        minMarks = builder.minMarks;
+        maxMarks = builder.maxMarks;
+        namePrefix = builder.namePrefix;
+        createdFrom = builder.createdFrom;
+        createdTo = builder.createdTo;
+        sortColumn = builder.sortColumn;
+        descending = builder.descending;
+        after = builder.after;
+        offset = builder.offset;
+        limit = builder.limit;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public List<String> getDepartments() { return departments; }
+    public Double getMinMarks() { return minMarks; }
+    public Double getMaxMarks() { return maxMarks; }
+    public String getNamePrefix() { return namePrefix; }
+    public LocalDateTime getCreatedFrom() { return createdFrom; }
+    public LocalDateTime getCreatedTo() { return createdTo; }
+    public SortColumn getSortColumn() { return sortColumn; }
+    public boolean isDescending() { return descending; }
+    public Student getAfter() { return after; }
+    public int getOffset() { return offset; }
+    public int getLimit() { return limit; }
+
+    // " WHERE ..." for the filters, plus the keyset condition if withCursor; "" if none apply
+    String whereClause(boolean withCursor) {
+        List<String> conditions = new ArrayList<>();
+        if (!departments.isEmpty()) {
+            StringBuilder in = new StringBuilder("department IN (?");
+            for (int i = 1; i < paddedSize(departments.size()); i++) {
+                in.append(", ?");
+            }
+            conditions.add(in.append(')').toString());
+        }
+        if (minMarks != null) {
+            conditions.add("marks >= ?");
+        }
+        if (maxMarks != null) {
+            conditions.add("marks <= ?");
+        }
+        if (namePrefix != null) {
+            conditions.add("name LIKE ?");
+        }
+        if (createdFrom != null) {
+            conditions.add("created_at >= ?");
+        }
+        if (createdTo != null) {
+            conditions.add("created_at < ?");
+        }
+        if (withCursor && after != null) {
+            String op = descending ? "<" : ">";
+            conditions.add(sortColumn == SortColumn.ID
+                ? "id " + op + " ?"
+                : "(" + sortColumn.expression + " " + op + " ? OR (" + sortColumn.expression + " = ? AND id " + op + " ?))");
+        }
+        return conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+    }
+
+    String orderClause() {
+        String direction = descending ? " DESC" : "";
+        return sortColumn == SortColumn.ID
+            ? " ORDER BY id" + direction
+            : " ORDER BY " + sortColumn.expression + direction + ", id" + direction;
+    }
+
+    // Bind the parameters of whereClause from index 1; returns the next free index
+    int bind(PreparedStatement stmt, boolean withCursor) throws SQLException {
+        int index = 1;
+        if (!departments.isEmpty()) {
+            int padded = paddedSize(departments.size());
+            for (int i = 0; i < padded; i++) {
+                // Repeat the last value to fill the padding
+                stmt.setString(index++, departments.get(Math.min(i, departments.size() - 1)));
+            }
+        }
+        if (minMarks != null) {
+            stmt.setDouble(index++, minMarks);
+        }
+        if (maxMarks != null) {
+            stmt.setDouble(index++, maxMarks);
+        }
+        if (namePrefix != null) {
+            stmt.setString(index++, StudentDAO.escapeLike(namePrefix) + "%");
+        }
+        if (createdFrom != null) {
+            stmt.setTimestamp(index++, Timestamp.valueOf(createdFrom));
+        }
+        if (createdTo != null) {
+            stmt.setTimestamp(index++, Timestamp.valueOf(createdTo));
+        }
+        if (withCursor && after != null) {
+            if (sortColumn != SortColumn.ID) {
+                Object value = sortColumn.valueOf(after);
+                stmt.setObject(index++, value);
+                stmt.setObject(index++, value);
+            }
+            stmt.setInt(index++, after.getId());
+        }
+        return index;
+    }
+
+    private static int paddedSize(int size) {
+        return size <= 1 ? size : Integer.highestOneBit(size - 1) << 1;
+    }
+
+    public static final class Builder {
+        private final LinkedHashSet<String> departments = new LinkedHashSet<>();
+        private Double minMarks;
+        private Double maxMarks;
+        private String namePrefix;
+        private LocalDateTime createdFrom;
+        private LocalDateTime createdTo;
+        private SortColumn sortColumn = SortColumn.ID;
+        private boolean descending;
+        private Student after;
+        private int offset;
+        private int limit = StudentDAO.SEARCH_LIMIT;
+
+        private Builder() {
+        }
+
+        public Builder departmentIn(Collection<String> values) {
+            departments.clear();
+            departments.addAll(values);
+            return this;
+        }
+
+        // Null leaves that end of the range open
+        public Builder marksBetween(Double min, Double max) {
+            minMarks = min;
+            maxMarks = max;
+            return this;
+        }
+
+        public Builder namePrefix(String prefix) {
+            namePrefix = prefix == null || prefix.isEmpty() ? null : prefix;
+            return this;
+        }
+
+        // [from, to); null leaves that end open
+        public Builder createdBetween(LocalDateTime from, LocalDateTime to) {
+            createdFrom = from;
+            createdTo = to;
+            return this;
+        }
+
+        public Builder orderBy(SortColumn column, boolean descending) {
+            this.sortColumn = column;
+            this.descending = descending;
+            return this;
+        }
+
+        // Keyset paging: start after this row of the previous page, in the same order
+        public Builder after(Student last) {
+            this.after = last;
+            this.offset = 0;
+            return this;
+        }
+
+        public Builder offset(int offset) {
+            if (offset < 0) {
+                throw new IllegalArgumentException("Negative offset: " + offset);
+            }
+            this.offset = offset;
+            this.after = null;
+            return this;
+        }
+
+        public Builder limit(int limit) {
+            if (limit < 1) {
+                throw new IllegalArgumentException("Limit must be positive: " + limit);
+            }
+            this.limit = limit;
+            return this;
+        }
+
+        public StudentQuery build() {
+            return new StudentQuery(this);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package dao;
+
+import models.Student;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+// Maps students by column index. Indexes are looked up by name once for each
+// ResultSet, so queries may select the columns in any order. Not thread-safe:
+// use one instance per query.
+public class StudentRowMapper implements RowMapper<Student> {
+    private ResultSet resolvedFor;
+    private int id;
+    private int name;
+    private int rollNo;
+    private int department;
+    private int email;
+    private int phone;
+    private int marks;
+    private int version;
+
+    @Override
+    public Student mapRow(ResultSet rs) throws SQLException {
+        if (rs != resolvedFor) {
+            resolve(rs);
+        }
+        double mark = rs.getDouble(marks);
+        if (rs.wasNull()) {
+            mark = Double.NaN;
+        }
+        Student student = new Student(
+            rs.getInt(id),
+            rs.getString(name),
+            rs.getString(rollNo),
+            rs.getString(department),
+            rs.getString(email),
+            rs.getString(phone),
+            mark,
+            rs.getInt(version)
+        );
+        // As stored: an update of it writes only what is changed afterwards
+        student.markClean();
+        return student;
+    }
+
+    private void resolve(ResultSet rs) throws SQLException {
+        id = rs.findColumn("id");
+        name = rs.findColumn("name");
+        rollNo = rs.findColumn("roll_no");
+        department = rs.findColumn("department");
+        email = rs.findColumn("email");
+        phone = rs.findColumn("phone");
+        marks = rs.findColumn("marks");
+        version = rs.findColumn("version");
+        resolvedFor = rs;
+    }
+}
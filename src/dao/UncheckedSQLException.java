@@ -0,0 +1,16 @@
+package dao;
+
+import java.sql.SQLException;
+
+// A database error raised while iterating a Stream from StudentDAO, where a
+// checked SQLException cannot be thrown
+public class UncheckedSQLException extends RuntimeException {
+    public UncheckedSQLException(SQLException cause) {
+        super(cause.getMessage(), cause);
+    }
+
+    @Override
+    public synchronized SQLException getCause() {
+        return (SQLException) super.getCause();
+    }
+}
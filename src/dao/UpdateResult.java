@@ -0,0 +1,12 @@
+package dao;
+
+// Outcome of an optimistic update (StudentDAO.update)
+public enum UpdateResult {
+    UPDATED,
+    // The row's version moved on since the caller read it: someone else changed it first
+    CONFLICT,
+    // No row with that id, e.g. it was deleted meanwhile
+    NOT_FOUND,
+    // The database refused the write or could not be reached
+    FAILED
+}
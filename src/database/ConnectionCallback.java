@@ -0,0 +1,10 @@
+package database;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+// Work run on a borrowed connection; see DatabaseConnection.read
+@FunctionalInterface
+public interface ConnectionCallback<T> {
+    T doInConnection(Connection conn) throws SQLException;
+}
@@ -0,0 +1,303 @@
+package database;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.Iterator;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Fixed-bound JDBC connection pool. Connections handed out are proxies whose
+// close() returns the physical connection to the idle queue.
+public class ConnectionPool {
+    // Connections returned this recently are handed out again without a validation round trip
+    private static final long VALIDATION_BYPASS_MILLIS = 500;
+
+    private final String name;
+    private final String url;
+    private final Properties connectionProperties;
+    private final int minSize;
+    private final int maxSize;
+    private final long idleTimeoutMillis;
+    private final long borrowTimeoutMillis;
+    private final int validationTimeoutSeconds;
+
+    private final LinkedBlockingDeque<PooledEntry> idle = new LinkedBlockingDeque<>();
+    private final Semaphore permits;
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger total = new AtomicInteger();
+    private final LongAdder borrowCount = new LongAdder();
+    private final LongAdder timeoutCount = new LongAdder();
+    private final LongAdder createdCount = new LongAdder();
+    private final LongAdder evictedCount = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean shutdown;
+    private volatile Runnable brokenConnectionListener;
+
+    public ConnectionPool(String name, String url, Properties connectionProperties, int minSize, int maxSize,
+                          long idleTimeoutMillis, long borrowTimeoutMillis, int validationTimeoutSeconds) {
+        if (maxSize < 1 || minSize < 0 || minSize > maxSize) {
+            throw new IllegalArgumentException("Invalid pool size: min=" + minSize + ", max=" + maxSize);
+        }
+        this.name = name;
+        this.url = url;
+        this.connectionProperties = connectionProperties;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.borrowTimeoutMillis = borrowTimeoutMillis;
+        this.validationTimeoutSeconds = validationTimeoutSeconds;
+        this.permits = new Semaphore(maxSize, true);
+
+        housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, name + "-housekeeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(1000, Math.min(idleTimeoutMillis / 2, 30_000));
+        housekeeper.scheduleWithFixedDelay(this::housekeep, 0, period, TimeUnit.MILLISECONDS);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    // Borrow a connection, waiting up to the borrow timeout if the pool is exhausted
+    public Connection borrow() throws SQLException {
+        if (shutdown) {
+            throw new SQLException("Connection pool '" + name + "' is shut down");
+        }
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(borrowTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                timeoutCount.increment();
+                throw new SQLTimeoutException("Timed out after " + borrowTimeoutMillis
+                    + "ms waiting for a connection from pool '" + name + "'");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        }
+        recordWait(System.nanoTime() - start);
+
+        try {
+            PooledEntry entry;
+            while ((entry = idle.pollFirst()) != null) {
+                if (isUsable(entry)) {
+                    break;
+                }
+                discard(entry);
+            }
+            if (entry == null) {
+                entry = create();
+            }
+            active.incrementAndGet();
+            borrowCount.increment();
+            return wrap(entry);
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    // Told when a borrower hands back a connection that is closed or can't be reset,
+    // typically because the server went away under it
+    public void setBrokenConnectionListener(Runnable listener) {
+        this.brokenConnectionListener = listener;
+    }
+
+    // Whether connection was handed out by this pool, returned or not
+    public boolean owns(Connection connection) {
+        return connection != null && Proxy.isProxyClass(connection.getClass())
+            && Proxy.getInvocationHandler(connection) instanceof PooledConnectionHandler handler
+            && handler.pool() == this;
+    }
+
+    public PoolMetrics getMetrics() {
+        return new PoolMetrics(active.get(), idle.size(), total.get(), maxSize, borrowCount.sum(),
+            timeoutCount.sum(), createdCount.sum(), evictedCount.sum(), totalWaitNanos.sum(), maxWaitNanos.get());
+    }
+
+    public void shutdown() {
+        shutdown = true;
+        housekeeper.shutdownNow();
+        PooledEntry entry;
+        while ((entry = idle.pollFirst()) != null) {
+            discard(entry);
+        }
+    }
+
+    private void release(PooledEntry entry) {
+        active.decrementAndGet();
+        try {
+            if (shutdown) {
+                discard(entry);
+            } else if (!resetState(entry.connection)) {
+                discard(entry);
+                Runnable listener = brokenConnectionListener;
+                if (listener != null) {
+                    listener.run();
+                }
+            } else {
+                entry.lastReturned = System.currentTimeMillis();
+                idle.offerFirst(entry);
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    // Undo anything a borrower left behind so the next caller gets a clean connection
+    private boolean resetState(Connection connection) {
+        try {
+            if (connection.isClosed()) {
+                return false;
+            }
+            if (!connection.getAutoCommit()) {
+                connection.rollback();
+                connection.setAutoCommit(true);
+            }
+            if (connection.isReadOnly()) {
+                connection.setReadOnly(false);
+            }
+            return true;
+        } catch (SQLException e) {
+            System.err.println("Discarding connection that could not be reset: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private boolean isUsable(PooledEntry entry) {
+        if (System.currentTimeMillis() - entry.lastReturned < VALIDATION_BYPASS_MILLIS) {
+            return true;
+        }
+        try {
+            return entry.connection.isValid(validationTimeoutSeconds);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private PooledEntry create() throws SQLException {
+        Connection connection = DriverManager.getConnection(url, connectionProperties);
+        total.incrementAndGet();
+        createdCount.increment();
+        return new PooledEntry(connection);
+    }
+
+    private void discard(PooledEntry entry) {
+        total.decrementAndGet();
+        try {
+            entry.connection.close();
+        } catch (SQLException e) {
+            System.err.println("Error closing pooled connection: " + e.getMessage());
+        }
+    }
+
+    private void recordWait(long nanos) {
+        totalWaitNanos.add(nanos);
+        long max;
+        while (nanos > (max = maxWaitNanos.get()) && !maxWaitNanos.compareAndSet(max, nanos)) {
+            // retry until the larger value sticks
+        }
+    }
+
+    // Evict connections idle past the timeout, then top the pool back up to its minimum
+    private void housekeep() {
+        long now = System.currentTimeMillis();
+        Iterator<PooledEntry> oldestFirst = idle.descendingIterator();
+        while (oldestFirst.hasNext() && total.get() > minSize) {
+            PooledEntry entry = oldestFirst.next();
+            if (now - entry.lastReturned >= idleTimeoutMillis && idle.remove(entry)) {
+                evictedCount.increment();
+                discard(entry);
+            }
+        }
+        // Holding a permit while creating keeps borrowers and the top-up from together exceeding maxSize
+        while (!shutdown && total.get() < minSize && permits.tryAcquire()) {
+            try {
+                idle.offerLast(create());
+            } catch (SQLException e) {
+                System.err.println("Error pre-filling connection pool '" + name + "': " + e.getMessage());
+                break;
+            } finally {
+                permits.release();
+            }
+        }
+    }
+
+    private Connection wrap(PooledEntry entry) {
+        return (Connection) Proxy.newProxyInstance(
+            ConnectionPool.class.getClassLoader(),
+            new Class<?>[]{Connection.class},
+            new PooledConnectionHandler(entry));
+    }
+
+    private static final class PooledEntry {
+        private final Connection connection;
+        private volatile long lastReturned;
+
+        private PooledEntry(Connection connection) {
+            this.connection = connection;
+            this.lastReturned = System.currentTimeMillis();
+        }
+    }
+
+    private final class PooledConnectionHandler implements InvocationHandler {
+        private final PooledEntry entry;
+        // A stream may be closed by its consumer and a canceller at once; only one may return the connection
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private PooledConnectionHandler(PooledEntry entry) {
+            this.entry = entry;
+        }
+
+        private ConnectionPool pool() {
+            return ConnectionPool.this;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (closed.compareAndSet(false, true)) {
+                        release(entry);
+                    }
+                    return null;
+                case "isClosed":
+                    return closed.get() || entry.connection.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled[" + name + "]" + entry.connection;
+                default:
+                    break;
+            }
+            if (closed.get()) {
+                throw new SQLException("Connection has already been returned to the pool");
+            }
+            try {
+                return method.invoke(entry.connection, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
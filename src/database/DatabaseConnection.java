@@ -1,34 +1,182 @@
-
 package database;
- import java.sql.Connection;
-import java.sql.DriverManager;
+
+import metrics.DaoMetrics;
+
+import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
 
 public class DatabaseConnection {
-    private static final String URL = "jdbc:mysql://localhost:3306/studentmanagement?zeroDateTimeBehavior=CONVERT_TO_NULL";
+    // Defaults, overridable with -Ddb.url=... etc.
+    private static final String URL = "jdbc:mysql://localhost:3306/studentmanagement?zeroDateTimeBehavior=CONVERT_TO_NULL&rewriteBatchedStatements=true&useCursorFetch=true";
     private static final String USER = "root";
     private static final String PASSWORD = "Ijas6737";
-    private static Connection connection;
+    private static final String DRIVER = "com.mysql.cj.jdbc.Driver";
 
-    public static Connection getConnection() {
-        try {
-            if (connection == null || connection.isClosed()) {
-                Class.forName("com.mysql.cj.jdbc.Driver");
-                connection = DriverManager.getConnection(URL, USER, PASSWORD);
-            }
-        } catch (SQLException | ClassNotFoundException e) {
-            System.err.println("Database Connection Error: " + e.getMessage());
+    private static volatile ConnectionPool pool;
+    private static volatile ReplicaSet replicaSet;
+
+    // Borrow a pooled connection; closing it hands it back to the pool
+    public static Connection getConnection() throws SQLException {
+        long start = System.nanoTime();
+        Connection connection = getPool().borrow();
+        DaoMetrics.connectionAcquire().record(System.nanoTime() - start);
+        return connection;
+    }
+
+    // Borrow a connection for a read that may be a moment behind the primary: from a
+    // read replica (-Ddb.replicas=url1,url2) when one is healthy and nothing was
+    // written in the last db.replica.stickyMs, otherwise from the primary
+    public static Connection getReadConnection() throws SQLException {
+        long start = System.nanoTime();
+        Connection connection = getReplicaSet().borrow();
+        if (connection == null) {
+            connection = getPool().borrow();
         }
+        DaoMetrics.connectionAcquire().record(System.nanoTime() - start);
         return connection;
     }
 
+    // Run a read on getReadConnection(). If the replica it got goes away mid-query,
+    // the replica is taken out and the read runs again on the next healthy replica
+    // or the primary, so callers see a result rather than the lost connection.
+    // Each retry skips one more replica, so there are at most as many as replicas.
+    public static <T> T read(ConnectionCallback<T> work) throws SQLException {
+        ReplicaSet replicas = getReplicaSet();
+        for (int attempt = 0; ; attempt++) {
+            Connection conn = getReadConnection();
+            try (conn) {
+                return work.doInConnection(conn);
+            } catch (SQLException e) {
+                if (attempt >= replicas.size() || !replicas.reportFailure(conn, e)) {
+                    throw e;
+                }
+                System.err.println("Read replica failed mid-query, retrying: " + e.getMessage());
+            }
+        }
+    }
+
+    // Called after a committed write so the reads that follow see it
+    public static void recordWrite() {
+        getReplicaSet().recordWrite();
+    }
+
+    public static PoolMetrics getPoolMetrics() {
+        return getPool().getMetrics();
+    }
+
+    public static ConnectionPool getPool() {
+        ConnectionPool current = pool;
+        if (current == null) {
+            synchronized (DatabaseConnection.class) {
+                current = pool;
+                if (current == null) {
+                    current = createPool();
+                    pool = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    public static ReplicaSet getReplicaSet() {
+        ReplicaSet current = replicaSet;
+        if (current == null) {
+            synchronized (DatabaseConnection.class) {
+                current = replicaSet;
+                if (current == null) {
+                    current = createReplicaSet();
+                    replicaSet = current;
+                }
+            }
+        }
+        return current;
+    }
+
     public static void closeConnection() {
+        synchronized (DatabaseConnection.class) {
+            if (pool != null) {
+                pool.shutdown();
+                pool = null;
+            }
+            if (replicaSet != null) {
+                replicaSet.shutdown();
+                replicaSet = null;
+            }
+        }
+    }
+
+    private static void loadDriver() {
         try {
-            if (connection != null && !connection.isClosed()) {
-                connection.close();
+            Class.forName(System.getProperty("db.driver", DRIVER));
+        } catch (ClassNotFoundException e) {
+            System.err.println("Database Connection Error: " + e.getMessage());
+        }
+    }
+
+    private static ConnectionPool createPool() {
+        loadDriver();
+        Properties properties = new Properties();
+        properties.setProperty("user", System.getProperty("db.user", USER));
+        properties.setProperty("password", System.getProperty("db.password", PASSWORD));
+        String url = System.getProperty("db.url", URL);
+        if (url.startsWith("jdbc:mysql:") && Boolean.parseBoolean(System.getProperty("db.prepStmtCache", "true"))) {
+            addStatementCacheProperties(properties);
+        }
+
+        return new ConnectionPool(
+            "students",
+            url,
+            properties,
+            Integer.getInteger("db.pool.minSize", 2),
+            Integer.getInteger("db.pool.maxSize", 10),
+            Long.getLong("db.pool.idleTimeoutMs", 300_000L),
+            Long.getLong("db.pool.borrowTimeoutMs", 5_000L),
+            Integer.getInteger("db.pool.validationTimeoutSec", 2));
+    }
+
+    // Replicas share the primary's driver and, unless db.replica.user/password say
+    // otherwise, its credentials
+    private static ReplicaSet createReplicaSet() {
+        List<String> urls = new ArrayList<>();
+        for (String url : System.getProperty("db.replicas", "").split(",")) {
+            if (!url.trim().isEmpty()) {
+                urls.add(url.trim());
             }
-        } catch (SQLException e) {
-            System.err.println("Error closing connection: " + e.getMessage());
         }
+        if (urls.isEmpty()) {
+            return new ReplicaSet();
+        }
+        loadDriver();
+        Properties properties = new Properties();
+        properties.setProperty("user", System.getProperty("db.replica.user", System.getProperty("db.user", USER)));
+        properties.setProperty("password",
+            System.getProperty("db.replica.password", System.getProperty("db.password", PASSWORD)));
+        if (urls.get(0).startsWith("jdbc:mysql:") && Boolean.parseBoolean(System.getProperty("db.prepStmtCache", "true"))) {
+            addStatementCacheProperties(properties);
+        }
+
+        return new ReplicaSet(
+            urls,
+            properties,
+            Integer.getInteger("db.replica.pool.minSize", 0),
+            Integer.getInteger("db.replica.pool.maxSize", 10),
+            Long.getLong("db.pool.idleTimeoutMs", 300_000L),
+            Long.getLong("db.replica.borrowTimeoutMs", 1_000L),
+            Integer.getInteger("db.pool.validationTimeoutSec", 2),
+            Long.getLong("db.replica.healthCheckMs", 2_000L),
+            Long.getLong("db.replica.stickyMs", 2_000L),
+            Long.getLong("db.replica.maxLagSeconds", -1L));
+    }
+
+    // Connector/J server-side prepared statements with a per-connection cache, so
+    // a pooled connection prepares each DAO statement once and reuses it
+    public static void addStatementCacheProperties(Properties properties) {
+        properties.setProperty("useServerPrepStmts", "true");
+        properties.setProperty("cachePrepStmts", "true");
+        properties.setProperty("prepStmtCacheSize", System.getProperty("db.prepStmtCacheSize", "250"));
+        properties.setProperty("prepStmtCacheSqlLimit", "2048");
     }
 }
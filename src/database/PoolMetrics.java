@@ -0,0 +1,53 @@
+package database;
+
+// Point-in-time view of the connection pool counters
+public class PoolMetrics {
+    private final int active;
+    private final int idle;
+    private final int total;
+    private final int maxSize;
+    private final long borrowCount;
+    private final long timeoutCount;
+    private final long createdCount;
+    private final long evictedCount;
+    private final long totalWaitNanos;
+    private final long maxWaitNanos;
+
+    public PoolMetrics(int active, int idle, int total, int maxSize, long borrowCount, long timeoutCount,
+                       long createdCount, long evictedCount, long totalWaitNanos, long maxWaitNanos) {
+        this.active = active;
+        this.idle = idle;
+        this.total = total;
+        this.maxSize = maxSize;
+        this.borrowCount = borrowCount;
+        this.timeoutCount = timeoutCount;
+        this.createdCount = createdCount;
+        this.evictedCount = evictedCount;
+        this.totalWaitNanos = totalWaitNanos;
+        this.maxWaitNanos = maxWaitNanos;
+    }
+
+    public int getActive() { return active; }
+    public int getIdle() { return idle; }
+    public int getTotal() { return total; }
+    public int getMaxSize() { return maxSize; }
+    public long getBorrowCount() { return borrowCount; }
+    public long getTimeoutCount() { return timeoutCount; }
+    public long getCreatedCount() { return createdCount; }
+    public long getEvictedCount() { return evictedCount; }
+
+    public double getAverageWaitMillis() {
+        return borrowCount == 0 ? 0 : totalWaitNanos / 1_000_000.0 / borrowCount;
+    }
+
+    public double getMaxWaitMillis() {
+        return maxWaitNanos / 1_000_000.0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("active=%d idle=%d total=%d/%d borrows=%d timeouts=%d created=%d evicted=%d avgWait=%.3fms maxWait=%.3fms",
+            active, idle, total, maxSize, borrowCount, timeoutCount, createdCount, evictedCount,
+            getAverageWaitMillis(), getMaxWaitMillis());
+    }
+}
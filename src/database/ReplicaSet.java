@@ -0,0 +1,237 @@
+package database;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// Read replicas behind DatabaseConnection.getReadConnection(), each with its own
+// ConnectionPool. Reads go round-robin to the healthy ones. A replica that can't
+// hand out a connection, loses one mid-query, or fails a periodic health check
+// is skipped until a check passes again; with none healthy, reads go to the
+// primary. For a while after a write every read goes to the primary too, so a
+// client sees its own changes even if the replicas are behind.
+public class ReplicaSet {
+    private final List<Replica> replicas;
+    private final AtomicInteger next = new AtomicInteger();
+    private final long stickyNanos;
+    private final long maxLagSeconds;
+    private final int validationTimeoutSeconds;
+    private final LongAdder stickyReads = new LongAdder();
+    private final LongAdder fallbackReads = new LongAdder();
+    private final ScheduledExecutorService healthChecker;
+    private volatile long lastWriteNanos;
+
+    // Nothing configured: every read goes to the primary
+    public ReplicaSet() {
+        this.replicas = Collections.emptyList();
+        this.stickyNanos = 0;
+        this.maxLagSeconds = -1;
+        this.validationTimeoutSeconds = 0;
+        this.healthChecker = null;
+    }
+
+    public ReplicaSet(List<String> urls, Properties connectionProperties, int minSize, int maxSize,
+                      long idleTimeoutMillis, long borrowTimeoutMillis, int validationTimeoutSeconds,
+                      long healthCheckMillis, long stickyMillis, long maxLagSeconds) {
+        List<Replica> created = new ArrayList<>();
+        for (String url : urls) {
+            String name = "students-replica-" + (created.size() + 1);
+            Replica replica = new Replica(url, new ConnectionPool(name, url, connectionProperties, minSize, maxSize,
+                idleTimeoutMillis, borrowTimeoutMillis, validationTimeoutSeconds));
+            // The rest of its idle connections are likely as dead; let the next health check decide
+            replica.pool.setBrokenConnectionListener(() -> markDown(replica, "a connection broke"));
+            created.add(replica);
+        }
+        this.replicas = Collections.unmodifiableList(created);
+        this.stickyNanos = TimeUnit.MILLISECONDS.toNanos(stickyMillis);
+        this.maxLagSeconds = maxLagSeconds;
+        this.validationTimeoutSeconds = validationTimeoutSeconds;
+        this.lastWriteNanos = System.nanoTime() - stickyNanos;
+
+        healthChecker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "replica-health-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        healthChecker.scheduleWithFixedDelay(this::checkHealth, healthCheckMillis, healthCheckMillis,
+            TimeUnit.MILLISECONDS);
+    }
+
+    // A connection to a healthy replica, or null if this read should go to the primary
+    public Connection borrow() {
+        if (replicas.isEmpty()) {
+            return null;
+        }
+        if (System.nanoTime() - lastWriteNanos < stickyNanos) {
+            stickyReads.increment();
+            return null;
+        }
+        int first = Math.floorMod(next.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((first + i) % replicas.size());
+            if (!replica.healthy) {
+                continue;
+            }
+            try {
+                Connection connection = replica.pool.borrow();
+                replica.reads.increment();
+                return connection;
+            } catch (SQLTimeoutException e) {
+                // Busy, not broken: try the next one
+            } catch (SQLException e) {
+                markDown(replica, e.getMessage());
+            }
+        }
+        fallbackReads.increment();
+        return null;
+    }
+
+    // A query on connection failed with e. If the connection came from a replica and
+    // e says the link to the server failed (SQLSTATE class 08), take that replica out
+    // and return true: the query is worth running again elsewhere.
+    public boolean reportFailure(Connection connection, SQLException e) {
+        if (e.getSQLState() == null || !e.getSQLState().startsWith("08")) {
+            return false;
+        }
+        for (Replica replica : replicas) {
+            if (replica.pool.owns(connection)) {
+                markDown(replica, e.getMessage());
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Called after every committed write. Process-wide rather than per thread: the
+    // async service writes and reads back on different worker threads.
+    public void recordWrite() {
+        lastWriteNanos = System.nanoTime();
+    }
+
+    public boolean isEmpty() {
+        return replicas.isEmpty();
+    }
+
+    public int size() {
+        return replicas.size();
+    }
+
+    public List<Status> getStatus() {
+        List<Status> status = new ArrayList<>(replicas.size());
+        for (Replica replica : replicas) {
+            status.add(new Status(replica.pool.getName(), replica.url, replica.healthy, replica.reads.sum(),
+                replica.pool.getMetrics()));
+        }
+        return status;
+    }
+
+    // Reads sent to the primary because of a recent write
+    public long getStickyReads() {
+        return stickyReads.sum();
+    }
+
+    // Reads sent to the primary because no replica could serve them
+    public long getFallbackReads() {
+        return fallbackReads.sum();
+    }
+
+    public void shutdown() {
+        if (healthChecker != null) {
+            healthChecker.shutdownNow();
+        }
+        for (Replica replica : replicas) {
+            replica.pool.shutdown();
+        }
+    }
+
+    private void checkHealth() {
+        for (Replica replica : replicas) {
+            try (Connection conn = replica.pool.borrow()) {
+                if (!conn.isValid(validationTimeoutSeconds)) {
+                    markDown(replica, "connection is not valid");
+                } else if (maxLagSeconds >= 0 && replicationLag(conn) > maxLagSeconds) {
+                    markDown(replica, "more than " + maxLagSeconds + "s behind the primary");
+                } else {
+                    markUp(replica);
+                }
+            } catch (SQLTimeoutException e) {
+                // Every connection busy: it is answering, leave it as it is
+            } catch (SQLException | RuntimeException e) {
+                markDown(replica, e.getMessage());
+            }
+        }
+    }
+
+    // Seconds_Behind_Source from SHOW REPLICA STATUS (MySQL 8.0.22+); unknown while
+    // replication is stopped. A server that isn't replicating counts as current.
+    private static long replicationLag(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SHOW REPLICA STATUS")) {
+            if (!rs.next()) {
+                return 0;
+            }
+            long lag = rs.getLong("Seconds_Behind_Source");
+            return rs.wasNull() ? Long.MAX_VALUE : lag;
+        }
+    }
+
+    private static void markDown(Replica replica, String reason) {
+        if (replica.healthy) {
+            replica.healthy = false;
+            System.err.println("Read replica " + replica.pool.getName() + " taken out of rotation: " + reason);
+        }
+    }
+
+    private static void markUp(Replica replica) {
+        if (!replica.healthy) {
+            replica.healthy = true;
+            System.err.println("Read replica " + replica.pool.getName() + " back in rotation");
+        }
+    }
+
+    private static final class Replica {
+        private final String url;
+        private final ConnectionPool pool;
+        private final LongAdder reads = new LongAdder();
+        private volatile boolean healthy = true;
+
+        private Replica(String url, ConnectionPool pool) {
+            this.url = url;
+            this.pool = pool;
+        }
+    }
+
+    // One replica as the diagnostics see it
+    public static final class Status {
+        private final String name;
+        private final String url;
+        private final boolean healthy;
+        private final long reads;
+        private final PoolMetrics pool;
+
+        private Status(String name, String url, boolean healthy, long reads, PoolMetrics pool) {
+            this.name = name;
+            this.url = url;
+            this.healthy = healthy;
+            this.reads = reads;
+            this.pool = pool;
+        }
+
+        public String getName() { return name; }
+        public String getUrl() { return url; }
+        public boolean isHealthy() { return healthy; }
+        public long getReads() { return reads; }
+        public PoolMetrics getPool() { return pool; }
+    }
+}
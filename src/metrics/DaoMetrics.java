@@ -0,0 +1,28 @@
+package metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+// Process-wide registry of data access metrics
+public final class DaoMetrics {
+    private static final ConcurrentSkipListMap<String, OperationMetrics> operations = new ConcurrentSkipListMap<>();
+    private static final LatencyHistogram connectionAcquire = new LatencyHistogram();
+
+    private DaoMetrics() {
+    }
+
+    // Metrics for a named operation, created on first use
+    public static OperationMetrics operation(String name) {
+        return operations.computeIfAbsent(name, OperationMetrics::new);
+    }
+
+    public static List<OperationMetrics> operations() {
+        return new ArrayList<>(operations.values());
+    }
+
+    // Time spent borrowing a connection from the pool
+    public static LatencyHistogram connectionAcquire() {
+        return connectionAcquire;
+    }
+}
@@ -0,0 +1,92 @@
+package metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Lock-free log-linear histogram of nanosecond durations, in the spirit of
+// HdrHistogram: each power of two is split into 16 linear sub-buckets, giving
+// about 6% relative precision over the whole long range with a fixed 960-slot
+// array. Recording never allocates.
+public class LatencyHistogram {
+    private static final int SUB_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int BUCKETS = (64 - SUB_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(bucketIndex(value));
+        count.increment();
+        sum.add(value);
+        long current;
+        while (value > (current = max.get()) && !max.compareAndSet(current, value)) {
+            // retry until the larger value sticks
+        }
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getSumNanos() {
+        return sum.sum();
+    }
+
+    public long getMaxNanos() {
+        return max.get();
+    }
+
+    public double getMeanNanos() {
+        long n = count.sum();
+        return n == 0 ? 0 : (double) sum.sum() / n;
+    }
+
+    // Upper bound of the bucket holding the given percentile (0-100), or 0 when empty
+    public long getPercentileNanos(double percentile) {
+        long total = 0;
+        long[] snapshot = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(total * percentile / 100.0));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= target) {
+                return Math.min(bucketUpperBound(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    static int bucketIndex(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    static long bucketLowerBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int exponent = index / SUB_BUCKETS + SUB_BITS - 1;
+        int sub = index % SUB_BUCKETS;
+        return (1L << exponent) | ((long) sub << (exponent - SUB_BITS));
+    }
+
+    static long bucketUpperBound(int index) {
+        return index + 1 < BUCKETS ? bucketLowerBound(index + 1) - 1 : Long.MAX_VALUE;
+    }
+}
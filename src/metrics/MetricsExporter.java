@@ -0,0 +1,121 @@
+package metrics;
+
+import database.PoolMetrics;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+
+// Renders DaoMetrics as JSON or Prometheus text exposition format
+public final class MetricsExporter {
+    private static final double[] QUANTILES = {0.5, 0.9, 0.95, 0.99, 0.999};
+
+    private MetricsExporter() {
+    }
+
+    public static String toJson(PoolMetrics pool) {
+        StringBuilder json = new StringBuilder(1024);
+        json.append("{\n  \"timestamp\": ").append(System.currentTimeMillis()).append(",\n");
+        json.append("  \"operations\": [");
+        boolean first = true;
+        for (OperationMetrics op : DaoMetrics.operations()) {
+            json.append(first ? "\n" : ",\n");
+            first = false;
+            LatencyHistogram latency = op.getLatency();
+            json.append("    {\"name\": \"").append(op.getName()).append('"')
+                .append(", \"calls\": ").append(op.getCalls())
+                .append(", \"errors\": ").append(op.getErrors())
+                .append(", \"rows\": ").append(op.getRows())
+                .append(", \"latencyMs\": ");
+            appendLatencyJson(json, latency);
+            json.append('}');
+        }
+        json.append("\n  ],\n  \"connectionAcquireMs\": ");
+        appendLatencyJson(json, DaoMetrics.connectionAcquire());
+        if (pool != null) {
+            json.append(",\n  \"pool\": {")
+                .append("\"active\": ").append(pool.getActive())
+                .append(", \"idle\": ").append(pool.getIdle())
+                .append(", \"total\": ").append(pool.getTotal())
+                .append(", \"maxSize\": ").append(pool.getMaxSize())
+                .append(", \"timeouts\": ").append(pool.getTimeoutCount())
+                .append('}');
+        }
+        json.append("\n}\n");
+        return json.toString();
+    }
+
+    public static String toPrometheus(PoolMetrics pool) {
+        StringBuilder text = new StringBuilder(2048);
+        text.append("# HELP student_dao_operation_seconds Latency of StudentDAO operations.\n");
+        text.append("# TYPE student_dao_operation_seconds summary\n");
+        for (OperationMetrics op : DaoMetrics.operations()) {
+            appendSummary(text, "student_dao_operation_seconds", "operation=\"" + op.getName() + "\"", op.getLatency());
+        }
+        text.append("# HELP student_dao_operation_errors_total Failed StudentDAO operations.\n");
+        text.append("# TYPE student_dao_operation_errors_total counter\n");
+        for (OperationMetrics op : DaoMetrics.operations()) {
+            text.append("student_dao_operation_errors_total{operation=\"").append(op.getName()).append("\"} ")
+                .append(op.getErrors()).append('\n');
+        }
+        text.append("# HELP student_dao_rows_total Rows returned or written by StudentDAO operations.\n");
+        text.append("# TYPE student_dao_rows_total counter\n");
+        for (OperationMetrics op : DaoMetrics.operations()) {
+            text.append("student_dao_rows_total{operation=\"").append(op.getName()).append("\"} ")
+                .append(op.getRows()).append('\n');
+        }
+        text.append("# HELP student_db_connection_acquire_seconds Time spent borrowing a pooled connection.\n");
+        text.append("# TYPE student_db_connection_acquire_seconds summary\n");
+        appendSummary(text, "student_db_connection_acquire_seconds", null, DaoMetrics.connectionAcquire());
+        if (pool != null) {
+            appendGauge(text, "student_db_pool_active_connections", "Connections currently borrowed.", pool.getActive());
+            appendGauge(text, "student_db_pool_idle_connections", "Connections waiting in the pool.", pool.getIdle());
+            appendGauge(text, "student_db_pool_max_connections", "Configured pool maximum.", pool.getMaxSize());
+            text.append("# HELP student_db_pool_timeouts_total Borrows that timed out.\n");
+            text.append("# TYPE student_db_pool_timeouts_total counter\n");
+            text.append("student_db_pool_timeouts_total ").append(pool.getTimeoutCount()).append('\n');
+        }
+        return text.toString();
+    }
+
+    public static void writeTo(Path file, String content) throws IOException {
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void appendLatencyJson(StringBuilder json, LatencyHistogram latency) {
+        json.append("{\"count\": ").append(latency.getCount())
+            .append(", \"mean\": ").append(millis(latency.getMeanNanos()))
+            .append(", \"p50\": ").append(millis(latency.getPercentileNanos(50)))
+            .append(", \"p95\": ").append(millis(latency.getPercentileNanos(95)))
+            .append(", \"p99\": ").append(millis(latency.getPercentileNanos(99)))
+            .append(", \"max\": ").append(millis(latency.getMaxNanos()))
+            .append('}');
+    }
+
+    private static void appendSummary(StringBuilder text, String metric, String labels, LatencyHistogram latency) {
+        String prefix = labels == null ? "" : labels + ",";
+        for (double quantile : QUANTILES) {
+            text.append(metric).append('{').append(prefix).append("quantile=\"").append(quantile).append("\"} ")
+                .append(seconds(latency.getPercentileNanos(quantile * 100))).append('\n');
+        }
+        String suffix = labels == null ? "" : "{" + labels + "}";
+        text.append(metric).append("_sum").append(suffix).append(' ').append(seconds(latency.getSumNanos())).append('\n');
+        text.append(metric).append("_count").append(suffix).append(' ').append(latency.getCount()).append('\n');
+    }
+
+    private static void appendGauge(StringBuilder text, String metric, String help, long value) {
+        text.append("# HELP ").append(metric).append(' ').append(help).append('\n');
+        text.append("# TYPE ").append(metric).append(" gauge\n");
+        text.append(metric).append(' ').append(value).append('\n');
+    }
+
+    private static String millis(double nanos) {
+        return String.format(Locale.ROOT, "%.3f", nanos / 1_000_000.0);
+    }
+
+    private static String seconds(double nanos) {
+        return String.format(Locale.ROOT, "%.9f", nanos / 1_000_000_000.0);
+    }
+}
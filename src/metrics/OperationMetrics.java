@@ -0,0 +1,33 @@
+package metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// Counters and latency distribution for one named DAO operation
+public class OperationMetrics {
+    private final String name;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder rows = new LongAdder();
+
+    OperationMetrics(String name) {
+        this.name = name;
+    }
+
+    // Record a successful call that started at startNanos (System.nanoTime()) and touched rowCount rows
+    public void record(long startNanos, long rowCount) {
+        latency.record(System.nanoTime() - startNanos);
+        rows.add(rowCount);
+    }
+
+    // Record a failed call; it still counts towards latency
+    public void recordError(long startNanos) {
+        latency.record(System.nanoTime() - startNanos);
+        errors.increment();
+    }
+
+    public String getName() { return name; }
+    public long getCalls() { return latency.getCount(); }
+    public long getErrors() { return errors.sum(); }
+    public long getRows() { return rows.sum(); }
+    public LatencyHistogram getLatency() { return latency; }
+}
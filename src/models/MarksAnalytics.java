@@ -0,0 +1,127 @@
+package models;
+
+import java.util.Collections;
+import java.util.List;
+
+// Immutable marks distribution for the roster: moments, percentiles, a fixed
+// 0-100 histogram, departments ranked by average and the top students
+public final class MarksAnalytics {
+    // Percentiles reported for the roster and for each department, in this order
+    public static final double[] PERCENTILES = {25, 50, 75, 90, 99};
+    public static final int HISTOGRAM_BINS = 10;
+    public static final double HISTOGRAM_WIDTH = 10;
+
+    public static final MarksAnalytics EMPTY = new MarksAnalytics(0, 0, 0, 0, 0, new double[PERCENTILES.length],
+        new long[HISTOGRAM_BINS], 0, 0, Collections.emptyList(), Collections.emptyList());
+
+    private final int totalStudents;
+    private final double averageMarks;
+    private final double standardDeviation;
+    private final double highestMarks;
+    private final double lowestMarks;
+    private final double[] percentiles;
+    private final long[] histogram;
+    private final long belowHistogram;
+    private final long aboveHistogram;
+    private final List<DepartmentAnalytics> departments;
+    private final List<Student> topStudents;
+
+    public MarksAnalytics(int totalStudents, double averageMarks, double standardDeviation, double highestMarks,
+                          double lowestMarks, double[] percentiles, long[] histogram, long belowHistogram,
+                          long aboveHistogram, List<DepartmentAnalytics> departments, List<Student> topStudents) {
+        this.totalStudents = totalStudents;
+        this.averageMarks = averageMarks;
+        this.standardDeviation = standardDeviation;
+        this.highestMarks = highestMarks;
+        this.lowestMarks = lowestMarks;
+        this.percentiles = percentiles.clone();
+        this.histogram = histogram.clone();
+        this.belowHistogram = belowHistogram;
+        this.aboveHistogram = aboveHistogram;
+        this.departments = Collections.unmodifiableList(departments);
+        this.topStudents = Collections.unmodifiableList(topStudents);
+    }
+
+    public int getTotalStudents() { return totalStudents; }
+    public double getAverageMarks() { return averageMarks; }
+    public double getStandardDeviation() { return standardDeviation; }
+    public double getHighestMarks() { return highestMarks; }
+    public double getLowestMarks() { return lowestMarks; }
+    public double getMedian() { return getPercentile(50); }
+
+    // One of PERCENTILES
+    public double getPercentile(double percentile) {
+        return percentiles[indexOfPercentile(percentile)];
+    }
+
+    // Students per 10-mark band, [0, 10) ... [90, 100]
+    public long[] getHistogram() { return histogram.clone(); }
+    public long getBelowHistogram() { return belowHistogram; }
+    public long getAboveHistogram() { return aboveHistogram; }
+
+    // Ranked by average marks, best first
+    public List<DepartmentAnalytics> getDepartments() { return departments; }
+    public List<Student> getTopStudents() { return topStudents; }
+
+    // Histogram band for a mark: -1 below 0, HISTOGRAM_BINS above 100. The top band is
+    // closed so a full score lands in it.
+    public static int histogramBin(double marks) {
+        if (marks < 0) {
+            return -1;
+        }
+        if (marks > HISTOGRAM_BINS * HISTOGRAM_WIDTH) {
+            return HISTOGRAM_BINS;
+        }
+        return Math.min((int) (marks / HISTOGRAM_WIDTH), HISTOGRAM_BINS - 1);
+    }
+
+    private static int indexOfPercentile(double percentile) {
+        for (int i = 0; i < PERCENTILES.length; i++) {
+            if (PERCENTILES[i] == percentile) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Percentile not computed: " + percentile);
+    }
+
+    public static final class DepartmentAnalytics {
+        private final String department;
+        private final int rank;
+        private final int totalStudents;
+        private final int marksCount;
+        private final double averageMarks;
+        private final double standardDeviation;
+        private final double highestMarks;
+        private final double lowestMarks;
+        private final double[] percentiles;
+        private final List<Student> topStudents;
+
+        public DepartmentAnalytics(String department, int rank, int totalStudents, int marksCount, double averageMarks,
+                                   double standardDeviation, double highestMarks, double lowestMarks,
+                                   double[] percentiles, List<Student> topStudents) {
+            this.department = department;
+            this.rank = rank;
+            this.totalStudents = totalStudents;
+            this.marksCount = marksCount;
+            this.averageMarks = averageMarks;
+            this.standardDeviation = standardDeviation;
+            this.highestMarks = highestMarks;
+            this.lowestMarks = lowestMarks;
+            this.percentiles = percentiles.clone();
+            this.topStudents = Collections.unmodifiableList(topStudents);
+        }
+
+        public String getDepartment() { return department; }
+        public int getRank() { return rank; }
+        public int getTotalStudents() { return totalStudents; }
+        // Students with a mark; the figures below are over these only
+        public int getMarksCount() { return marksCount; }
+        public double getAverageMarks() { return averageMarks; }
+        public double getStandardDeviation() { return standardDeviation; }
+        public double getHighestMarks() { return highestMarks; }
+        public double getLowestMarks() { return lowestMarks; }
+        public double getMedian() { return getPercentile(50); }
+        public double getPercentile(double percentile) { return percentiles[indexOfPercentile(percentile)]; }
+        public List<Student> getTopStudents() { return topStudents; }
+    }
+}
@@ -0,0 +1,54 @@
+package models;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Immutable marks statistics for the whole roster plus a per-department breakdown
+public final class StatisticsSnapshot {
+    public static final StatisticsSnapshot EMPTY = new StatisticsSnapshot(0, 0, 0, 0, Collections.emptyMap());
+
+    private final int totalStudents;
+    private final double highestMarks;
+    private final double lowestMarks;
+    private final double averageMarks;
+    private final Map<String, DepartmentStatistics> departments;
+
+    public StatisticsSnapshot(int totalStudents, double highestMarks, double lowestMarks, double averageMarks,
+                              Map<String, DepartmentStatistics> departments) {
+        this.totalStudents = totalStudents;
+        this.highestMarks = highestMarks;
+        this.lowestMarks = lowestMarks;
+        this.averageMarks = averageMarks;
+        this.departments = Collections.unmodifiableMap(new LinkedHashMap<>(departments));
+    }
+
+    public int getTotalStudents() { return totalStudents; }
+    public double getHighestMarks() { return highestMarks; }
+    public double getLowestMarks() { return lowestMarks; }
+    public double getAverageMarks() { return averageMarks; }
+    public Map<String, DepartmentStatistics> getDepartments() { return departments; }
+
+    public static final class DepartmentStatistics {
+        private final String department;
+        private final int totalStudents;
+        private final double highestMarks;
+        private final double lowestMarks;
+        private final double averageMarks;
+
+        public DepartmentStatistics(String department, int totalStudents, double highestMarks,
+                                    double lowestMarks, double averageMarks) {
+            this.department = department;
+            this.totalStudents = totalStudents;
+            this.highestMarks = highestMarks;
+            this.lowestMarks = lowestMarks;
+            this.averageMarks = averageMarks;
+        }
+
+        public String getDepartment() { return department; }
+        public int getTotalStudents() { return totalStudents; }
+        public double getHighestMarks() { return highestMarks; }
+        public double getLowestMarks() { return lowestMarks; }
+        public double getAverageMarks() { return averageMarks; }
+    }
+}
@@ -1,13 +1,33 @@
 package models;
 
+import java.util.Objects;
+
 public class Student {
+    // The columns an update can write, in table order
+    public enum Field {
+        NAME,
+        ROLL_NO,
+        DEPARTMENT,
+        EMAIL,
+        PHONE,
+        MARKS
+    }
+
+    private static final int ALL_FIELDS = (1 << Field.values().length) - 1;
+
     private int id;
     private String name;
     private String rollNo;
     private String department;
     private String email;
     private String phone;
+    // NaN while the marks column is NULL
     private double marks;
+    // Bumped by every update; an update only applies if the row still has this version
+    private int version;
+    // Fields changed since the row was loaded or last saved, one bit per Field. A
+    // student built from values has nothing saved yet, so everything starts dirty.
+    private int dirtyFields = ALL_FIELDS;
 
     // Constructor
     public Student(String name, String rollNo, String department, String email, String phone, double marks) {
@@ -29,25 +49,82 @@ public class Student {
         this.marks = marks;
     }
 
-    // Getters and Setters
+    public Student(int id, String name, String rollNo, String department, String email, String phone, double marks,
+                   int version) {
+        this(id, name, rollNo, department, email, phone, marks);
+        this.version = version;
+    }
+
+    // Copy, including the version and which fields are dirty
+    public Student(Student other) {
+        this(other.id, other.name, other.rollNo, other.department, other.email, other.phone, other.marks,
+            other.version);
+        this.dirtyFields = other.dirtyFields;
+    }
+
+    // Getters and Setters; setting a field to a different value marks it dirty
     public int getId() { return id; }
     public void setId(int id) { this.id = id; }
 
     public String getName() { return name; }
-    public void setName(String name) { this.name = name; }
+    public void setName(String name) {
+        if (!Objects.equals(this.name, name)) {
+            this.name = name;
+            markDirty(Field.NAME);
+        }
+    }
 
     public String getRollNo() { return rollNo; }
-    public void setRollNo(String rollNo) { this.rollNo = rollNo; }
+    public void setRollNo(String rollNo) {
+        if (!Objects.equals(this.rollNo, rollNo)) {
+            this.rollNo = rollNo;
+            markDirty(Field.ROLL_NO);
+        }
+    }
 
     public String getDepartment() { return department; }
-    public void setDepartment(String department) { this.department = department; }
+    public void setDepartment(String department) {
+        if (!Objects.equals(this.department, department)) {
+            this.department = department;
+            markDirty(Field.DEPARTMENT);
+        }
+    }
 
     public String getEmail() { return email; }
-    public void setEmail(String email) { this.email = email; }
+    public void setEmail(String email) {
+        if (!Objects.equals(this.email, email)) {
+            this.email = email;
+            markDirty(Field.EMAIL);
+        }
+    }
 
     public String getPhone() { return phone; }
-    public void setPhone(String phone) { this.phone = phone; }
+    public void setPhone(String phone) {
+        if (!Objects.equals(this.phone, phone)) {
+            this.phone = phone;
+            markDirty(Field.PHONE);
+        }
+    }
+
+    // 0 for a NULL mark, as ResultSet.getDouble reads it; hasMarks tells the two apart
+    public double getMarks() { return hasMarks() ? marks : 0; }
+    public boolean hasMarks() { return !Double.isNaN(marks); }
+    public void setMarks(double marks) {
+        if (Double.compare(this.marks, marks) != 0) {
+            this.marks = marks;
+            markDirty(Field.MARKS);
+        }
+    }
+
+    public int getVersion() { return version; }
+    public void setVersion(int version) { this.version = version; }
+
+    // Dirty tracking, so an update can write only the columns that changed
+    public boolean isDirty() { return dirtyFields != 0; }
+    public boolean isDirty(Field field) { return (dirtyFields & (1 << field.ordinal())) != 0; }
+    public void markDirty(Field field) { dirtyFields |= 1 << field.ordinal(); }
+    public void markAllDirty() { dirtyFields = ALL_FIELDS; }
 
-    public double getMarks() { return marks; }
-    public void setMarks(double marks) { this.marks = marks; }
+    // Called once the student matches what is stored
+    public void markClean() { dirtyFields = 0; }
 }
@@ -0,0 +1,266 @@
+package server;
+
+import models.StatisticsSnapshot;
+import models.Student;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// The JSON the server speaks: students, statistics and errors out, one flat
+// student object in. Field names match the Java properties (rollNo, not roll_no).
+final class Json {
+    private Json() {
+    }
+
+    static void appendStudent(StringBuilder json, Student student) {
+        json.append("{\"id\":").append(student.getId())
+            .append(",\"name\":");
+        appendString(json, student.getName());
+        json.append(",\"rollNo\":");
+        appendString(json, student.getRollNo());
+        json.append(",\"department\":");
+        appendString(json, student.getDepartment());
+        json.append(",\"email\":");
+        appendString(json, student.getEmail());
+        json.append(",\"phone\":");
+        appendString(json, student.getPhone());
+        json.append(",\"marks\":");
+        appendNumber(json, student.getMarks());
+        json.append(",\"version\":").append(student.getVersion());
+        json.append('}');
+    }
+
+    static String students(List<Student> students) {
+        StringBuilder json = new StringBuilder(64 + students.size() * 160);
+        json.append('[');
+        for (int i = 0; i < students.size(); i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            appendStudent(json, students.get(i));
+        }
+        return json.append(']').toString();
+    }
+
+    static String student(Student student) {
+        StringBuilder json = new StringBuilder(192);
+        appendStudent(json, student);
+        return json.toString();
+    }
+
+    static String statistics(StatisticsSnapshot snapshot) {
+        StringBuilder json = new StringBuilder(256);
+        json.append("{\"totalStudents\":").append(snapshot.getTotalStudents())
+            .append(",\"highestMarks\":");
+        appendNumber(json, snapshot.getHighestMarks());
+        json.append(",\"lowestMarks\":");
+        appendNumber(json, snapshot.getLowestMarks());
+        json.append(",\"averageMarks\":");
+        appendNumber(json, snapshot.getAverageMarks());
+        json.append(",\"departments\":[");
+        boolean first = true;
+        for (StatisticsSnapshot.DepartmentStatistics department : snapshot.getDepartments().values()) {
+            json.append(first ? "" : ",");
+            first = false;
+            json.append("{\"department\":");
+            appendString(json, department.getDepartment());
+            json.append(",\"totalStudents\":").append(department.getTotalStudents())
+                .append(",\"highestMarks\":");
+            appendNumber(json, department.getHighestMarks());
+            json.append(",\"lowestMarks\":");
+            appendNumber(json, department.getLowestMarks());
+            json.append(",\"averageMarks\":");
+            appendNumber(json, department.getAverageMarks());
+            json.append('}');
+        }
+        return json.append("]}").toString();
+    }
+
+    static String error(String message) {
+        StringBuilder json = new StringBuilder(32 + message.length());
+        json.append("{\"error\":");
+        appendString(json, message);
+        return json.append('}').toString();
+    }
+
+    static void appendString(StringBuilder json, String value) {
+        if (value == null) {
+            json.append("null");
+            return;
+        }
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': json.append("\\\""); break;
+                case '\\': json.append("\\\\"); break;
+                case '\n': json.append("\\n"); break;
+                case '\r': json.append("\\r"); break;
+                case '\t': json.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+            }
+        }
+        json.append('"');
+    }
+
+    // JSON has no NaN or infinities
+    static void appendNumber(StringBuilder json, double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            json.append("null");
+        } else if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            json.append((long) value);
+        } else {
+            json.append(value);
+        }
+    }
+
+    // Parse one flat object whose values are strings, numbers, booleans or null.
+    // Numbers come back as Double. Throws IllegalArgumentException on anything else.
+    static Map<String, Object> parseObject(String text) {
+        Parser parser = new Parser(text);
+        Map<String, Object> object = parser.object();
+        parser.skipWhitespace();
+        if (parser.pos != text.length()) {
+            throw parser.error("trailing characters");
+        }
+        return object;
+    }
+
+    private static final class Parser {
+        private final String text;
+        private int pos;
+
+        private Parser(String text) {
+            this.text = text;
+        }
+
+        private Map<String, Object> object() {
+            Map<String, Object> object = new LinkedHashMap<>();
+            expect('{');
+            skipWhitespace();
+            if (peek() == '}') {
+                pos++;
+                return object;
+            }
+            while (true) {
+                skipWhitespace();
+                String key = string();
+                skipWhitespace();
+                expect(':');
+                skipWhitespace();
+                object.put(key, value());
+                skipWhitespace();
+                char c = next();
+                if (c == '}') {
+                    return object;
+                }
+                if (c != ',') {
+                    throw error("expected ',' or '}'");
+                }
+            }
+        }
+
+        private Object value() {
+            char c = peek();
+            if (c == '"') {
+                return string();
+            }
+            if (text.startsWith("null", pos)) {
+                pos += 4;
+                return null;
+            }
+            if (text.startsWith("true", pos)) {
+                pos += 4;
+                return Boolean.TRUE;
+            }
+            if (text.startsWith("false", pos)) {
+                pos += 5;
+                return Boolean.FALSE;
+            }
+            if (c == '-' || (c >= '0' && c <= '9')) {
+                int start = pos;
+                while (pos < text.length() && "+-0123456789.eE".indexOf(text.charAt(pos)) >= 0) {
+                    pos++;
+                }
+                try {
+                    return Double.valueOf(text.substring(start, pos));
+                } catch (NumberFormatException e) {
+                    throw error("bad number");
+                }
+            }
+            throw error("unsupported value");
+        }
+
+        private String string() {
+            expect('"');
+            StringBuilder value = new StringBuilder();
+            while (true) {
+                char c = next();
+                if (c == '"') {
+                    return value.toString();
+                }
+                if (c != '\\') {
+                    value.append(c);
+                    continue;
+                }
+                char escaped = next();
+                switch (escaped) {
+                    case '"': case '\\': case '/': value.append(escaped); break;
+                    case 'b': value.append('\b'); break;
+                    case 'f': value.append('\f'); break;
+                    case 'n': value.append('\n'); break;
+                    case 'r': value.append('\r'); break;
+                    case 't': value.append('\t'); break;
+                    case 'u':
+                        if (pos + 4 > text.length()) {
+                            throw error("bad escape");
+                        }
+                        try {
+                            value.append((char) Integer.parseInt(text.substring(pos, pos + 4), 16));
+                        } catch (NumberFormatException e) {
+                            throw error("bad escape");
+                        }
+                        pos += 4;
+                        break;
+                    default:
+                        throw error("bad escape");
+                }
+            }
+        }
+
+        private void skipWhitespace() {
+            while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+                pos++;
+            }
+        }
+
+        private char peek() {
+            if (pos >= text.length()) {
+                throw error("unexpected end");
+            }
+            return text.charAt(pos);
+        }
+
+        private char next() {
+            char c = peek();
+            pos++;
+            return c;
+        }
+
+        private void expect(char c) {
+            if (next() != c) {
+                throw error("expected '" + c + "'");
+            }
+        }
+
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException("Invalid JSON at " + pos + ": " + message);
+        }
+    }
+}
@@ -0,0 +1,313 @@
+package server;
+
+import models.Student;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+// Writes students as JSON straight into a reusable byte buffer, drained to an
+// OutputStream as it fills. Rows can come from a JDBC cursor (any query selecting
+// StudentDAO's columns) without building a Student, and strings are escaped and
+// UTF-8 encoded char by char, so the writer itself allocates nothing per row; only
+// what the driver hands back (the column Strings) is left. Output matches Json's:
+// same field names and order, and the same number formatting.
+//
+// Not thread-safe. reset() points the writer, and its buffer, at a new stream.
+public final class StudentJsonWriter implements Flushable {
+    private static final byte[] ID = ascii("{\"id\":");
+    private static final byte[] NAME = ascii(",\"name\":");
+    private static final byte[] ROLL_NO = ascii(",\"rollNo\":");
+    private static final byte[] DEPARTMENT = ascii(",\"department\":");
+    private static final byte[] EMAIL = ascii(",\"email\":");
+    private static final byte[] PHONE = ascii(",\"phone\":");
+    private static final byte[] MARKS = ascii(",\"marks\":");
+    private static final byte[] VERSION = ascii(",\"version\":");
+    private static final byte[] NULL = ascii("null");
+    private static final byte[] HEX = ascii("0123456789abcdef");
+    private static final long[] POWERS_OF_TEN = {1, 10, 100, 1_000, 10_000};
+
+    private final byte[] buffer;
+    private OutputStream out;
+    private int position;
+    private boolean firstElement = true;
+
+    // Column indexes, resolved once per ResultSet like StudentRowMapper
+    private ResultSet resolvedFor;
+    private int idColumn;
+    private int nameColumn;
+    private int rollNoColumn;
+    private int departmentColumn;
+    private int emailColumn;
+    private int phoneColumn;
+    private int marksColumn;
+    private int versionColumn;
+
+    public StudentJsonWriter(OutputStream out) {
+        this(out, 16 * 1024);
+    }
+
+    public StudentJsonWriter(OutputStream out, int bufferSize) {
+        this.out = out;
+        this.buffer = new byte[Math.max(64, bufferSize)];
+    }
+
+    // Reuse this writer and its buffer for another stream; anything unflushed is dropped
+    public void reset(OutputStream out) {
+        this.out = out;
+        this.position = 0;
+        this.firstElement = true;
+        this.resolvedFor = null;
+    }
+
+    public void beginArray() throws IOException {
+        writeByte('[');
+        firstElement = true;
+    }
+
+    public void endArray() throws IOException {
+        writeByte(']');
+    }
+
+    // Write the cursor's current row as the next array element
+    public void writeRow(ResultSet rs) throws SQLException, IOException {
+        if (rs != resolvedFor) {
+            resolve(rs);
+        }
+        separator();
+        write(ID);
+        writeInt(rs.getInt(idColumn));
+        write(NAME);
+        writeString(rs.getString(nameColumn));
+        write(ROLL_NO);
+        writeString(rs.getString(rollNoColumn));
+        write(DEPARTMENT);
+        writeString(rs.getString(departmentColumn));
+        write(EMAIL);
+        writeString(rs.getString(emailColumn));
+        write(PHONE);
+        writeString(rs.getString(phoneColumn));
+        write(MARKS);
+        writeDouble(rs.getDouble(marksColumn));
+        write(VERSION);
+        writeInt(rs.getInt(versionColumn));
+        writeByte('}');
+    }
+
+    // Write every remaining row of the cursor as one array; returns the row count
+    public int writeRows(ResultSet rs) throws SQLException, IOException {
+        int rows = 0;
+        beginArray();
+        while (rs.next()) {
+            writeRow(rs);
+            rows++;
+        }
+        endArray();
+        return rows;
+    }
+
+    // For students already in memory
+    public void writeStudent(Student student) throws IOException {
+        separator();
+        write(ID);
+        writeInt(student.getId());
+        write(NAME);
+        writeString(student.getName());
+        write(ROLL_NO);
+        writeString(student.getRollNo());
+        write(DEPARTMENT);
+        writeString(student.getDepartment());
+        write(EMAIL);
+        writeString(student.getEmail());
+        write(PHONE);
+        writeString(student.getPhone());
+        write(MARKS);
+        writeDouble(student.getMarks());
+        write(VERSION);
+        writeInt(student.getVersion());
+        writeByte('}');
+    }
+
+    // Pass the buffered bytes on and flush the stream
+    @Override
+    public void flush() throws IOException {
+        drain();
+        out.flush();
+    }
+
+    private void resolve(ResultSet rs) throws SQLException {
+        idColumn = rs.findColumn("id");
+        nameColumn = rs.findColumn("name");
+        rollNoColumn = rs.findColumn("roll_no");
+        departmentColumn = rs.findColumn("department");
+        emailColumn = rs.findColumn("email");
+        phoneColumn = rs.findColumn("phone");
+        marksColumn = rs.findColumn("marks");
+        versionColumn = rs.findColumn("version");
+        resolvedFor = rs;
+    }
+
+    private void separator() throws IOException {
+        if (!firstElement) {
+            writeByte(',');
+        }
+        firstElement = false;
+    }
+
+    private void writeString(String value) throws IOException {
+        if (value == null) {
+            write(NULL);
+            return;
+        }
+        writeByte('"');
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            // Room for the longest form, a \\u escape
+            if (position + 6 > buffer.length) {
+                drain();
+            }
+            if (c >= 0x20 && c < 0x80) {
+                if (c == '"' || c == '\\') {
+                    buffer[position++] = '\\';
+                }
+                buffer[position++] = (byte) c;
+            } else if (c < 0x20) {
+                writeControl(c);
+            } else if (c < 0x800) {
+                buffer[position++] = (byte) (0xC0 | (c >> 6));
+                buffer[position++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                buffer[position++] = (byte) (0xF0 | (codePoint >> 18));
+                buffer[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                buffer[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                buffer[position++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                // Unpaired surrogate, replaced as String.getBytes does
+                buffer[position++] = '?';
+            } else {
+                buffer[position++] = (byte) (0xE0 | (c >> 12));
+                buffer[position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                buffer[position++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        writeByte('"');
+    }
+
+    // Caller has made room for six bytes
+    private void writeControl(char c) {
+        buffer[position++] = '\\';
+        switch (c) {
+            case '\n': buffer[position++] = 'n'; break;
+            case '\r': buffer[position++] = 'r'; break;
+            case '\t': buffer[position++] = 't'; break;
+            default:
+                buffer[position++] = 'u';
+                buffer[position++] = '0';
+                buffer[position++] = '0';
+                buffer[position++] = HEX[c >> 4];
+                buffer[position++] = HEX[c & 0xF];
+        }
+    }
+
+    private void writeInt(int value) throws IOException {
+        writeLong(value);
+    }
+
+    // Callers pass ints and whole doubles under 1e15, so negating cannot overflow
+    private void writeLong(long value) throws IOException {
+        if (position + 20 > buffer.length) {
+            drain();
+        }
+        if (value < 0) {
+            buffer[position++] = '-';
+            value = -value;
+        }
+        int digits = 1;
+        for (long rest = value / 10; rest > 0; rest /= 10) {
+            digits++;
+        }
+        int end = position + digits;
+        for (int i = end - 1; i >= position; i--) {
+            buffer[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        position = end;
+    }
+
+    // Same text as Json.appendNumber. Whole numbers and values with up to four
+    // decimals in Double.toString's plain range are written digit by digit; the rest
+    // go through Double.toString.
+    private void writeDouble(double value) throws IOException {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            write(NULL);
+            return;
+        }
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            writeLong((long) value);
+            return;
+        }
+        double magnitude = Math.abs(value);
+        if (magnitude >= 1e-3 && magnitude < 1e7) {
+            for (int decimals = 1; decimals < POWERS_OF_TEN.length; decimals++) {
+                double scaled = Math.rint(magnitude * POWERS_OF_TEN[decimals]);
+                if (scaled / POWERS_OF_TEN[decimals] == magnitude) {
+                    writeFixed(value < 0, (long) scaled, decimals);
+                    return;
+                }
+            }
+        }
+        write(ascii(Double.toString(value)));
+    }
+
+    // unscaled / 10^decimals, which has no trailing zero in its last decimal
+    private void writeFixed(boolean negative, long unscaled, int decimals) throws IOException {
+        if (position + 24 > buffer.length) {
+            drain();
+        }
+        if (negative) {
+            buffer[position++] = '-';
+        }
+        long whole = unscaled / POWERS_OF_TEN[decimals];
+        long fraction = unscaled % POWERS_OF_TEN[decimals];
+        writeLong(whole);
+        buffer[position++] = '.';
+        for (int i = decimals - 1; i >= 0; i--) {
+            buffer[position++] = (byte) ('0' + (fraction / POWERS_OF_TEN[i]) % 10);
+        }
+    }
+
+    private void writeByte(int b) throws IOException {
+        if (position == buffer.length) {
+            drain();
+        }
+        buffer[position++] = (byte) b;
+    }
+
+    private void write(byte[] bytes) throws IOException {
+        if (position + bytes.length > buffer.length) {
+            drain();
+            if (bytes.length > buffer.length) {
+                out.write(bytes);
+                return;
+            }
+        }
+        System.arraycopy(bytes, 0, buffer, position, bytes.length);
+        position += bytes.length;
+    }
+
+    private void drain() throws IOException {
+        if (position > 0) {
+            out.write(buffer, 0, position);
+            position = 0;
+        }
+    }
+
+    private static byte[] ascii(String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+}
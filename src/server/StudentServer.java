@@ -0,0 +1,496 @@
+package server;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import dao.StudentDAO;
+import dao.UpdateResult;
+import database.DatabaseConnection;
+import metrics.MetricsExporter;
+import models.Student;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+// Headless JSON API over StudentDAO for scripts and other services:
+//   GET    /students?afterId=0&limit=100   keyset page in id order (Link: rel="next")
+//   GET    /students/search?name=|department=|rollNo=
+//                                          name= stops at the search limit (X-Truncated: true)
+//   GET    /students/export?department=&name=   every match, streamed off the cursor
+//   GET    /students/{id}
+//   POST   /students                        201 with the stored student
+//   PUT    /students/{id}                   409 if "version" is not the stored one
+//   DELETE /students/{id}                   204
+//   GET    /stats, /metrics
+// GET responses carry a strong ETag over the body and answer If-None-Match with
+// 304, and bodies over 1 KB are gzipped when the client accepts it.
+//
+// Requests run on a bounded worker pool sharing DatabaseConnection's pool. When
+// the queue is full the accepting thread runs the request itself, which stops it
+// accepting more until one finishes. Start with: ant run-server
+// (-Dserver.host, -Dserver.port, -Dserver.threads, -Dserver.queue).
+public class StudentServer {
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int MAX_PAGE_SIZE = 1_000;
+    private static final int GZIP_MIN_BYTES = 1_024;
+    private static final int MAX_BODY_BYTES = 64 * 1_024;
+    private static final String JSON_TYPE = "application/json; charset=utf-8";
+
+    // One writer, and so one buffer, per worker thread for streamed responses
+    private static final ThreadLocal<StudentJsonWriter> EXPORT_WRITER =
+        ThreadLocal.withInitial(() -> new StudentJsonWriter(OutputStream.nullOutputStream()));
+
+    private final StudentDAO studentDAO;
+    private final HttpServer http;
+    private final ThreadPoolExecutor executor;
+
+    public StudentServer(StudentDAO studentDAO, InetSocketAddress address, int threads, int queueCapacity)
+            throws IOException {
+        this.studentDAO = studentDAO;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            r -> new Thread(r, "student-http-" + threadNumber.incrementAndGet()),
+            new ThreadPoolExecutor.CallerRunsPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+        // Without TCP_NODELAY the separate header and body writes of each response
+        // meet the client's delayed ACK, adding ~40 ms per request. Read once, when the
+        // first server is created.
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        this.http = HttpServer.create(address, 0);
+        http.setExecutor(executor);
+        http.createContext("/students", exchange -> handle(exchange, this::students));
+        http.createContext("/stats", exchange -> handle(exchange, this::stats));
+        http.createContext("/metrics", exchange -> handle(exchange, this::metrics));
+    }
+
+    public static void main(String[] args) throws IOException {
+        InetSocketAddress address = new InetSocketAddress(System.getProperty("server.host", "localhost"),
+            Integer.getInteger("server.port", 8080));
+        StudentServer server = new StudentServer(new StudentDAO(), address,
+            Integer.getInteger("server.threads", 32), Integer.getInteger("server.queue", 1_024));
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.stop(2);
+            DatabaseConnection.closeConnection();
+        }, "student-http-shutdown"));
+        server.start();
+        System.out.println("Student API listening on http://" + address.getHostString() + ":" + server.getPort());
+    }
+
+    public void start() {
+        http.start();
+    }
+
+    // Wait up to delaySeconds for requests in flight, then stop
+    public void stop(int delaySeconds) {
+        http.stop(delaySeconds);
+        executor.shutdown();
+    }
+
+    public int getPort() {
+        return http.getAddress().getPort();
+    }
+
+    private Response students(HttpExchange exchange) throws IOException {
+        String method = exchange.getRequestMethod();
+        String path = exchange.getRequestURI().getPath();
+        Map<String, String> params = queryParams(exchange);
+        if (path.equals("/students") || path.equals("/students/")) {
+            if (method.equals("GET")) {
+                return page(params);
+            }
+            if (method.equals("POST")) {
+                return create(exchange);
+            }
+            return Response.notAllowed("GET, POST");
+        }
+        if (path.equals("/students/export")) {
+            return method.equals("GET") ? export(exchange, params) : Response.notAllowed("GET");
+        }
+        if (path.equals("/students/search")) {
+            return method.equals("GET") ? search(params) : Response.notAllowed("GET");
+        }
+        int id;
+        try {
+            id = Integer.parseInt(path.substring("/students/".length()));
+        } catch (NumberFormatException e) {
+            return Response.error(404, "No such resource: " + path);
+        }
+        switch (method) {
+            case "GET": {
+                Student student = studentDAO.findById(id);
+                return student == null ? Response.error(404, "No student " + id) : Response.ok(Json.student(student));
+            }
+            case "PUT":
+                return update(exchange, id);
+            case "DELETE": {
+                int deleted = studentDAO.delete(id);
+                if (deleted > 0) {
+                    return new Response(204, null);
+                }
+                return deleted == 0
+                    ? Response.error(404, "No student " + id)
+                    : Response.error(500, "Could not delete student " + id);
+            }
+            default:
+                return Response.notAllowed("GET, PUT, DELETE");
+        }
+    }
+
+    private Response page(Map<String, String> params) {
+        int afterId = intParam(params, "afterId", 0);
+        int limit = intParam(params, "limit", DEFAULT_PAGE_SIZE);
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        List<Student> page = studentDAO.getStudentsPage(afterId, limit);
+        Response response = Response.ok(Json.students(page));
+        if (page.size() == limit) {
+            response.headers.put("Link", "</students?afterId=" + page.get(page.size() - 1).getId()
+                + "&limit=" + limit + ">; rel=\"next\"");
+        }
+        return response;
+    }
+
+    private Response search(Map<String, String> params) {
+        if (params.size() != 1) {
+            throw new IllegalArgumentException("Give exactly one of name, department or rollNo");
+        }
+        if (params.containsKey("name")) {
+            String name = params.get("name");
+            int limit = StudentDAO.getSearchLimit();
+            List<Student> matches = studentDAO.searchByName(name, limit + 1);
+            // A blank name lists everyone, without a limit
+            boolean truncated = !name.trim().isEmpty() && matches.size() > limit;
+            Response response = Response.ok(Json.students(truncated ? matches.subList(0, limit) : matches));
+            if (truncated) {
+                response.headers.put("X-Truncated", "true");
+            }
+            return response;
+        }
+        if (params.containsKey("department")) {
+            return Response.ok(Json.students(studentDAO.searchByDepartment(params.get("department"))));
+        }
+        if (params.containsKey("rollNo")) {
+            Student student = studentDAO.searchByRollNo(params.get("rollNo"));
+            return Response.ok(Json.students(student == null ? List.of() : List.of(student)));
+        }
+        throw new IllegalArgumentException("Give exactly one of name, department or rollNo");
+    }
+
+    // No ETag or length: the array is written from the cursor as rows arrive, so a
+    // large export never sits in memory. Returns null as the response is already sent.
+    // A database error midway can only cut the response short.
+    private Response export(HttpExchange exchange, Map<String, String> params) throws IOException {
+        String department = params.get("department");
+        String name = params.get("name");
+        boolean gzip = acceptsGzip(exchange);
+        Headers headers = exchange.getResponseHeaders();
+        headers.set("Content-Type", JSON_TYPE);
+        headers.set("Vary", "Accept-Encoding");
+        if (gzip) {
+            headers.set("Content-Encoding", "gzip");
+        }
+        exchange.sendResponseHeaders(200, 0);
+        StudentJsonWriter writer = EXPORT_WRITER.get();
+        try (OutputStream body = gzip ? new GZIPOutputStream(exchange.getResponseBody(), 8192)
+                : exchange.getResponseBody()) {
+            writer.reset(body);
+            writer.beginArray();
+            studentDAO.streamStudents(department, name, rs -> {
+                try {
+                    writer.writeRow(rs);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return true;
+            });
+            writer.endArray();
+            writer.flush();
+        } catch (SQLException | UncheckedIOException e) {
+            System.err.println("Export cut short: " + e.getMessage());
+        } finally {
+            writer.reset(OutputStream.nullOutputStream());
+        }
+        return null;
+    }
+
+    private Response create(HttpExchange exchange) throws IOException {
+        Student student = readStudent(exchange, 0);
+        if (studentDAO.addStudent(student)) {
+            Response response = new Response(201, Json.student(student));
+            response.headers.put("Location", "/students/" + student.getId());
+            return response;
+        }
+        return studentDAO.searchByRollNo(student.getRollNo()) != null
+            ? Response.error(409, "Roll No already exists: " + student.getRollNo())
+            : Response.error(500, "Could not add student");
+    }
+
+    // A body without "version" overwrites whatever is stored
+    private Response update(HttpExchange exchange, int id) throws IOException {
+        Student student = readStudent(exchange, id);
+        Student current = studentDAO.findById(id);
+        if (current == null) {
+            return Response.error(404, "No student " + id);
+        }
+        if (student.getVersion() < 0) {
+            student.setVersion(current.getVersion());
+        }
+        UpdateResult result = studentDAO.update(student);
+        if (result == UpdateResult.UPDATED) {
+            return Response.ok(Json.student(student));
+        } else if (result == UpdateResult.CONFLICT) {
+            return Response.error(409, "Student " + id + " was changed by someone else; fetch it and retry");
+        } else if (result == UpdateResult.NOT_FOUND) {
+            return Response.error(404, "No student " + id);
+        }
+        Student holder = studentDAO.searchByRollNo(student.getRollNo());
+        return holder != null && holder.getId() != id
+            ? Response.error(409, "Roll No already exists: " + student.getRollNo())
+            : Response.error(500, "Could not update student " + id);
+    }
+
+    private Response stats(HttpExchange exchange) {
+        if (!exchange.getRequestMethod().equals("GET")) {
+            return Response.notAllowed("GET");
+        }
+        return Response.ok(Json.statistics(studentDAO.getStatistics()));
+    }
+
+    private Response metrics(HttpExchange exchange) {
+        if (!exchange.getRequestMethod().equals("GET")) {
+            return Response.notAllowed("GET");
+        }
+        return Response.ok(MetricsExporter.toJson(DatabaseConnection.getPoolMetrics()));
+    }
+
+    // Run a route and write its response; bad input is a 400, anything unexpected a 500
+    private void handle(HttpExchange exchange, Route route) {
+        try {
+            Response response;
+            try {
+                response = route.handle(exchange);
+            } catch (IllegalArgumentException e) {
+                response = Response.error(400, e.getMessage());
+            } catch (RuntimeException e) {
+                System.err.println("Error handling " + exchange.getRequestURI() + ": " + e.getMessage());
+                response = Response.error(500, "Internal error");
+            }
+            if (response != null) {
+                send(exchange, response);
+            }
+        } catch (IOException e) {
+            System.err.println("Error writing response: " + e.getMessage());
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void send(HttpExchange exchange, Response response) throws IOException {
+        Headers headers = exchange.getResponseHeaders();
+        response.headers.forEach(headers::set);
+        if (response.body == null) {
+            exchange.sendResponseHeaders(response.status, -1);
+            return;
+        }
+        byte[] body = response.body.getBytes(StandardCharsets.UTF_8);
+        boolean gzip = body.length >= GZIP_MIN_BYTES && acceptsGzip(exchange);
+        headers.set("Vary", "Accept-Encoding");
+
+        if (response.status == 200 && exchange.getRequestMethod().equals("GET")) {
+            // The gzipped body is a different representation, so it gets its own tag
+            String tag = etag(body);
+            String etag = "\"" + tag + (gzip ? "-gzip" : "") + "\"";
+            headers.set("ETag", etag);
+            headers.set("Cache-Control", "no-cache");
+            if (matchesIfNoneMatch(exchange.getRequestHeaders().getFirst("If-None-Match"), tag)) {
+                exchange.sendResponseHeaders(304, -1);
+                return;
+            }
+        }
+        if (gzip) {
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(body.length / 4 + 64);
+            try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+                out.write(body);
+            }
+            body = compressed.toByteArray();
+            headers.set("Content-Encoding", "gzip");
+        }
+        headers.set("Content-Type", JSON_TYPE);
+        exchange.sendResponseHeaders(response.status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private Student readStudent(HttpExchange exchange, int id) throws IOException {
+        String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+        if (contentType != null && !contentType.toLowerCase().startsWith("application/json")) {
+            throw new IllegalArgumentException("Expected application/json, got " + contentType);
+        }
+        byte[] bytes;
+        try (InputStream in = exchange.getRequestBody()) {
+            bytes = in.readNBytes(MAX_BODY_BYTES + 1);
+        }
+        if (bytes.length > MAX_BODY_BYTES) {
+            throw new IllegalArgumentException("Request body larger than " + MAX_BODY_BYTES + " bytes");
+        }
+        Map<String, Object> fields = Json.parseObject(new String(bytes, StandardCharsets.UTF_8));
+        Object marks = fields.get("marks");
+        if (!(marks instanceof Double)) {
+            throw new IllegalArgumentException("marks must be a number");
+        }
+        // -1 when the client sent no version
+        int version = -1;
+        Object sent = fields.get("version");
+        if (sent != null) {
+            double value = sent instanceof Double ? (Double) sent : -1;
+            if (value < 0 || value > Integer.MAX_VALUE || value != Math.rint(value)) {
+                throw new IllegalArgumentException("version must be a non-negative integer");
+            }
+            version = (int) value;
+        }
+        return new Student(id, requiredString(fields, "name"), requiredString(fields, "rollNo"),
+            requiredString(fields, "department"), optionalString(fields, "email"), optionalString(fields, "phone"),
+            (Double) marks, version);
+    }
+
+    private static String requiredString(Map<String, Object> fields, String name) {
+        String value = optionalString(fields, name);
+        if (value == null || value.trim().isEmpty()) {
+            throw new IllegalArgumentException(name + " is required");
+        }
+        return value.trim();
+    }
+
+    private static String optionalString(Map<String, Object> fields, String name) {
+        Object value = fields.get(name);
+        if (value != null && !(value instanceof String)) {
+            throw new IllegalArgumentException(name + " must be a string");
+        }
+        return (String) value;
+    }
+
+    private static Map<String, String> queryParams(HttpExchange exchange) {
+        Map<String, String> params = new HashMap<>();
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null || query.isEmpty()) {
+            return params;
+        }
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), StandardCharsets.UTF_8);
+            String value = eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            params.put(key, value);
+        }
+        return params;
+    }
+
+    private static int intParam(Map<String, String> params, String name, int defaultValue) {
+        String value = params.get(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " must be an integer");
+        }
+    }
+
+    private static boolean acceptsGzip(HttpExchange exchange) {
+        for (String header : exchange.getRequestHeaders().getOrDefault("Accept-Encoding", List.of())) {
+            for (String coding : header.split(",")) {
+                String[] parts = coding.trim().split(";");
+                if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                    return parts.length == 1 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+                }
+            }
+        }
+        return false;
+    }
+
+    // True if any tag in the header names this body, in either encoding
+    private static boolean matchesIfNoneMatch(String header, String tag) {
+        if (header == null) {
+            return false;
+        }
+        for (String candidate : header.split(",")) {
+            String value = candidate.trim();
+            if (value.equals("*")) {
+                return true;
+            }
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (value.equals("\"" + tag + "\"") || value.equals("\"" + tag + "-gzip\"")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // First 128 bits of the body's SHA-256, in hex
+    private static String etag(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            StringBuilder hex = new StringBuilder(32);
+            for (int i = 0; i < 16; i++) {
+                hex.append(Character.forDigit((digest[i] >> 4) & 0xF, 16)).append(Character.forDigit(digest[i] & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Route {
+        Response handle(HttpExchange exchange) throws IOException;
+    }
+
+    private static final class Response {
+        private final int status;
+        private final String body;
+        private final Map<String, String> headers = new HashMap<>();
+
+        private Response(int status, String body) {
+            this.status = status;
+            this.body = body;
+        }
+
+        private static Response ok(String body) {
+            return new Response(200, body);
+        }
+
+        private static Response error(int status, String message) {
+            return new Response(status, Json.error(message));
+        }
+
+        private static Response notAllowed(String allowed) {
+            Response response = error(405, "Method not allowed");
+            response.headers.put("Allow", allowed);
+            return response;
+        }
+    }
+}
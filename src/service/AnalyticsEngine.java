@@ -0,0 +1,286 @@
+package service;
+
+import models.MarksAnalytics;
+import models.Student;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+// Marks analytics over a StudentSnapshot. A fork-join pass splits the rows into
+// ranges, each producing a mergeable accumulator (per-department count, mean and
+// M2 for Welford/Chan variance, min, max, the histogram and bounded top-N lists),
+// and the partial results are merged pairwise on the way back up. Exact
+// percentiles come from the marks column grouped by department and sorted with
+// Arrays.parallelSort, which runs on the same common pool. Like the SQL aggregates,
+// NULL marks count towards the number of students but not towards any figure.
+public class AnalyticsEngine {
+    private static final int SPLIT_THRESHOLD = 16_384;
+
+    private final ForkJoinPool pool;
+    private final int topStudents;
+    private final int topPerDepartment;
+
+    public AnalyticsEngine() {
+        this(ForkJoinPool.commonPool(), 10, 3);
+    }
+
+    public AnalyticsEngine(ForkJoinPool pool, int topStudents, int topPerDepartment) {
+        this.pool = pool;
+        this.topStudents = topStudents;
+        this.topPerDepartment = topPerDepartment;
+    }
+
+    public MarksAnalytics analyze(StudentSnapshot snapshot) {
+        int size = snapshot.size();
+        if (size == 0) {
+            return MarksAnalytics.EMPTY;
+        }
+        Accumulator acc = pool.invoke(new AccumulateTask(snapshot, 0, size));
+        int departmentCount = snapshot.getDepartmentCount();
+
+        // Group marks by department, then sort each group and the whole column
+        int[] starts = new int[departmentCount + 1];
+        for (int code = 0; code < departmentCount; code++) {
+            starts[code + 1] = starts[code] + (int) acc.counts[code];
+        }
+        int marked = starts[departmentCount];
+        double[] grouped = new double[marked];
+        int[] next = Arrays.copyOf(starts, departmentCount);
+        for (int row = 0; row < size; row++) {
+            if (snapshot.hasMarks(row)) {
+                grouped[next[snapshot.getDepartmentCode(row)]++] = snapshot.getMarks(row);
+            }
+        }
+        double[] sorted = grouped.clone();
+        Arrays.parallelSort(sorted);
+
+        // Overall moments from the per-department ones
+        long total = 0;
+        double mean = 0;
+        double m2 = 0;
+        List<Integer> ranked = new ArrayList<>();
+        List<Integer> unmarked = new ArrayList<>();
+        for (int code = 0; code < departmentCount; code++) {
+            long n = acc.counts[code];
+            if (n == 0) {
+                if (acc.students[code] > 0) {
+                    unmarked.add(code);
+                }
+                continue;
+            }
+            ranked.add(code);
+            Arrays.parallelSort(grouped, starts[code], starts[code + 1]);
+            double delta = acc.means[code] - mean;
+            long merged = total + n;
+            mean += delta * n / merged;
+            m2 += acc.m2s[code] + delta * delta * total * n / merged;
+            total = merged;
+        }
+        ranked.sort((a, b) -> Double.compare(acc.means[b], acc.means[a]));
+
+        List<MarksAnalytics.DepartmentAnalytics> departments = new ArrayList<>(ranked.size() + unmarked.size());
+        for (int code : ranked) {
+            long n = acc.counts[code];
+            departments.add(new MarksAnalytics.DepartmentAnalytics(
+                snapshot.getDepartmentName(code),
+                departments.size() + 1,
+                (int) acc.students[code],
+                (int) n,
+                acc.means[code],
+                Math.sqrt(acc.m2s[code] / n),
+                acc.maxs[code],
+                acc.mins[code],
+                percentiles(grouped, starts[code], starts[code + 1]),
+                acc.topByDepartment[code].toStudents()));
+        }
+        // Departments with no marks at all rank last, with every figure 0 as SQL reads them
+        for (int code : unmarked) {
+            departments.add(new MarksAnalytics.DepartmentAnalytics(snapshot.getDepartmentName(code),
+                departments.size() + 1, (int) acc.students[code], 0, 0, 0, 0, 0,
+                new double[MarksAnalytics.PERCENTILES.length], new ArrayList<>()));
+        }
+
+        if (marked == 0) {
+            return new MarksAnalytics(size, 0, 0, 0, 0, new double[MarksAnalytics.PERCENTILES.length],
+                acc.histogram, 0, 0, departments, new ArrayList<>());
+        }
+        return new MarksAnalytics(size, mean, Math.sqrt(m2 / total), sorted[marked - 1], sorted[0],
+            percentiles(sorted, 0, marked), acc.histogram, acc.belowHistogram, acc.aboveHistogram,
+            departments, acc.top.toStudents());
+    }
+
+    // Linear interpolation between closest ranks over sorted[from, to)
+    private static double[] percentiles(double[] sorted, int from, int to) {
+        double[] values = new double[MarksAnalytics.PERCENTILES.length];
+        int n = to - from;
+        for (int i = 0; i < values.length; i++) {
+            double position = MarksAnalytics.PERCENTILES[i] / 100.0 * (n - 1);
+            int lower = (int) Math.floor(position);
+            int upper = Math.min(lower + 1, n - 1);
+            double fraction = position - lower;
+            values[i] = sorted[from + lower] + (sorted[from + upper] - sorted[from + lower]) * fraction;
+        }
+        return values;
+    }
+
+    private final class AccumulateTask extends RecursiveTask<Accumulator> {
+        private final StudentSnapshot snapshot;
+        private final int from;
+        private final int to;
+
+        private AccumulateTask(StudentSnapshot snapshot, int from, int to) {
+            this.snapshot = snapshot;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Accumulator compute() {
+            if (to - from <= SPLIT_THRESHOLD) {
+                Accumulator acc = new Accumulator(snapshot, topStudents, topPerDepartment);
+                for (int row = from; row < to; row++) {
+                    acc.add(row);
+                }
+                return acc;
+            }
+            int middle = (from + to) >>> 1;
+            AccumulateTask left = new AccumulateTask(snapshot, from, middle);
+            left.fork();
+            Accumulator right = new AccumulateTask(snapshot, middle, to).compute();
+            return left.join().merge(right);
+        }
+    }
+
+    // Partial results for a range of rows, indexed by department code. counts is
+    // the rows with marks, students every row.
+    private static final class Accumulator {
+        private final StudentSnapshot snapshot;
+        private final long[] students;
+        private final long[] counts;
+        private final double[] means;
+        private final double[] m2s;
+        private final double[] mins;
+        private final double[] maxs;
+        private final long[] histogram = new long[MarksAnalytics.HISTOGRAM_BINS];
+        private long belowHistogram;
+        private long aboveHistogram;
+        private final TopRows top;
+        private final TopRows[] topByDepartment;
+
+        private Accumulator(StudentSnapshot snapshot, int topStudents, int topPerDepartment) {
+            this.snapshot = snapshot;
+            int departments = snapshot.getDepartmentCount();
+            students = new long[departments];
+            counts = new long[departments];
+            means = new double[departments];
+            m2s = new double[departments];
+            mins = new double[departments];
+            maxs = new double[departments];
+            Arrays.fill(mins, Double.POSITIVE_INFINITY);
+            Arrays.fill(maxs, Double.NEGATIVE_INFINITY);
+            top = new TopRows(snapshot, topStudents);
+            topByDepartment = new TopRows[departments];
+            for (int code = 0; code < departments; code++) {
+                topByDepartment[code] = new TopRows(snapshot, topPerDepartment);
+            }
+        }
+
+        private void add(int row) {
+            int code = snapshot.getDepartmentCode(row);
+            students[code]++;
+            if (!snapshot.hasMarks(row)) {
+                return;
+            }
+            double value = snapshot.getMarks(row);
+            long n = ++counts[code];
+            double delta = value - means[code];
+            means[code] += delta / n;
+            m2s[code] += delta * (value - means[code]);
+            mins[code] = Math.min(mins[code], value);
+            maxs[code] = Math.max(maxs[code], value);
+
+            int bin = MarksAnalytics.histogramBin(value);
+            if (bin < 0) {
+                belowHistogram++;
+            } else if (bin == histogram.length) {
+                aboveHistogram++;
+            } else {
+                histogram[bin]++;
+            }
+            top.offer(row);
+            topByDepartment[code].offer(row);
+        }
+
+        private Accumulator merge(Accumulator other) {
+            for (int code = 0; code < counts.length; code++) {
+                students[code] += other.students[code];
+                long na = counts[code];
+                long nb = other.counts[code];
+                if (nb == 0) {
+                    continue;
+                }
+                long n = na + nb;
+                double delta = other.means[code] - means[code];
+                means[code] += delta * nb / n;
+                m2s[code] += other.m2s[code] + delta * delta * na * nb / n;
+                counts[code] = n;
+                mins[code] = Math.min(mins[code], other.mins[code]);
+                maxs[code] = Math.max(maxs[code], other.maxs[code]);
+                topByDepartment[code].mergeFrom(other.topByDepartment[code]);
+            }
+            for (int bin = 0; bin < histogram.length; bin++) {
+                histogram[bin] += other.histogram[bin];
+            }
+            belowHistogram += other.belowHistogram;
+            aboveHistogram += other.aboveHistogram;
+            top.mergeFrom(other.top);
+            return this;
+        }
+    }
+
+    // The best rows seen so far by marks (ties go to the lower id), kept sorted best first
+    private static final class TopRows {
+        private final StudentSnapshot snapshot;
+        private final int[] rows;
+        private int size;
+
+        private TopRows(StudentSnapshot snapshot, int limit) {
+            this.snapshot = snapshot;
+            this.rows = new int[limit];
+        }
+
+        private void offer(int row) {
+            if (rows.length == 0 || !snapshot.hasMarks(row) || (size == rows.length && !better(row, rows[size - 1]))) {
+                return;
+            }
+            int position = size == rows.length ? size - 1 : size++;
+            while (position > 0 && better(row, rows[position - 1])) {
+                rows[position] = rows[position - 1];
+                position--;
+            }
+            rows[position] = row;
+        }
+
+        private void mergeFrom(TopRows other) {
+            for (int i = 0; i < other.size; i++) {
+                offer(other.rows[i]);
+            }
+        }
+
+        private boolean better(int a, int b) {
+            int byMarks = Double.compare(snapshot.getMarks(a), snapshot.getMarks(b));
+            return byMarks != 0 ? byMarks > 0 : snapshot.getId(a) < snapshot.getId(b);
+        }
+
+        private List<Student> toStudents() {
+            List<Student> students = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                students.add(snapshot.getStudent(rows[i]));
+            }
+            return students;
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package service;
+
+import dao.StudentDAO;
+import dao.StudentMutation;
+import dao.StudentQuery;
+import dao.UpdateResult;
+import models.MarksAnalytics;
+import models.StatisticsSnapshot;
+import models.Student;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+// Runs StudentDAO calls on a bounded worker pool so callers (the Swing EDT in
+// particular) never block on JDBC. Callers marshal results back themselves.
+public class AsyncStudentService {
+    private static final int QUEUE_CAPACITY = 256;
+
+    private final StudentDAO studentDAO;
+    private final AnalyticsEngine analyticsEngine = new AnalyticsEngine();
+    private final ThreadPoolExecutor executor;
+    private final AtomicReference<CompletableFuture<?>> currentSearch = new AtomicReference<>();
+    private volatile WriteBehindQueue writeBehind;
+
+    public AsyncStudentService(StudentDAO studentDAO, int threads) {
+        this.studentDAO = studentDAO;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(QUEUE_CAPACITY),
+            r -> {
+                Thread thread = new Thread(r, "student-dao-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    // Route add, update and delete through a write-behind queue; the futures then
+    // complete once the change is journaled rather than committed
+    public void setWriteBehind(WriteBehindQueue writeBehind) {
+        this.writeBehind = writeBehind;
+    }
+
+    public StudentDAO getStudentDAO() {
+        return studentDAO;
+    }
+
+    // Run any blocking task on the worker pool. A task cancelled before it starts is skipped.
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                if (future.isDone()) {
+                    return;
+                }
+                try {
+                    future.complete(task.get());
+                } catch (Throwable t) {
+                    future.completeExceptionally(t);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    public CompletableFuture<List<Student>> getAllStudents() {
+        return submit(studentDAO::getAllStudents);
+    }
+
+    public CompletableFuture<Student> findById(int id) {
+        return submit(() -> studentDAO.findById(id));
+    }
+
+    public CompletableFuture<Boolean> addStudent(Student student) {
+        WriteBehindQueue queue = writeBehind;
+        return queue != null
+            ? submit(() -> queue.enqueue(StudentMutation.add(student)))
+            : submit(() -> studentDAO.addStudent(student));
+    }
+
+    // A queued update is checked against its version when it is flushed; a conflict
+    // then goes to the write-behind queue's conflict handler, not to this result
+    public CompletableFuture<UpdateResult> updateStudent(Student student) {
+        WriteBehindQueue queue = writeBehind;
+        return queue != null
+            ? submit(() -> queue.enqueue(StudentMutation.update(student)) ? UpdateResult.UPDATED : UpdateResult.FAILED)
+            : submit(() -> studentDAO.update(student));
+    }
+
+    // One batch straight to the database, even with write-behind on; completes with
+    // the number of students updated
+    public CompletableFuture<Integer> updateMarks(Map<Integer, Double> marksById) {
+        return submit(() -> {
+            try {
+                return studentDAO.updateMarks(marksById);
+            } catch (SQLException e) {
+                throw new IllegalStateException(e.getMessage(), e);
+            }
+        });
+    }
+
+    public CompletableFuture<Boolean> deleteStudent(int id) {
+        WriteBehindQueue queue = writeBehind;
+        return queue != null
+            ? submit(() -> queue.enqueue(StudentMutation.delete(id)))
+            : submit(() -> studentDAO.deleteStudent(id));
+    }
+
+    public CompletableFuture<List<Student>> query(StudentQuery query) {
+        return submit(() -> studentDAO.query(query));
+    }
+
+    // Students matching the query's filters, whatever its limit
+    public CompletableFuture<Integer> count(StudentQuery query) {
+        return submit(() -> studentDAO.count(query));
+    }
+
+    public CompletableFuture<StatisticsSnapshot> getStatistics() {
+        return submit(studentDAO::getStatistics);
+    }
+
+    // Percentiles, distribution and rankings over a fresh snapshot of the whole roster
+    public CompletableFuture<MarksAnalytics> getAnalytics() {
+        return submit(() -> {
+            try {
+                return analyticsEngine.analyze(StudentSnapshot.load(studentDAO));
+            } catch (SQLException e) {
+                throw new IllegalStateException(e.getMessage(), e);
+            }
+        });
+    }
+
+    // Same, over a snapshot the caller already holds
+    public CompletableFuture<MarksAnalytics> analyze(StudentSnapshot snapshot) {
+        return submit(() -> analyticsEngine.analyze(snapshot));
+    }
+
+    // Students matching the filters (either may be null), streamed from a cursor on
+    // the worker pool as the subscriber requests them
+    public StudentPublisher publishStudents(String department, String name) {
+        return new StudentPublisher(studentDAO, department, name, executor);
+    }
+
+    // Cancel the search in flight, if any, so its results are dropped
+    public void cancelSearch() {
+        CompletableFuture<?> previous = currentSearch.getAndSet(null);
+        if (previous != null) {
+            previous.cancel(true);
+        }
+    }
+
+    // Search by "Name", "Department" or "Roll No". Starting a new search cancels the
+    // previous one so stale results never reach the caller. A name search returns up
+    // to one row more than StudentDAO.getSearchLimit(), so the caller can tell that
+    // the matches were cut off.
+    public CompletableFuture<List<Student>> search(String type, String query) {
+        CompletableFuture<List<Student>> future = submit(() -> {
+            List<Student> results = new ArrayList<>();
+            if (type.equals("Name")) {
+                results = studentDAO.searchByName(query, StudentDAO.getSearchLimit() + 1);
+            } else if (type.equals("Department")) {
+                results = studentDAO.searchByDepartment(query);
+            } else if (type.equals("Roll No")) {
+                Student student = studentDAO.searchByRollNo(query);
+                if (student != null) {
+                    results.add(student);
+                }
+            }
+            return results;
+        });
+        CompletableFuture<?> previous = currentSearch.getAndSet(future);
+        if (previous != null) {
+            previous.cancel(true);
+        }
+        return future;
+    }
+
+    public void shutdown() {
+        WriteBehindQueue queue = writeBehind;
+        if (queue == null) {
+            executor.shutdownNow();
+            return;
+        }
+        // Interrupting a worker mid-append would close the journal's channel, so let
+        // queued writes finish, then flush what they queued
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        executor.shutdownNow();
+        queue.close();
+    }
+}
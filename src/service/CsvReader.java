@@ -0,0 +1,86 @@
+package service;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+// Minimal streaming RFC 4180 reader: quoted fields, doubled quotes and line
+// breaks inside quotes. Reads one record at a time so files of any size can be
+// processed in constant memory.
+public class CsvReader implements Closeable {
+    private final BufferedReader reader;
+    private final StringBuilder field = new StringBuilder();
+    private int lineNumber = 1;
+    private int recordLine;
+
+    public CsvReader(Reader reader) {
+        this.reader = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader, 64 * 1024);
+    }
+
+    // Next record, or null at end of input
+    public List<String> readRecord() throws IOException {
+        int c = reader.read();
+        if (c == -1) {
+            return null;
+        }
+        recordLine = lineNumber;
+        List<String> record = new ArrayList<>();
+        boolean quoted = false;
+        field.setLength(0);
+        while (true) {
+            if (quoted) {
+                if (c == -1) {
+                    throw new IOException("Unterminated quoted field starting on line " + recordLine);
+                }
+                if (c == '"') {
+                    reader.mark(1);
+                    int next = reader.read();
+                    if (next == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        reader.reset();
+                    }
+                } else {
+                    if (c == '\n') {
+                        lineNumber++;
+                    }
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.length() == 0) {
+                quoted = true;
+            } else if (c == ',') {
+                record.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\r' || c == '\n' || c == -1) {
+                if (c == '\r') {
+                    reader.mark(1);
+                    if (reader.read() != '\n') {
+                        reader.reset();
+                    }
+                }
+                if (c != -1) {
+                    lineNumber++;
+                }
+                record.add(field.toString());
+                return record;
+            } else {
+                field.append((char) c);
+            }
+            c = reader.read();
+        }
+    }
+
+    // Line on which the last returned record started
+    public int getRecordLine() {
+        return recordLine;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
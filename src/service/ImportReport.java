@@ -0,0 +1,86 @@
+package service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Outcome of a bulk import: counts, throughput and the rows that were rejected
+public class ImportReport {
+    // Keep the report bounded even when a whole file is rejected
+    private static final int MAX_RECORDED_ERRORS = 1000;
+
+    private int rowsRead;
+    private int rowsImported;
+    private int rowsRejected;
+    private long elapsedNanos;
+    private boolean cancelled;
+    private final List<RowError> errors = new ArrayList<>();
+
+    void rowRead() {
+        rowsRead++;
+    }
+
+    void rowsImported(int count) {
+        rowsImported += count;
+    }
+
+    void reject(int lineNumber, String rollNo, String message) {
+        rowsRejected++;
+        if (errors.size() < MAX_RECORDED_ERRORS) {
+            errors.add(new RowError(lineNumber, rollNo, message));
+        }
+    }
+
+    void finish(long elapsedNanos, boolean cancelled) {
+        this.elapsedNanos = elapsedNanos;
+        this.cancelled = cancelled;
+    }
+
+    public int getRowsRead() { return rowsRead; }
+    public int getRowsImported() { return rowsImported; }
+    public int getRowsRejected() { return rowsRejected; }
+    public boolean isCancelled() { return cancelled; }
+    public List<RowError> getErrors() { return Collections.unmodifiableList(errors); }
+
+    public double getElapsedSeconds() {
+        return elapsedNanos / 1_000_000_000.0;
+    }
+
+    public double getRowsPerSecond() {
+        return elapsedNanos == 0 ? 0 : rowsImported / getElapsedSeconds();
+    }
+
+    public String summary() {
+        StringBuilder text = new StringBuilder();
+        text.append(String.format("Rows read: %d%nImported: %d%nRejected: %d%nTime: %.2f s%nThroughput: %.0f rows/sec%n",
+            rowsRead, rowsImported, rowsRejected, getElapsedSeconds(), getRowsPerSecond()));
+        if (cancelled) {
+            text.append("Import was cancelled before the end of the file.\n");
+        }
+        for (RowError error : errors) {
+            text.append(String.format("Line %d%s: %s%n", error.getLineNumber(),
+                error.getRollNo() == null || error.getRollNo().isEmpty() ? "" : " (" + error.getRollNo() + ")",
+                error.getMessage()));
+        }
+        if (rowsRejected > errors.size()) {
+            text.append(String.format("... and %d more rejected rows%n", rowsRejected - errors.size()));
+        }
+        return text.toString();
+    }
+
+    public static class RowError {
+        private final int lineNumber;
+        private final String rollNo;
+        private final String message;
+
+        public RowError(int lineNumber, String rollNo, String message) {
+            this.lineNumber = lineNumber;
+            this.rollNo = rollNo;
+            this.message = message;
+        }
+
+        public int getLineNumber() { return lineNumber; }
+        public String getRollNo() { return rollNo; }
+        public String getMessage() { return message; }
+    }
+}
@@ -0,0 +1,30 @@
+package service;
+
+import dao.StudentMutation;
+
+// A queued mutation the database refused when it was flushed, e.g. an insert or
+// update whose roll number was taken by someone else in the meantime, or an update
+// of a student someone else changed first. The mutation has been dropped from the
+// queue and the journal.
+public final class MutationConflict {
+    private final StudentMutation mutation;
+    private final String message;
+    private final boolean rollNoConflict;
+    private final boolean versionConflict;
+
+    MutationConflict(StudentMutation mutation, String message, boolean rollNoConflict, boolean versionConflict) {
+        this.mutation = mutation;
+        this.message = message;
+        this.rollNoConflict = rollNoConflict;
+        this.versionConflict = versionConflict;
+    }
+
+    public StudentMutation getMutation() { return mutation; }
+    public String getMessage() { return message; }
+
+    // True when the roll_no unique constraint was the one violated
+    public boolean isRollNoConflict() { return rollNoConflict; }
+
+    // True when an update found the row at a newer version than the one it was based on
+    public boolean isVersionConflict() { return versionConflict; }
+}
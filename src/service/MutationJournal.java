@@ -0,0 +1,181 @@
+package service;
+
+import dao.StudentMutation;
+import models.Student;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+// Append-only log of queued mutations, forced to disk before enqueue returns.
+// Each record is [length][crc32][payload]; a record torn by a crash fails the
+// length or checksum test and is cut off on recovery. A FLUSHED record says every
+// mutation with a lower sequence number has been committed to the database.
+// Mutations are written as VERSIONED records, which end with the version an
+// update expects; plain MUTATION records from older journals replay as overwrites.
+// Not thread-safe; WriteBehindQueue serialises access.
+class MutationJournal implements Closeable {
+    private static final byte MUTATION = 1; // only in journals written before VERSIONED
+    private static final byte FLUSHED = 2;
+    private static final byte VERSIONED = 3;
+    private static final int HEADER_BYTES = 8;
+
+    private final FileChannel channel;
+
+    MutationJournal(Path path) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    // Mutations written after the last FLUSHED record, in order. Drops any torn tail.
+    List<Entry> recover() throws IOException {
+        List<Entry> pending = new ArrayList<>();
+        long size = channel.size();
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        long position = 0;
+        while (position + HEADER_BYTES <= size) {
+            header.clear();
+            channel.read(header, position);
+            header.flip();
+            int length = header.getInt();
+            int checksum = header.getInt();
+            if (length <= 0 || position + HEADER_BYTES + length > size) {
+                break;
+            }
+            ByteBuffer payload = ByteBuffer.allocate(length);
+            channel.read(payload, position + HEADER_BYTES);
+            CRC32 crc = new CRC32();
+            crc.update(payload.array());
+            if ((int) crc.getValue() != checksum) {
+                break;
+            }
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload.array()));
+            byte kind = in.readByte();
+            long seq = in.readLong();
+            if (kind == FLUSHED) {
+                long flushedThrough = seq;
+                pending.removeIf(entry -> entry.seq <= flushedThrough);
+            } else {
+                pending.add(new Entry(seq, readMutation(in, kind == VERSIONED)));
+            }
+            position += HEADER_BYTES + length;
+        }
+        if (position < size) {
+            System.err.println("Dropping " + (size - position) + " torn bytes from the mutation journal");
+            channel.truncate(position);
+        }
+        channel.position(position);
+        return pending;
+    }
+
+    void append(long seq, StudentMutation mutation) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(VERSIONED);
+        out.writeLong(seq);
+        writeMutation(out, mutation);
+        write(bytes.toByteArray());
+    }
+
+    // Every mutation up to and including seq is in the database
+    void markFlushed(long seq) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(16);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(FLUSHED);
+        out.writeLong(seq);
+        write(bytes.toByteArray());
+    }
+
+    // Nothing is pending any more; start the file over
+    void clear() throws IOException {
+        channel.truncate(0);
+        channel.position(0);
+        channel.force(true);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void write(byte[] payload) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        ByteBuffer record = ByteBuffer.allocate(HEADER_BYTES + payload.length);
+        record.putInt(payload.length).putInt((int) crc.getValue()).put(payload).flip();
+        while (record.hasRemaining()) {
+            channel.write(record);
+        }
+        channel.force(false);
+    }
+
+    private static void writeMutation(DataOutputStream out, StudentMutation mutation) throws IOException {
+        out.writeByte(mutation.getType().ordinal());
+        out.writeInt(mutation.getId());
+        Student student = mutation.getStudent();
+        out.writeBoolean(student != null);
+        if (student != null) {
+            writeString(out, student.getName());
+            writeString(out, student.getRollNo());
+            writeString(out, student.getDepartment());
+            writeString(out, student.getEmail());
+            writeString(out, student.getPhone());
+            out.writeDouble(student.hasMarks() ? student.getMarks() : Double.NaN);
+        }
+        out.writeInt(mutation.getExpectedVersion());
+    }
+
+    private static StudentMutation readMutation(DataInputStream in, boolean versioned) throws IOException {
+        StudentMutation.Type type = StudentMutation.Type.values()[in.readByte()];
+        int id = in.readInt();
+        if (!in.readBoolean()) {
+            return StudentMutation.delete(id);
+        }
+        Student student = new Student(id, readString(in), readString(in), readString(in), readString(in),
+            readString(in), in.readDouble());
+        int expectedVersion = versioned ? in.readInt() : -1;
+        if (type == StudentMutation.Type.ADD) {
+            return StudentMutation.add(student);
+        }
+        if (expectedVersion < 0) {
+            return StudentMutation.overwrite(student);
+        }
+        student.setVersion(expectedVersion);
+        return StudentMutation.update(student);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    static final class Entry {
+        final long seq;
+        final StudentMutation mutation;
+
+        Entry(long seq, StudentMutation mutation) {
+            this.seq = seq;
+            this.mutation = mutation;
+        }
+    }
+}
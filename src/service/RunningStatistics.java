@@ -0,0 +1,209 @@
+package service;
+
+import dao.StudentChangeEvent;
+import models.MarksAnalytics;
+import models.Student;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Running marks aggregates seeded from a full MarksAnalytics and then kept current
+// one change event at a time: count, mean and M2 per department (Welford, with the
+// inverse step for removals), min/max, and the histogram. Removing a department's
+// current min or max cannot be undone in O(1), so that marks the extremes stale
+// until the next full analysis. Percentiles and top students are not tracked.
+// As in the SQL aggregates, a NULL mark counts as a student but not as a mark.
+// Not thread-safe; the UI uses it on the EDT only.
+public class RunningStatistics {
+    private final Map<String, Department> departments = new HashMap<>();
+    private final long[] histogram;
+    private long belowHistogram;
+    private long aboveHistogram;
+    private boolean extremesStale;
+
+    public RunningStatistics(MarksAnalytics analytics) {
+        histogram = analytics.getHistogram();
+        belowHistogram = analytics.getBelowHistogram();
+        aboveHistogram = analytics.getAboveHistogram();
+        for (MarksAnalytics.DepartmentAnalytics dept : analytics.getDepartments()) {
+            Department running = new Department(dept.getDepartment());
+            running.students = dept.getTotalStudents();
+            running.count = dept.getMarksCount();
+            running.mean = dept.getAverageMarks();
+            running.m2 = dept.getStandardDeviation() * dept.getStandardDeviation() * dept.getMarksCount();
+            running.min = dept.getLowestMarks();
+            running.max = dept.getHighestMarks();
+            departments.put(dept.getDepartment(), running);
+        }
+    }
+
+    // Fold in one change. Returns false if the event cannot be applied incrementally
+    // (a bulk reload, or an update whose previous row is unknown).
+    public boolean apply(StudentChangeEvent event) {
+        switch (event.getType()) {
+            case ADDED:
+                add(event.getStudent());
+                return true;
+            case UPDATED:
+                if (event.getPrevious() == null) {
+                    return false;
+                }
+                remove(event.getPrevious());
+                add(event.getStudent());
+                return true;
+            case DELETED:
+                remove(event.getPrevious());
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private void add(Student student) {
+        Department dept = departments.computeIfAbsent(student.getDepartment(), Department::new);
+        dept.students++;
+        if (!student.hasMarks()) {
+            return;
+        }
+        double value = student.getMarks();
+        dept.count++;
+        double delta = value - dept.mean;
+        dept.mean += delta / dept.count;
+        dept.m2 += delta * (value - dept.mean);
+        dept.min = dept.count == 1 ? value : Math.min(dept.min, value);
+        dept.max = dept.count == 1 ? value : Math.max(dept.max, value);
+        adjustHistogram(value, 1);
+    }
+
+    private void remove(Student student) {
+        Department dept = departments.get(student.getDepartment());
+        if (dept == null || dept.students == 0) {
+            return;
+        }
+        if (dept.students == 1) {
+            departments.remove(student.getDepartment());
+        } else {
+            dept.students--;
+        }
+        if (!student.hasMarks() || dept.count == 0) {
+            return;
+        }
+        double value = student.getMarks();
+        if (dept.count == 1) {
+            dept.count = 0;
+            dept.mean = 0;
+            dept.m2 = 0;
+            dept.min = 0;
+            dept.max = 0;
+        } else {
+            double oldMean = dept.mean;
+            dept.count--;
+            dept.mean = (oldMean * (dept.count + 1) - value) / dept.count;
+            dept.m2 = Math.max(0, dept.m2 - (value - oldMean) * (value - dept.mean));
+            if (value <= dept.min || value >= dept.max) {
+                extremesStale = true;
+            }
+        }
+        adjustHistogram(value, -1);
+    }
+
+    private void adjustHistogram(double value, int delta) {
+        int bin = MarksAnalytics.histogramBin(value);
+        if (bin < 0) {
+            belowHistogram += delta;
+        } else if (bin == histogram.length) {
+            aboveHistogram += delta;
+        } else {
+            histogram[bin] += delta;
+        }
+    }
+
+    public int getTotalStudents() {
+        long total = 0;
+        for (Department dept : departments.values()) {
+            total += dept.students;
+        }
+        return (int) total;
+    }
+
+    public double getAverageMarks() {
+        long total = 0;
+        double sum = 0;
+        for (Department dept : departments.values()) {
+            total += dept.count;
+            sum += dept.mean * dept.count;
+        }
+        return total == 0 ? 0 : sum / total;
+    }
+
+    public double getStandardDeviation() {
+        long total = 0;
+        double mean = 0;
+        double m2 = 0;
+        for (Department dept : departments.values()) {
+            if (dept.count == 0) {
+                continue;
+            }
+            long merged = total + dept.count;
+            double delta = dept.mean - mean;
+            mean += delta * dept.count / merged;
+            m2 += dept.m2 + delta * delta * total * dept.count / merged;
+            total = merged;
+        }
+        return total == 0 ? 0 : Math.sqrt(m2 / total);
+    }
+
+    public double getHighestMarks() {
+        double max = Double.NEGATIVE_INFINITY;
+        for (Department dept : departments.values()) {
+            if (dept.count > 0) {
+                max = Math.max(max, dept.max);
+            }
+        }
+        return max == Double.NEGATIVE_INFINITY ? 0 : max;
+    }
+
+    public double getLowestMarks() {
+        double min = Double.POSITIVE_INFINITY;
+        for (Department dept : departments.values()) {
+            if (dept.count > 0) {
+                min = Math.min(min, dept.min);
+            }
+        }
+        return min == Double.POSITIVE_INFINITY ? 0 : min;
+    }
+
+    // True once a removal may have taken away a min or max; the values shown are then upper/lower bounds
+    public boolean isExtremesStale() { return extremesStale; }
+
+    public long[] getHistogram() { return histogram.clone(); }
+    public long getBelowHistogram() { return belowHistogram; }
+    public long getAboveHistogram() { return aboveHistogram; }
+
+    public List<Department> getDepartments() {
+        return new ArrayList<>(departments.values());
+    }
+
+    public static final class Department {
+        private final String name;
+        private long students;
+        private long count; // students with a mark
+        private double mean;
+        private double m2;
+        private double min;
+        private double max;
+
+        private Department(String name) {
+            this.name = name;
+        }
+
+        public String getName() { return name; }
+        public int getTotalStudents() { return (int) students; }
+        public double getAverageMarks() { return mean; }
+        public double getStandardDeviation() { return count == 0 ? 0 : Math.sqrt(m2 / count); }
+        public double getHighestMarks() { return max; }
+        public double getLowestMarks() { return min; }
+    }
+}
@@ -0,0 +1,115 @@
+package service;
+
+import dao.StudentDAO;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntConsumer;
+import java.util.zip.GZIPOutputStream;
+
+// Writes students to CSV straight from a streaming ResultSet, so memory use does
+// not depend on how many rows are exported. The output can be read back by
+// StudentImporter.
+public class StudentExporter {
+    private static final String HEADER = "id,name,roll_no,department,email,phone,marks";
+    private static final int PROGRESS_INTERVAL = 1000;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final StudentDAO studentDAO;
+
+    public StudentExporter(StudentDAO studentDAO) {
+        this.studentDAO = studentDAO;
+    }
+
+    // Export rows matching the optional filters. Returns the number of rows written,
+    // or -1 if cancelled part way, in which case the partial file is deleted.
+    public int export(Path target, boolean gzip, String department, String name,
+                      IntConsumer progress, BooleanSupplier cancelled) throws IOException, SQLException {
+        int[] rows = {0};
+        // Set only when a cancel stops the row loop; one arriving after the last row leaves the file alone
+        boolean[] interrupted = {false};
+        boolean completed = false;
+        try {
+            try (Writer out = open(target, gzip)) {
+                out.write(HEADER);
+                out.write('\n');
+                try {
+                    studentDAO.streamStudents(department, name, rs -> {
+                        if (cancelled.getAsBoolean()) {
+                            interrupted[0] = true;
+                            return false;
+                        }
+                        try {
+                            out.write(rs.getString(1));
+                            for (int column = 2; column <= 7; column++) {
+                                out.write(',');
+                                writeField(out, rs.getString(column));
+                            }
+                            out.write('\n');
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                        if (++rows[0] % PROGRESS_INTERVAL == 0) {
+                            progress.accept(rows[0]);
+                        }
+                        return true;
+                    });
+                } catch (UncheckedIOException e) {
+                    throw e.getCause();
+                }
+            }
+            // Only once the writer has flushed and closed is the file whole
+            completed = !interrupted[0];
+        } finally {
+            if (!completed) {
+                Files.deleteIfExists(target);
+            }
+        }
+        progress.accept(rows[0]);
+        return interrupted[0] ? -1 : rows[0];
+    }
+
+    private static Writer open(Path target, boolean gzip) throws IOException {
+        OutputStream stream = Files.newOutputStream(target);
+        if (gzip) {
+            stream = new GZIPOutputStream(stream, BUFFER_SIZE);
+        }
+        return new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+
+    private static void writeField(Writer out, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        boolean needsQuotes = false;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                needsQuotes = true;
+                break;
+            }
+        }
+        if (!needsQuotes) {
+            out.write(value);
+            return;
+        }
+        out.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                out.write('"');
+            }
+            out.write(c);
+        }
+        out.write('"');
+    }
+}
@@ -0,0 +1,203 @@
+package service;
+
+import dao.StudentDAO;
+import models.Student;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntConsumer;
+
+// Streams a CSV file into the students table in fixed-size chunks. Each chunk is
+// validated, checked for duplicate roll numbers and written as one JDBC batch in
+// its own transaction. The header row decides column order, so exported files
+// (which carry an extra id column) can be imported back unchanged.
+public class StudentImporter {
+    private final StudentDAO studentDAO;
+    private final int chunkSize;
+
+    public StudentImporter(StudentDAO studentDAO, int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+        }
+        this.studentDAO = studentDAO;
+        this.chunkSize = chunkSize;
+    }
+
+    // progress receives the running count of rows read after every chunk;
+    // cancelled is polled between chunks
+    public ImportReport importCsv(Reader input, IntConsumer progress, BooleanSupplier cancelled) throws IOException {
+        ImportReport report = new ImportReport();
+        long start = System.nanoTime();
+        Set<String> seenRollNos = new HashSet<>();
+        List<PendingRow> chunk = new ArrayList<>(chunkSize);
+        boolean stopped = false;
+
+        try (CsvReader csv = new CsvReader(input)) {
+            List<String> header = csv.readRecord();
+            if (header == null) {
+                throw new IOException("The file is empty");
+            }
+            Map<String, Integer> columns = mapHeader(header);
+
+            List<String> record;
+            while ((record = csv.readRecord()) != null) {
+                if (record.size() == 1 && record.get(0).trim().isEmpty()) {
+                    continue;
+                }
+                report.rowRead();
+                int line = csv.getRecordLine();
+                String rollNo = field(record, columns, "roll_no");
+                String error = validate(record, columns);
+                if (error != null) {
+                    report.reject(line, rollNo, error);
+                } else if (!seenRollNos.add(rollNo)) {
+                    report.reject(line, rollNo, "Duplicate roll number within the file");
+                } else {
+                    chunk.add(new PendingRow(line, toStudent(record, columns)));
+                }
+
+                if (chunk.size() >= chunkSize) {
+                    writeChunk(chunk, report);
+                    chunk.clear();
+                    progress.accept(report.getRowsRead());
+                    if (cancelled.getAsBoolean()) {
+                        stopped = true;
+                        break;
+                    }
+                }
+            }
+            if (!stopped && !chunk.isEmpty()) {
+                writeChunk(chunk, report);
+                progress.accept(report.getRowsRead());
+            }
+        }
+        report.finish(System.nanoTime() - start, stopped);
+        return report;
+    }
+
+    private void writeChunk(List<PendingRow> chunk, ImportReport report) {
+        Set<String> rollNos = new HashSet<>();
+        for (PendingRow row : chunk) {
+            rollNos.add(row.student.getRollNo());
+        }
+        Set<String> existing = studentDAO.findExistingRollNos(rollNos);
+
+        List<PendingRow> accepted = new ArrayList<>(chunk.size());
+        for (PendingRow row : chunk) {
+            if (existing.contains(row.student.getRollNo())) {
+                report.reject(row.line, row.student.getRollNo(), "Roll number already exists");
+            } else {
+                accepted.add(row);
+            }
+        }
+        if (accepted.isEmpty()) {
+            return;
+        }
+
+        List<Student> students = new ArrayList<>(accepted.size());
+        for (PendingRow row : accepted) {
+            students.add(row.student);
+        }
+        try {
+            studentDAO.addStudentsBatch(students);
+            report.rowsImported(students.size());
+        } catch (SQLException batchError) {
+            // Another writer got in between the duplicate check and the insert, or a row
+            // violates a constraint we don't validate. Fall back to one row at a time so
+            // only the offending rows are rejected.
+            for (PendingRow row : accepted) {
+                try {
+                    studentDAO.addStudentsBatch(List.of(row.student));
+                    report.rowsImported(1);
+                } catch (SQLException rowError) {
+                    report.reject(row.line, row.student.getRollNo(), rowError.getMessage());
+                }
+            }
+        }
+    }
+
+    private static Map<String, Integer> mapHeader(List<String> header) throws IOException {
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            String name = header.get(i).trim().toLowerCase(Locale.ROOT).replace(' ', '_');
+            if (name.equals("rollno")) {
+                name = "roll_no";
+            }
+            columns.put(name, i);
+        }
+        for (String required : new String[]{"name", "roll_no", "department", "marks"}) {
+            if (!columns.containsKey(required)) {
+                throw new IOException("Missing required column: " + required);
+            }
+        }
+        return columns;
+    }
+
+    private static String validate(List<String> record, Map<String, Integer> columns) {
+        String name = field(record, columns, "name");
+        String rollNo = field(record, columns, "roll_no");
+        String department = field(record, columns, "department");
+        String email = field(record, columns, "email");
+        String phone = field(record, columns, "phone");
+
+        if (name.isEmpty() || name.length() > 100) {
+            return "Name is required and must be at most 100 characters";
+        }
+        if (rollNo.isEmpty() || rollNo.length() > 20) {
+            return "Roll number is required and must be at most 20 characters";
+        }
+        if (department.isEmpty() || department.length() > 50) {
+            return "Department is required and must be at most 50 characters";
+        }
+        if (email.length() > 100 || (!email.isEmpty() && email.indexOf('@') < 0)) {
+            return "Invalid email: " + email;
+        }
+        if (phone.length() > 10) {
+            return "Phone must be at most 10 characters";
+        }
+        try {
+            Double.parseDouble(field(record, columns, "marks"));
+        } catch (NumberFormatException e) {
+            return "Marks must be a number";
+        }
+        return null;
+    }
+
+    private static Student toStudent(List<String> record, Map<String, Integer> columns) {
+        return new Student(
+            field(record, columns, "name"),
+            field(record, columns, "roll_no"),
+            field(record, columns, "department"),
+            field(record, columns, "email"),
+            field(record, columns, "phone"),
+            Double.parseDouble(field(record, columns, "marks"))
+        );
+    }
+
+    private static String field(List<String> record, Map<String, Integer> columns, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= record.size()) {
+            return "";
+        }
+        return record.get(index).trim();
+    }
+
+    private static final class PendingRow {
+        private final int line;
+        private final Student student;
+
+        private PendingRow(int line, Student student) {
+            this.line = line;
+            this.student = student;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package service;
+
+import dao.StudentDAO;
+import dao.UncheckedSQLException;
+import models.Student;
+
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+// Flow.Publisher over StudentDAO.streamStudents. Each subscriber gets its own
+// cursor, opened on the executor at its first request. Rows are read only as the
+// subscriber requests them, so a slow consumer holds at most its outstanding demand
+// while the rest stays in the database cursor, and a worker thread is only busy
+// while there is demand to serve. Completing, failing or cancelling closes the
+// cursor and returns the connection.
+public class StudentPublisher implements Flow.Publisher<Student> {
+    private final StudentDAO studentDAO;
+    private final String department;
+    private final String name;
+    private final Executor executor;
+
+    // Either filter may be null, as for StudentDAO.streamStudents
+    public StudentPublisher(StudentDAO studentDAO, String department, String name, Executor executor) {
+        this.studentDAO = studentDAO;
+        this.department = department;
+        this.name = name;
+        this.executor = executor;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super Student> subscriber) {
+        Objects.requireNonNull(subscriber);
+        subscriber.onSubscribe(new CursorSubscription(subscriber));
+    }
+
+    // Signals are only sent from drain(), which runs on one thread at a time
+    private final class CursorSubscription implements Flow.Subscription, Runnable {
+        private final Flow.Subscriber<? super Student> subscriber;
+        private final AtomicLong demand = new AtomicLong();
+        // Drain requests not yet handled; the thread that raises it from zero drains
+        private final AtomicInteger pendingDrains = new AtomicInteger();
+        private volatile boolean cancelled;
+        private volatile IllegalArgumentException badRequest;
+        private Stream<Student> stream;
+        private Iterator<Student> rows;
+        private boolean done;
+
+        private CursorSubscription(Flow.Subscriber<? super Student> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                badRequest = new IllegalArgumentException("Non-positive request: " + n);
+            } else {
+                demand.getAndAccumulate(n, (current, added) -> current + added < 0 ? Long.MAX_VALUE : current + added);
+            }
+            schedule();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            schedule();
+        }
+
+        private void schedule() {
+            if (pendingDrains.getAndIncrement() != 0) {
+                return;
+            }
+            try {
+                executor.execute(this);
+            } catch (RejectedExecutionException e) {
+                // The pending count stays raised, so nothing drains after this
+                if (!done) {
+                    finish();
+                    subscriber.onError(e);
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            int drains = pendingDrains.get();
+            while (true) {
+                if (!done) {
+                    drain();
+                }
+                drains = pendingDrains.addAndGet(-drains);
+                if (drains == 0) {
+                    return;
+                }
+            }
+        }
+
+        private void drain() {
+            if (cancelled) {
+                finish();
+                return;
+            }
+            if (badRequest != null) {
+                finish();
+                subscriber.onError(badRequest);
+                return;
+            }
+            long requested = demand.get();
+            if (requested == 0) {
+                return;
+            }
+            long emitted = 0;
+            try {
+                if (rows == null) {
+                    stream = studentDAO.streamStudents(department, name);
+                    rows = stream.iterator();
+                }
+                while (emitted < requested && !cancelled) {
+                    if (!rows.hasNext()) {
+                        finish();
+                        subscriber.onComplete();
+                        return;
+                    }
+                    subscriber.onNext(rows.next());
+                    emitted++;
+                }
+            } catch (SQLException | UncheckedSQLException e) {
+                finish();
+                subscriber.onError(e instanceof UncheckedSQLException ? e.getCause() : e);
+                return;
+            } catch (RuntimeException e) {
+                // A subscriber that throws has cancelled; release the cursor
+                finish();
+                System.err.println("Student subscriber failed: " + e.getMessage());
+                return;
+            }
+            if (cancelled) {
+                finish();
+            } else if (requested != Long.MAX_VALUE) {
+                demand.addAndGet(-emitted);
+            }
+        }
+
+        private void finish() {
+            done = true;
+            if (stream != null) {
+                stream.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package service;
+
+import dao.RowMapper;
+import dao.StudentDAO;
+import dao.StudentRowMapper;
+import models.Student;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// In-memory trigram index over name, roll number, email and department for
+// search-as-you-type. Postings are sorted int arrays of document numbers; an
+// update appends a new document and tombstones the old one, and the index is
+// compacted once tombstones outnumber live documents.
+public class StudentSearchIndex {
+    private static final char FIELD_SEPARATOR = '\u0001';
+    private static final int MIN_COMPACT_TOMBSTONES = 1024;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, IntList> postings = new HashMap<>();
+    private final Map<Integer, Integer> docById = new HashMap<>();
+    private final BitSet deleted = new BitSet();
+    private Student[] students = new Student[1024];
+    private String[] keys = new String[1024];
+    private int docCount;
+    private int deletedCount;
+
+    // Load every student with a streaming read and index it
+    public static StudentSearchIndex build(StudentDAO studentDAO) throws SQLException {
+        StudentSearchIndex index = new StudentSearchIndex();
+        RowMapper<Student> mapper = new StudentRowMapper();
+        studentDAO.streamStudents(null, null, rs -> {
+            index.addDocument(mapper.mapRow(rs));
+            return true;
+        });
+        return index;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docCount - deletedCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Students whose name, roll number, email or department contains the query (case-insensitive)
+    public List<Student> search(String query, int limit) {
+        String needle = query.trim().toLowerCase(Locale.ROOT);
+        List<Student> results = new ArrayList<>();
+        if (needle.isEmpty()) {
+            return results;
+        }
+        lock.readLock().lock();
+        try {
+            if (needle.length() < 3) {
+                for (int doc = 0; doc < docCount && results.size() < limit; doc++) {
+                    if (!deleted.get(doc) && keys[doc].contains(needle)) {
+                        results.add(students[doc]);
+                    }
+                }
+                return results;
+            }
+
+            long[] grams = trigrams(needle);
+            int[][] lists = new int[grams.length][];
+            int[] sizes = new int[grams.length];
+            for (int i = 0; i < grams.length; i++) {
+                IntList list = postings.get(grams[i]);
+                if (list == null) {
+                    return results;
+                }
+                lists[i] = list.values;
+                sizes[i] = list.size;
+            }
+            // Drive the intersection from the shortest list
+            int shortest = 0;
+            for (int i = 1; i < lists.length; i++) {
+                if (sizes[i] < sizes[shortest]) {
+                    shortest = i;
+                }
+            }
+            int[] cursors = new int[lists.length];
+            candidates:
+            for (int c = 0; c < sizes[shortest] && results.size() < limit; c++) {
+                int doc = lists[shortest][c];
+                for (int i = 0; i < lists.length; i++) {
+                    if (i == shortest) {
+                        continue;
+                    }
+                    int pos = advance(lists[i], sizes[i], cursors[i], doc);
+                    cursors[i] = pos;
+                    if (pos == sizes[i]) {
+                        break candidates;
+                    }
+                    if (lists[i][pos] != doc) {
+                        continue candidates;
+                    }
+                }
+                // Trigram hits can still be false positives ("abcd" vs "abc..bcd"); confirm
+                if (!deleted.get(doc) && keys[doc].contains(needle)) {
+                    results.add(students[doc]);
+                }
+            }
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Add or replace the entry for a student
+    public void upsert(Student student) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(student.getId());
+            addDocument(student);
+            compactIfDue();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(int id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+            compactIfDue();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Edits tombstone as much as removals do, so both check
+    private void compactIfDue() {
+        if (deletedCount > MIN_COMPACT_TOMBSTONES && deletedCount > docCount - deletedCount) {
+            compact();
+        }
+    }
+
+    private void removeLocked(int id) {
+        Integer doc = docById.remove(id);
+        if (doc != null) {
+            deleted.set(doc);
+            students[doc] = null;
+            deletedCount++;
+        }
+    }
+
+    private void addDocument(Student student) {
+        if (docCount == students.length) {
+            students = Arrays.copyOf(students, docCount * 2);
+            keys = Arrays.copyOf(keys, docCount * 2);
+        }
+        int doc = docCount++;
+        String key = (nullToEmpty(student.getName()) + FIELD_SEPARATOR + nullToEmpty(student.getRollNo())
+            + FIELD_SEPARATOR + nullToEmpty(student.getEmail()) + FIELD_SEPARATOR
+            + nullToEmpty(student.getDepartment())).toLowerCase(Locale.ROOT);
+        students[doc] = student;
+        keys[doc] = key;
+        docById.put(student.getId(), doc);
+        for (long gram : trigrams(key)) {
+            postings.computeIfAbsent(gram, g -> new IntList()).add(doc);
+        }
+    }
+
+    // Rebuild postings from live documents only
+    private void compact() {
+        Student[] live = new Student[docCount - deletedCount];
+        int n = 0;
+        for (int doc = 0; doc < docCount; doc++) {
+            if (!deleted.get(doc)) {
+                live[n++] = students[doc];
+            }
+        }
+        postings.clear();
+        docById.clear();
+        deleted.clear();
+        students = new Student[Math.max(1024, live.length * 2)];
+        keys = new String[students.length];
+        docCount = 0;
+        deletedCount = 0;
+        for (Student student : live) {
+            addDocument(student);
+        }
+    }
+
+    // Distinct trigrams of a string, each packed into a long (16 bits per char)
+    private static long[] trigrams(String text) {
+        if (text.length() < 3) {
+            return new long[0];
+        }
+        long[] grams = new long[text.length() - 2];
+        int n = 0;
+        for (int i = 0; i + 2 < text.length(); i++) {
+            char a = text.charAt(i);
+            char b = text.charAt(i + 1);
+            char c = text.charAt(i + 2);
+            if (a == FIELD_SEPARATOR || b == FIELD_SEPARATOR || c == FIELD_SEPARATOR) {
+                continue;
+            }
+            grams[n++] = ((long) a << 32) | ((long) b << 16) | c;
+        }
+        long[] distinct = Arrays.copyOf(grams, n);
+        Arrays.sort(distinct);
+        int unique = 0;
+        for (int i = 0; i < distinct.length; i++) {
+            if (i == 0 || distinct[i] != distinct[i - 1]) {
+                distinct[unique++] = distinct[i];
+            }
+        }
+        return Arrays.copyOf(distinct, unique);
+    }
+
+    // First position at or after from whose value is >= target (galloping search)
+    private static int advance(int[] values, int size, int from, int target) {
+        int step = 1;
+        int low = from;
+        int high = from;
+        while (high < size && values[high] < target) {
+            low = high + 1;
+            high = from + step;
+            step <<= 1;
+        }
+        high = Math.min(high, size);
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (values[mid] < target) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+
+    // Growable sorted list of document numbers
+    private static final class IntList {
+        private int[] values = new int[4];
+        private int size;
+
+        private void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+}
@@ -0,0 +1,348 @@
+package service;
+
+import dao.StudentDAO;
+import models.StatisticsSnapshot;
+import models.Student;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Read-only columnar copy of the roster. Ids and marks are primitive arrays (a
+// NULL mark is kept as NaN), departments are dictionary-encoded to a short code
+// per row, and the free-text columns are packed UTF-8 bytes with an offset table
+// instead of one String per cell. Strings are only materialised for the rows that are actually read.
+// StudentSnapshotFile saves a snapshot and maps it back with the string columns
+// left in the file.
+public final class StudentSnapshot {
+    public static final StudentSnapshot EMPTY = new Builder(0).build();
+
+    private final int size;
+    private final int[] ids;
+    private final double[] marks;
+    private final short[] departmentCodes;
+    private final String[] departments;
+    private final StringColumn names;
+    private final StringColumn rollNos;
+    private final StringColumn emails;
+    private final StringColumn phones;
+    private final boolean sortedById;
+    private volatile StatisticsSnapshot statistics;
+
+    private StudentSnapshot(Builder builder) {
+        this(builder.size, Arrays.copyOf(builder.ids, builder.size), Arrays.copyOf(builder.marks, builder.size),
+            Arrays.copyOf(builder.departmentCodes, builder.size), builder.departments.toArray(),
+            builder.names.trim(), builder.rollNos.trim(), builder.emails.trim(), builder.phones.trim(),
+            builder.sortedById);
+    }
+
+    // Columns already sized to the row count; the arrays are not copied
+    StudentSnapshot(int size, int[] ids, double[] marks, short[] departmentCodes, String[] departments,
+                    StringColumn names, StringColumn rollNos, StringColumn emails, StringColumn phones,
+                    boolean sortedById) {
+        this.size = size;
+        this.ids = ids;
+        this.marks = marks;
+        this.departmentCodes = departmentCodes;
+        this.departments = departments;
+        this.names = names;
+        this.rollNos = rollNos;
+        this.emails = emails;
+        this.phones = phones;
+        this.sortedById = sortedById;
+    }
+
+    // Stream every student (ordered by id) straight into the columns, without building Student objects
+    public static StudentSnapshot load(StudentDAO studentDAO) throws SQLException {
+        Builder builder = new Builder(1024);
+        int[] columns = new int[7];
+        ResultSet[] resolvedFor = new ResultSet[1];
+        studentDAO.streamStudents(null, null, rs -> {
+            if (rs != resolvedFor[0]) {
+                columns[0] = rs.findColumn("id");
+                columns[1] = rs.findColumn("name");
+                columns[2] = rs.findColumn("roll_no");
+                columns[3] = rs.findColumn("department");
+                columns[4] = rs.findColumn("email");
+                columns[5] = rs.findColumn("phone");
+                columns[6] = rs.findColumn("marks");
+                resolvedFor[0] = rs;
+            }
+            double mark = rs.getDouble(columns[6]);
+            builder.add(rs.getInt(columns[0]), rs.getString(columns[1]), rs.getString(columns[2]),
+                rs.getString(columns[3]), rs.getString(columns[4]), rs.getString(columns[5]),
+                rs.wasNull() ? Double.NaN : mark);
+            return true;
+        });
+        return builder.build();
+    }
+
+    public int size() { return size; }
+    public int getId(int row) { return ids[row]; }
+    // 0 for a NULL mark, as ResultSet.getDouble reads it; hasMarks tells the two apart
+    public double getMarks(int row) { return hasMarks(row) ? marks[row] : 0; }
+    public boolean hasMarks(int row) { return !Double.isNaN(marks[row]); }
+    public String getName(int row) { return names.get(row); }
+    public String getRollNo(int row) { return rollNos.get(row); }
+    public String getDepartment(int row) { return departments[departmentCodes[row]]; }
+    public String getEmail(int row) { return emails.get(row); }
+    public String getPhone(int row) { return phones.get(row); }
+    public int getDepartmentCode(int row) { return departmentCodes[row]; }
+    public int getDepartmentCount() { return departments.length; }
+    public String getDepartmentName(int code) { return departments[code]; }
+
+    public Student getStudent(int row) {
+        return new Student(ids[row], names.get(row), rollNos.get(row), getDepartment(row),
+            emails.get(row), phones.get(row), getMarks(row));
+    }
+
+    // Row holding the given id, or -1
+    public int indexOfId(int id) {
+        if (sortedById) {
+            int row = Arrays.binarySearch(ids, 0, size, id);
+            return row >= 0 ? row : -1;
+        }
+        for (int row = 0; row < size; row++) {
+            if (ids[row] == id) {
+                return row;
+            }
+        }
+        return -1;
+    }
+
+    // Same figures as StudentDAO.getStatistics, computed once in a pass over the marks and department columns
+    public StatisticsSnapshot statistics() {
+        StatisticsSnapshot computed = statistics;
+        if (computed == null) {
+            computed = computeStatistics();
+            statistics = computed;
+        }
+        return computed;
+    }
+
+    private StatisticsSnapshot computeStatistics() {
+        if (size == 0) {
+            return StatisticsSnapshot.EMPTY;
+        }
+        int departmentCount = departments.length;
+        int[] counts = new int[departmentCount];
+        int[] marksCounts = new int[departmentCount];
+        double[] sums = new double[departmentCount];
+        double[] highest = new double[departmentCount];
+        double[] lowest = new double[departmentCount];
+        Arrays.fill(highest, Double.NEGATIVE_INFINITY);
+        Arrays.fill(lowest, Double.POSITIVE_INFINITY);
+        for (int row = 0; row < size; row++) {
+            int code = departmentCodes[row];
+            double value = marks[row];
+            counts[code]++;
+            // Like the SQL aggregates, leave NULL marks out of the average, highest and lowest
+            if (Double.isNaN(value)) {
+                continue;
+            }
+            marksCounts[code]++;
+            sums[code] += value;
+            if (value > highest[code]) {
+                highest[code] = value;
+            }
+            if (value < lowest[code]) {
+                lowest[code] = value;
+            }
+        }
+
+        // Departments in name order, like the DAO's GROUP BY department ORDER BY department
+        Integer[] order = new Integer[departmentCount];
+        for (int code = 0; code < departmentCount; code++) {
+            order[code] = code;
+        }
+        Arrays.sort(order, Comparator.comparing(code -> departments[code], Comparator.nullsFirst(Comparator.naturalOrder())));
+
+        Map<String, StatisticsSnapshot.DepartmentStatistics> byName = new LinkedHashMap<>();
+        int marksCount = 0;
+        double total = 0;
+        double max = Double.NEGATIVE_INFINITY;
+        double min = Double.POSITIVE_INFINITY;
+        for (int code : order) {
+            if (counts[code] == 0) {
+                continue;
+            }
+            String name = departments[code];
+            if (marksCounts[code] == 0) {
+                // MAX, MIN and AVG over nothing but NULLs read back as 0
+                byName.put(name, new StatisticsSnapshot.DepartmentStatistics(name, counts[code], 0, 0, 0));
+                continue;
+            }
+            byName.put(name, new StatisticsSnapshot.DepartmentStatistics(
+                name, counts[code], highest[code], lowest[code], sums[code] / marksCounts[code]));
+            marksCount += marksCounts[code];
+            total += sums[code];
+            max = Math.max(max, highest[code]);
+            min = Math.min(min, lowest[code]);
+        }
+        return marksCount == 0
+            ? new StatisticsSnapshot(size, 0, 0, 0, byName)
+            : new StatisticsSnapshot(size, max, min, total / marksCount, byName);
+    }
+
+    // Approximate heap held by the arrays of this snapshot, excluding object headers.
+    // Columns mapped from a file count as nothing.
+    public long estimatedBytes() {
+        long bytes = 4L * ids.length + 8L * marks.length + 2L * departmentCodes.length;
+        for (String department : departments) {
+            bytes += department == null ? 0 : 2L * department.length();
+        }
+        return bytes + names.estimatedBytes() + rollNos.estimatedBytes() + emails.estimatedBytes() + phones.estimatedBytes();
+    }
+
+    // Appends rows column by column; build() trims the arrays to size
+    public static final class Builder {
+        private int size;
+        private int[] ids;
+        private double[] marks;
+        private short[] departmentCodes;
+        private final Dictionary departments = new Dictionary();
+        private final PackedStrings names;
+        private final PackedStrings rollNos;
+        private final PackedStrings emails;
+        private final PackedStrings phones;
+        private boolean sortedById = true;
+
+        public Builder(int expectedRows) {
+            int capacity = Math.max(16, expectedRows);
+            ids = new int[capacity];
+            marks = new double[capacity];
+            departmentCodes = new short[capacity];
+            names = new PackedStrings(capacity, 16);
+            rollNos = new PackedStrings(capacity, 8);
+            emails = new PackedStrings(capacity, 24);
+            phones = new PackedStrings(capacity, 10);
+        }
+
+        public Builder add(Student student) {
+            return add(student.getId(), student.getName(), student.getRollNo(), student.getDepartment(),
+                student.getEmail(), student.getPhone(), student.getMarks());
+        }
+
+        public Builder add(int id, String name, String rollNo, String department, String email, String phone,
+                           double mark) {
+            if (size == ids.length) {
+                int capacity = size * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                marks = Arrays.copyOf(marks, capacity);
+                departmentCodes = Arrays.copyOf(departmentCodes, capacity);
+            }
+            if (size > 0 && id <= ids[size - 1]) {
+                sortedById = false;
+            }
+            ids[size] = id;
+            marks[size] = mark;
+            departmentCodes[size] = departments.code(department);
+            names.add(name);
+            rollNos.add(rollNo);
+            emails.add(email);
+            phones.add(phone);
+            size++;
+            return this;
+        }
+
+        public StudentSnapshot build() {
+            return new StudentSnapshot(this);
+        }
+    }
+
+    // Department name to short code; the codes index the dictionary array
+    private static final class Dictionary {
+        private final Map<String, Short> codes = new HashMap<>();
+        private String[] values = new String[16];
+        private int count;
+
+        private short code(String value) {
+            Short code = codes.get(value);
+            if (code != null) {
+                return code;
+            }
+            if (count == Short.MAX_VALUE) {
+                throw new IllegalStateException("Too many distinct departments for a snapshot");
+            }
+            if (count == values.length) {
+                values = Arrays.copyOf(values, count * 2);
+            }
+            values[count] = value;
+            codes.put(value, (short) count);
+            return (short) count++;
+        }
+
+        private String[] toArray() {
+            return Arrays.copyOf(values, count);
+        }
+    }
+
+    // A column of nullable strings, decoded when read
+    interface StringColumn {
+        String get(int row);
+
+        long estimatedBytes();
+    }
+
+    // A column of strings stored back to back as UTF-8; offsets[i]..offsets[i + 1] is row i
+    private static final class PackedStrings implements StringColumn {
+        private byte[] data;
+        private int[] offsets;
+        private final BitSet nulls = new BitSet();
+        private int count;
+
+        private PackedStrings(int rows, int averageLength) {
+            data = new byte[rows * averageLength];
+            offsets = new int[rows + 1];
+        }
+
+        private PackedStrings(byte[] data, int[] offsets, BitSet nulls, int count) {
+            this.data = data;
+            this.offsets = offsets;
+            this.nulls.or(nulls);
+            this.count = count;
+        }
+
+        private void add(String value) {
+            if (count + 1 == offsets.length) {
+                offsets = Arrays.copyOf(offsets, offsets.length * 2);
+            }
+            int start = offsets[count];
+            if (value == null) {
+                nulls.set(count);
+            } else {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                if (start + bytes.length > data.length) {
+                    data = Arrays.copyOf(data, Math.max(data.length * 2, start + bytes.length));
+                }
+                System.arraycopy(bytes, 0, data, start, bytes.length);
+                start += bytes.length;
+            }
+            offsets[++count] = start;
+        }
+
+        @Override
+        public String get(int row) {
+            if (nulls.get(row)) {
+                return null;
+            }
+            int start = offsets[row];
+            return new String(data, start, offsets[row + 1] - start, StandardCharsets.UTF_8);
+        }
+
+        private PackedStrings trim() {
+            return new PackedStrings(Arrays.copyOf(data, offsets[count]), Arrays.copyOf(offsets, count + 1), nulls, count);
+        }
+
+        @Override
+        public long estimatedBytes() {
+            return data.length + 4L * offsets.length + nulls.size() / 8;
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+// Binary file form of a StudentSnapshot, opened with FileChannel.map so a saved
+// roster is on screen before the database has answered.
+//
+//   header      magic, version, rows, departments, the offsets and lengths below,
+//               then the save generation (0 in files from before it was added)
+//   dictionary  department names: int byte length (-1 for null) + UTF-8
+//   records     one fixed-width record per row, 8-byte aligned:
+//               id int, department code short, pad short, marks double (NaN
+//               for NULL), then (offset int, length int) into the heap for
+//               name, roll_no, email and phone; length -1 is null
+//   heap        the UTF-8 bytes of every string, back to back
+//
+// Opening copies the id, marks and department columns out of the records (the
+// analytics and id lookups scan them); strings stay in the mapping and are only
+// decoded for the rows read. Files are written to a temp file and moved into place.
+// Windows won't replace a file that is still mapped, so callers that save while a
+// snapshot is open write to a second file and pick the higher generation() later.
+public final class StudentSnapshotFile {
+    private static final int MAGIC = 0x53534E50; // "SSNP"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 64;
+    private static final int RECORD_BYTES = 48;
+    private static final int STRINGS_AT = 16;
+    private static final int FLUSH_RECORDS = 4096;
+
+    private StudentSnapshotFile() {
+    }
+
+    public static void write(StudentSnapshot snapshot, Path file, long generation) throws IOException {
+        int rows = snapshot.size();
+        ByteBuffer dictionary = encodeDictionary(snapshot);
+        long recordsOffset = align(HEADER_BYTES + dictionary.position());
+        long heapOffset = recordsOffset + (long) rows * RECORD_BYTES;
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            // The heap streams out at the channel position; records go in with positional writes
+            channel.position(heapOffset);
+            OutputStream heap = new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16);
+            ByteBuffer records = ByteBuffer.allocate(RECORD_BYTES * FLUSH_RECORDS);
+            long recordPosition = recordsOffset;
+            long heapLength = 0;
+            for (int row = 0; row < rows; row++) {
+                records.putInt(snapshot.getId(row))
+                    .putShort((short) snapshot.getDepartmentCode(row))
+                    .putShort((short) 0)
+                    .putDouble(snapshot.hasMarks(row) ? snapshot.getMarks(row) : Double.NaN);
+                String[] strings = {snapshot.getName(row), snapshot.getRollNo(row), snapshot.getEmail(row), snapshot.getPhone(row)};
+                for (String value : strings) {
+                    if (value == null) {
+                        records.putInt((int) heapLength).putInt(-1);
+                        continue;
+                    }
+                    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                    if (heapLength + bytes.length > Integer.MAX_VALUE) {
+                        throw new IOException("Snapshot too large for one file");
+                    }
+                    records.putInt((int) heapLength).putInt(bytes.length);
+                    heap.write(bytes);
+                    heapLength += bytes.length;
+                }
+                if (!records.hasRemaining()) {
+                    recordPosition += writeAt(channel, records, recordPosition);
+                }
+            }
+            writeAt(channel, records, recordPosition);
+            heap.flush();
+            if (heapOffset + heapLength > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot too large to map");
+            }
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            header.putInt(MAGIC).putInt(VERSION).putInt(rows).putInt(snapshot.getDepartmentCount())
+                .putLong(HEADER_BYTES).putLong(recordsOffset).putLong(heapOffset).putLong(heapLength)
+                .putLong(generation);
+            header.position(HEADER_BYTES);
+            writeAt(channel, header, 0);
+            writeAt(channel, dictionary, HEADER_BYTES);
+            channel.force(true);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // The generation a file was saved with, or -1 if it is missing or not a snapshot file
+    public static long generation(Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            while (header.hasRemaining()) {
+                if (channel.read(header) < 0) {
+                    return -1;
+                }
+            }
+            if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+                return -1;
+            }
+            return header.getLong(48);
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    // Map a file written by write(). Throws if it is missing, truncated or from another version.
+    public static StudentSnapshot open(Path file) throws IOException {
+        MappedByteBuffer map;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long length = channel.size();
+            if (length < HEADER_BYTES || length > Integer.MAX_VALUE) {
+                throw new IOException("Not a snapshot file: " + file);
+            }
+            // The mapping stays valid after the channel is closed
+            map = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+        }
+        if (map.getInt(0) != MAGIC || map.getInt(4) != VERSION) {
+            throw new IOException("Not a snapshot file, or an older format: " + file);
+        }
+        int rows = map.getInt(8);
+        int departmentCount = map.getInt(12);
+        long dictionaryOffset = map.getLong(16);
+        long recordsOffset = map.getLong(24);
+        long heapOffset = map.getLong(32);
+        long heapLength = map.getLong(40);
+        if (rows < 0 || departmentCount < 0 || recordsOffset < dictionaryOffset
+                || heapOffset != recordsOffset + (long) rows * RECORD_BYTES
+                || heapOffset + heapLength != map.capacity()) {
+            throw new IOException("Snapshot file is damaged: " + file);
+        }
+
+        String[] departments = new String[departmentCount];
+        int position = (int) dictionaryOffset;
+        for (int code = 0; code < departmentCount; code++) {
+            int length = map.getInt(position);
+            position += 4;
+            if (length >= 0) {
+                byte[] bytes = new byte[length];
+                map.get(position, bytes);
+                departments[code] = new String(bytes, StandardCharsets.UTF_8);
+                position += length;
+            }
+        }
+
+        ByteBuffer records = map.slice((int) recordsOffset, rows * RECORD_BYTES);
+        ByteBuffer heap = map.slice((int) heapOffset, (int) heapLength);
+        int[] ids = new int[rows];
+        double[] marks = new double[rows];
+        short[] departmentCodes = new short[rows];
+        boolean sortedById = true;
+        for (int row = 0; row < rows; row++) {
+            int base = row * RECORD_BYTES;
+            ids[row] = records.getInt(base);
+            departmentCodes[row] = records.getShort(base + 4);
+            marks[row] = records.getDouble(base + 8);
+            if (departmentCodes[row] < 0 || departmentCodes[row] >= departmentCount) {
+                throw new IOException("Snapshot file is damaged: " + file);
+            }
+            if (row > 0 && ids[row] <= ids[row - 1]) {
+                sortedById = false;
+            }
+        }
+        return new StudentSnapshot(rows, ids, marks, departmentCodes, departments,
+            new MappedStrings(records, heap, 0), new MappedStrings(records, heap, 1),
+            new MappedStrings(records, heap, 2), new MappedStrings(records, heap, 3), sortedById);
+    }
+
+    // Filled up to its position, ready for writeAt
+    private static ByteBuffer encodeDictionary(StudentSnapshot snapshot) {
+        byte[][] names = new byte[snapshot.getDepartmentCount()][];
+        int length = 0;
+        for (int code = 0; code < names.length; code++) {
+            String name = snapshot.getDepartmentName(code);
+            names[code] = name == null ? null : name.getBytes(StandardCharsets.UTF_8);
+            length += 4 + (name == null ? 0 : names[code].length);
+        }
+        ByteBuffer dictionary = ByteBuffer.allocate(length);
+        for (byte[] name : names) {
+            dictionary.putInt(name == null ? -1 : name.length);
+            if (name != null) {
+                dictionary.put(name);
+            }
+        }
+        return dictionary;
+    }
+
+    // Write everything before the buffer's position at the given file offset, then clear it
+    private static int writeAt(FileChannel channel, ByteBuffer buffer, long offset) throws IOException {
+        buffer.flip();
+        int bytes = buffer.remaining();
+        long at = offset;
+        while (buffer.hasRemaining()) {
+            at += channel.write(buffer, at);
+        }
+        buffer.clear();
+        return bytes;
+    }
+
+    private static long align(long offset) {
+        return (offset + 7) & ~7L;
+    }
+
+    // One string field of the records, read through absolute gets so concurrent readers are safe
+    private static final class MappedStrings implements StudentSnapshot.StringColumn {
+        private final ByteBuffer records;
+        private final ByteBuffer heap;
+        private final int field;
+
+        private MappedStrings(ByteBuffer records, ByteBuffer heap, int index) {
+            this.records = records;
+            this.heap = heap;
+            this.field = STRINGS_AT + index * 8;
+        }
+
+        @Override
+        public String get(int row) {
+            int base = row * RECORD_BYTES + field;
+            int length = records.getInt(base + 4);
+            if (length < 0) {
+                return null;
+            }
+            byte[] bytes = new byte[length];
+            heap.get(records.getInt(base), bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public long estimatedBytes() {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,322 @@
+package service;
+
+import dao.StaleMutationException;
+import dao.StudentDAO;
+import dao.StudentMutation;
+import models.Student;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+// Write-behind for student mutations. enqueue() journals the mutation to disk and
+// returns; a background thread flushes the queue through StudentDAO.applyMutations
+// once it holds batchSize mutations or every flushInterval, one transaction per
+// batch. Repeated updates to the same id coalesce into the latest one, and a
+// delete swallows any later update of that id. Mutations left in the journal by a
+// crash are replayed on the next start, so delivery is at-least-once: replayed
+// deletes are idempotent, and a replayed insert or update whose result is already
+// stored is treated as applied.
+//
+// An update only applies while the row is at the version it was based on. A batch
+// that fails on a constraint or a stale version is retried one mutation at a time;
+// those the database still refuses are dropped and reported to the conflict
+// handler. Any other failure leaves the batch queued for the next flush.
+public class WriteBehindQueue implements Closeable {
+    private final StudentDAO studentDAO;
+    private final MutationJournal journal;
+    private final int batchSize;
+    private final Consumer<MutationConflict> conflictHandler;
+    private final ScheduledExecutorService flusher;
+    private final Object lock = new Object();
+
+    // Keyed by id for updates and deletes, by sequence number for inserts
+    private LinkedHashMap<Object, Pending> pending = new LinkedHashMap<>();
+    private long nextSeq;
+    private boolean flushRequested;
+    private boolean closed;
+
+    public WriteBehindQueue(StudentDAO studentDAO, Path journalPath, int batchSize, long flushIntervalMillis,
+                            Consumer<MutationConflict> conflictHandler) throws IOException {
+        this.studentDAO = studentDAO;
+        this.batchSize = Math.max(1, batchSize);
+        this.conflictHandler = conflictHandler;
+        this.journal = new MutationJournal(journalPath);
+        for (MutationJournal.Entry entry : journal.recover()) {
+            coalesce(pending, new Pending(entry.seq, entry.mutation));
+            nextSeq = Math.max(nextSeq, entry.seq + 1);
+        }
+        if (!pending.isEmpty()) {
+            System.err.println("Replaying " + pending.size() + " journaled student changes");
+        }
+
+        flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "write-behind-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = Math.max(1, flushIntervalMillis);
+        flusher.scheduleWithFixedDelay(this::flushQuietly, pending.isEmpty() ? interval : 0, interval,
+            TimeUnit.MILLISECONDS);
+    }
+
+    // Queue a mutation; once this returns true it survives a crash. False if the
+    // journal write failed or the queue is closed.
+    public boolean enqueue(StudentMutation mutation) {
+        synchronized (lock) {
+            if (closed) {
+                return false;
+            }
+            long seq = nextSeq++;
+            try {
+                journal.append(seq, mutation);
+            } catch (IOException e) {
+                System.err.println("Error journaling student change: " + e.getMessage());
+                return false;
+            }
+            coalesce(pending, new Pending(seq, mutation));
+            if (pending.size() >= batchSize && !flushRequested) {
+                flushRequested = true;
+                flusher.execute(this::flushQuietly);
+            }
+        }
+        return true;
+    }
+
+    public int getPendingCount() {
+        synchronized (lock) {
+            return pending.size();
+        }
+    }
+
+    // Stop the timer, flush what is queued and close the journal. Anything that still
+    // cannot be written stays in the journal for the next start.
+    @Override
+    public void close() {
+        synchronized (lock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flushQuietly();
+        synchronized (lock) {
+            if (!pending.isEmpty()) {
+                System.err.println(pending.size() + " student changes left in the journal for the next start");
+            }
+            try {
+                journal.close();
+            } catch (IOException e) {
+                System.err.println("Error closing journal: " + e.getMessage());
+            }
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            System.err.println("Error flushing student changes: " + e.getMessage());
+        }
+    }
+
+    private void flush() {
+        List<Pending> batch;
+        long flushedThrough;
+        synchronized (lock) {
+            flushRequested = false;
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = new ArrayList<>(pending.values());
+            pending = new LinkedHashMap<>();
+            flushedThrough = nextSeq - 1;
+        }
+
+        // Once one batch has to wait, so does everything queued after it
+        List<Pending> retry = new ArrayList<>();
+        for (int from = 0; from < batch.size(); from += batchSize) {
+            List<Pending> chunk = batch.subList(from, Math.min(from + batchSize, batch.size()));
+            if (retry.isEmpty()) {
+                retry.addAll(applyBatch(chunk));
+            } else {
+                retry.addAll(chunk);
+            }
+        }
+
+        synchronized (lock) {
+            if (!retry.isEmpty()) {
+                LinkedHashMap<Object, Pending> merged = new LinkedHashMap<>();
+                for (Pending p : retry) {
+                    coalesce(merged, p);
+                }
+                for (Pending p : pending.values()) {
+                    coalesce(merged, p);
+                }
+                pending = merged;
+                return;
+            }
+            try {
+                if (pending.isEmpty()) {
+                    journal.clear();
+                } else {
+                    journal.markFlushed(flushedThrough);
+                }
+            } catch (IOException e) {
+                System.err.println("Error updating journal: " + e.getMessage());
+            }
+        }
+    }
+
+    // Apply one batch in a single transaction. Returns whatever has to be retried later.
+    private List<Pending> applyBatch(List<Pending> batch) {
+        try {
+            studentDAO.applyMutations(mutationsOf(batch));
+            return List.of();
+        } catch (SQLException e) {
+            if (!isRefusal(e)) {
+                System.err.println("Error flushing student changes, will retry: " + e.getMessage());
+                return new ArrayList<>(batch);
+            }
+        }
+
+        // Find the culprits one at a time. Coalescing can reorder two changes that swap
+        // roll numbers, so keep retrying the refused ones while others still succeed.
+        List<Pending> remaining = new ArrayList<>(batch);
+        List<SQLException> errors = new ArrayList<>();
+        boolean progress = true;
+        while (progress && !remaining.isEmpty()) {
+            progress = false;
+            List<Pending> refused = new ArrayList<>();
+            errors.clear();
+            for (int i = 0; i < remaining.size(); i++) {
+                Pending p = remaining.get(i);
+                try {
+                    studentDAO.applyMutations(List.of(p.mutation));
+                    progress = true;
+                } catch (SQLException e) {
+                    if (!isRefusal(e)) {
+                        System.err.println("Error flushing student changes, will retry: " + e.getMessage());
+                        refused.addAll(remaining.subList(i, remaining.size()));
+                        return refused;
+                    }
+                    refused.add(p);
+                    errors.add(e);
+                }
+            }
+            remaining = refused;
+        }
+
+        for (int i = 0; i < remaining.size(); i++) {
+            StudentMutation mutation = remaining.get(i).mutation;
+            if (isAlreadyApplied(mutation)) {
+                continue;
+            }
+            SQLException error = errors.get(i);
+            String message = error.getMessage();
+            boolean stale = error instanceof StaleMutationException;
+            reportConflict(new MutationConflict(mutation, message,
+                !stale && message != null && message.toLowerCase().contains("roll_no"), stale));
+        }
+        return List.of();
+    }
+
+    // An insert or update replayed from the journal after it had already been committed
+    private boolean isAlreadyApplied(StudentMutation mutation) {
+        Student queued = mutation.getStudent();
+        Student existing;
+        if (mutation.getType() == StudentMutation.Type.ADD) {
+            existing = studentDAO.searchByRollNo(queued.getRollNo());
+        } else if (mutation.getType() == StudentMutation.Type.UPDATE && mutation.getExpectedVersion() >= 0) {
+            existing = studentDAO.findById(mutation.getId());
+            if (existing != null && existing.getVersion() != mutation.getExpectedVersion() + 1) {
+                return false;
+            }
+        } else {
+            return false;
+        }
+        return existing != null
+            && Objects.equals(existing.getRollNo(), queued.getRollNo())
+            && Objects.equals(existing.getName(), queued.getName())
+            && Objects.equals(existing.getDepartment(), queued.getDepartment())
+            && Objects.equals(existing.getEmail(), queued.getEmail())
+            && Objects.equals(existing.getPhone(), queued.getPhone())
+            && Double.compare(existing.getMarks(), queued.getMarks()) == 0;
+    }
+
+    private void reportConflict(MutationConflict conflict) {
+        try {
+            conflictHandler.accept(conflict);
+        } catch (RuntimeException e) {
+            System.err.println("Error reporting conflict: " + e.getMessage());
+        }
+    }
+
+    private static void coalesce(LinkedHashMap<Object, Pending> queue, Pending next) {
+        StudentMutation mutation = next.mutation;
+        Object key = mutation.getType() == StudentMutation.Type.ADD ? (Object) next.seq : (Object) mutation.getId();
+        Pending queued = queue.remove(key);
+        if (queued != null && queued.mutation.getType() == StudentMutation.Type.DELETE
+                && mutation.getType() == StudentMutation.Type.UPDATE) {
+            next = queued;
+        }
+        queue.put(key, next);
+    }
+
+    private static List<StudentMutation> mutationsOf(List<Pending> batch) {
+        List<StudentMutation> mutations = new ArrayList<>(batch.size());
+        for (Pending p : batch) {
+            mutations.add(p.mutation);
+        }
+        return mutations;
+    }
+
+    // Unique or other integrity constraint; SQLState class 23 covers drivers that
+    // do not throw the dedicated subclass
+    // Refused for this mutation's content rather than a failure worth retrying
+    private static boolean isRefusal(SQLException e) {
+        return e instanceof StaleMutationException || isConstraintViolation(e);
+    }
+
+    private static boolean isConstraintViolation(SQLException e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof SQLIntegrityConstraintViolationException) {
+                return true;
+            }
+            if (t instanceof SQLException) {
+                String state = ((SQLException) t).getSQLState();
+                if (state != null && state.startsWith("23")) {
+                    return true;
+                }
+            }
+        }
+        SQLException next = e.getNextException();
+        return next != null && next != e && isConstraintViolation(next);
+    }
+
+    private static final class Pending {
+        private final long seq;
+        private final StudentMutation mutation;
+
+        private Pending(long seq, StudentMutation mutation) {
+            this.seq = seq;
+            this.mutation = mutation;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package ui;
+
+import javax.swing.JComponent;
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+
+// Simple vertical bar chart: one labelled bar per bucket, scaled to the largest count
+public class HistogramChart extends JComponent {
+    private final String[] labels;
+    private long[] counts;
+    private final Color barColor;
+
+    public HistogramChart(String[] labels, long[] counts, Color barColor) {
+        this.labels = labels.clone();
+        this.counts = counts.clone();
+        this.barColor = barColor;
+        setPreferredSize(new Dimension(420, 180));
+        setFont(new Font("Arial", Font.PLAIN, 10));
+    }
+
+    public void setCounts(long[] counts) {
+        this.counts = counts.clone();
+        repaint();
+    }
+
+    @Override
+    protected void paintComponent(Graphics graphics) {
+        Graphics2D g = (Graphics2D) graphics.create();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, getWidth(), getHeight());
+
+            FontMetrics metrics = g.getFontMetrics();
+            int labelHeight = metrics.getHeight();
+            int top = labelHeight + 4;
+            int bottom = getHeight() - labelHeight - 4;
+            int plotHeight = Math.max(1, bottom - top);
+            int slot = Math.max(1, (getWidth() - 10) / Math.max(1, counts.length));
+
+            long max = 1;
+            for (long count : counts) {
+                max = Math.max(max, count);
+            }
+            for (int i = 0; i < counts.length; i++) {
+                int x = 5 + i * slot;
+                int height = (int) Math.round((double) counts[i] / max * plotHeight);
+                g.setColor(barColor);
+                g.fillRect(x + 2, bottom - height, slot - 4, height);
+
+                g.setColor(Color.DARK_GRAY);
+                String count = String.valueOf(counts[i]);
+                g.drawString(count, x + (slot - metrics.stringWidth(count)) / 2, bottom - height - 2);
+                g.drawString(labels[i], x + (slot - metrics.stringWidth(labels[i])) / 2, bottom + labelHeight);
+            }
+            g.drawLine(5, bottom, 5 + counts.length * slot, bottom);
+        } finally {
+            g.dispose();
+        }
+    }
+}
@@ -1,21 +1,85 @@
 package ui;
 
+import dao.StudentChangeEvent;
+import dao.StudentChangeListener;
+import dao.OfflineStudentDAO;
 import dao.StudentDAO;
+import dao.StudentQuery;
+import dao.UpdateResult;
+import database.DatabaseConnection;
+import database.PoolMetrics;
+import database.ReplicaSet;
+import metrics.DaoMetrics;
+import metrics.LatencyHistogram;
+import metrics.MetricsExporter;
+import metrics.OperationMetrics;
+import models.MarksAnalytics;
 import models.Student;
+import service.AsyncStudentService;
+import service.ImportReport;
+import service.MutationConflict;
+import service.RunningStatistics;
+import service.StudentExporter;
+import service.StudentImporter;
+import service.StudentSearchIndex;
+import service.WriteBehindQueue;
 
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
 
 public class MainWindow extends JFrame {
+    private static final int PAGE_SIZE = Integer.getInteger("ui.table.pageSize", 200);
+    private static final int MAX_CACHED_PAGES = Integer.getInteger("ui.table.cachedPages", 50);
+    // Hold the whole roster in a columnar snapshot instead of paging it from the database
+    private static final boolean SNAPSHOT_TABLE = Boolean.getBoolean("ui.table.snapshot");
+    // With the snapshot table, the roster saved here is shown at startup while the database reloads
+    private static final String SNAPSHOT_FILE = System.getProperty("ui.snapshot.file");
+    private static final int INSTANT_SEARCH_LIMIT = 1000;
+    // Cap on rows streamed into the search table by Show All / department search, so its
+    // DefaultTableModel stays bounded however large the table; 0 = no cap
+    private static final int SEARCH_MAX_ROWS = Integer.getInteger("ui.search.maxRows", 5000);
+    // Coalesce bursts of changes (an import, fast edits) into one background refresh
+    private static final int RELOAD_DELAY_MS = 300;
+    private static final int FULL_STATISTICS_DELAY_MS = 2000;
+
     private JTable studentTable;
-    private DefaultTableModel tableModel;
+    private StudentRows tableModel;
     private JTable searchTable;
     private DefaultTableModel searchTableModel;
+    private JLabel searchNoticeLabel;
+    // Bumped whenever the search results are replaced, so a late notice is dropped
+    private int searchGeneration;
     private StudentDAO studentDAO;
+    private AsyncStudentService studentService;
     private JTabbedPane tabbedPane;
-    private JPanel statisticsPanel;
+    private StatisticsPanel statisticsPanel;
+    private RunningStatistics runningStatistics;
+    private Timer reloadTimer;
+    private Timer fullStatisticsTimer;
+    private boolean searchIndexStale;
+    private boolean statisticsStale;
+    private final StudentChangeListener changeListener = event -> SwingUtilities.invokeLater(() -> applyChange(event));
+    private JProgressBar busyIndicator;
+    private StudentSearchIndex searchIndex;
+    private StudentTableSubscriber streamedSearch;
+    private int statisticsGeneration;
+    private int busyCount;
 
     public MainWindow() {
         setTitle("SmartStudent - Student Management System");
@@ -23,7 +87,14 @@ public class MainWindow extends JFrame {
         setSize(1000, 600);
         setLocationRelativeTo(null);
 
-        studentDAO = new StudentDAO();
+        // Serve reads from a local copy kept in sync with delta queries
+        studentDAO = Boolean.getBoolean("dao.offline")
+            ? new OfflineStudentDAO(Paths.get(System.getProperty("dao.offline.file", "students.cache")))
+            : new StudentDAO();
+        studentService = new AsyncStudentService(studentDAO, Integer.getInteger("service.threads", 4));
+        if (Boolean.getBoolean("dao.writeBehind")) {
+            enableWriteBehind();
+        }
 
         // Color scheme
         Color primaryColor = new Color(41, 128, 185);
@@ -58,10 +129,125 @@ public class MainWindow extends JFrame {
         // Statistics Tab
         tabbedPane.addTab("Statistics", createStatisticsPanel());
 
+        // Import Tab
+        tabbedPane.addTab("Import", createImportPanel());
+
+        // Export Tab
+        tabbedPane.addTab("Export", createExportPanel());
+
+        // Diagnostics Tab
+        tabbedPane.addTab("Diagnostics", createDiagnosticsPanel());
+
+        // Status Bar
+        JPanel statusPanel = new JPanel(new BorderLayout());
+        statusPanel.setBackground(backgroundColor);
+        statusPanel.setBorder(BorderFactory.createEmptyBorder(2, 10, 2, 10));
+        busyIndicator = new JProgressBar();
+        busyIndicator.setIndeterminate(true);
+        busyIndicator.setString("Loading...");
+        busyIndicator.setStringPainted(true);
+        busyIndicator.setVisible(false);
+        statusPanel.add(busyIndicator, BorderLayout.EAST);
+
         mainPanel.add(headerPanel, BorderLayout.NORTH);
         mainPanel.add(tabbedPane, BorderLayout.CENTER);
+        mainPanel.add(statusPanel, BorderLayout.SOUTH);
 
         add(mainPanel);
+
+        reloadTimer = new Timer(RELOAD_DELAY_MS, e -> {
+            loadStudents();
+            // Only re-reads the roster if the Statistics tab is open; otherwise marks it stale
+            updateStatistics();
+            if (searchIndex != null && searchIndexStale) {
+                searchIndexStale = false;
+                buildSearchIndex(null);
+            }
+        });
+        reloadTimer.setRepeats(false);
+        // The full analysis re-reads the roster, so only run it while someone is looking
+        fullStatisticsTimer = new Timer(FULL_STATISTICS_DELAY_MS, e -> {
+            if (statisticsPanel.isShowing()) {
+                refreshStatistics();
+            } else {
+                statisticsStale = true;
+            }
+        });
+        fullStatisticsTimer.setRepeats(false);
+        tabbedPane.addChangeListener(e -> {
+            if (statisticsStale && tabbedPane.getSelectedComponent() == statisticsPanel) {
+                refreshStatistics();
+            }
+        });
+        StudentDAO.addChangeListener(changeListener);
+
+        // Hand pooled connections back to the server on exit
+        addWindowListener(new java.awt.event.WindowAdapter() {
+            @Override
+            public void windowClosing(java.awt.event.WindowEvent e) {
+                StudentDAO.removeChangeListener(changeListener);
+                studentService.shutdown();
+                if (studentDAO instanceof OfflineStudentDAO) {
+                    ((OfflineStudentDAO) studentDAO).close();
+                }
+                DatabaseConnection.closeConnection();
+            }
+        });
+    }
+
+    // Queue edits in a local journal and write them to the database in batches
+    private void enableWriteBehind() {
+        Path journal = Paths.get(System.getProperty("dao.writeBehind.journal", "write-behind.journal"));
+        try {
+            studentService.setWriteBehind(new WriteBehindQueue(studentDAO, journal,
+                Integer.getInteger("dao.writeBehind.batchSize", 100),
+                Long.getLong("dao.writeBehind.flushMs", 500),
+                conflict -> SwingUtilities.invokeLater(() -> showConflict(conflict))));
+        } catch (IOException e) {
+            System.err.println("Write-behind disabled, cannot open journal: " + e.getMessage());
+        }
+    }
+
+    private void showConflict(MutationConflict conflict) {
+        Student student = conflict.getMutation().getStudent();
+        if (conflict.isVersionConflict()) {
+            resolveQueuedConflict(student);
+            return;
+        }
+        String change = student == null
+            ? "Deleting student " + conflict.getMutation().getId()
+            : "Saving " + student.getName() + " (" + student.getRollNo() + ")";
+        String reason = conflict.isRollNoConflict()
+            ? "Roll number " + student.getRollNo() + " is already in use."
+            : conflict.getMessage();
+        JOptionPane.showMessageDialog(this, change + " failed and was discarded.\n" + reason,
+            "Change Not Saved", JOptionPane.WARNING_MESSAGE);
+    }
+
+    // A queued update lost to someone else's save: write it over theirs, or keep theirs
+    private void resolveQueuedConflict(Student queued) {
+        String[] options = {"Overwrite", "Keep Theirs"};
+        int choice = JOptionPane.showOptionDialog(this,
+            "Another user changed " + queued.getName() + " (" + queued.getRollNo() + ") before your update was saved.\n"
+                + "Overwrite their change with yours, or keep theirs?",
+            "Update Conflict", JOptionPane.YES_NO_OPTION, JOptionPane.WARNING_MESSAGE, null, options, options[1]);
+        if (choice != 0) {
+            loadStudents();
+            return;
+        }
+        runAsync(studentService.findById(queued.getId()), current -> {
+            if (current == null) {
+                JOptionPane.showMessageDialog(this, "This student has been deleted by another user.");
+                return;
+            }
+            Student retry = new Student(queued);
+            retry.setVersion(current.getVersion());
+            runAsync(studentService.updateStudent(retry), result -> {
+                if (result != UpdateResult.UPDATED) {
+                    JOptionPane.showMessageDialog(this, "Error updating student!");
+                }
+            });
+        });
     }
 
     private JPanel createViewPanel() {
@@ -70,13 +256,27 @@ public class MainWindow extends JFrame {
         panel.setBackground(new Color(236, 240, 241));
 
         // Table
-        String[] columns = {"ID", "Name", "Roll No", "Department", "Email", "Phone", "Marks"};
-        tableModel = new DefaultTableModel(columns, 0);
+        tableModel = SNAPSHOT_TABLE
+            ? new StudentSnapshotTableModel(studentService, SNAPSHOT_FILE == null ? null : Paths.get(SNAPSHOT_FILE))
+            : new StudentTableModel(studentService, PAGE_SIZE, MAX_CACHED_PAGES);
         studentTable = new JTable(tableModel);
         studentTable.setFont(new Font("Arial", Font.PLAIN, 11));
         studentTable.getTableHeader().setFont(new Font("Arial", Font.BOLD, 11));
         studentTable.setRowHeight(25);
 
+        if (tableModel instanceof StudentTableModel) {
+            // Header clicks sort in the database; a second click on the same column reverses it
+            studentTable.getTableHeader().addMouseListener(new java.awt.event.MouseAdapter() {
+                @Override
+                public void mouseClicked(java.awt.event.MouseEvent e) {
+                    int column = studentTable.convertColumnIndexToModel(studentTable.columnAtPoint(e.getPoint()));
+                    if (column >= 0) {
+                        sortStudentTable((StudentTableModel) tableModel, StudentQuery.SortColumn.forTableColumn(column));
+                    }
+                }
+            });
+        }
+
         JScrollPane scrollPane = new JScrollPane(studentTable);
 
         // Button Panel
@@ -105,6 +305,17 @@ public class MainWindow extends JFrame {
         return panel;
     }
 
+    private void sortStudentTable(StudentTableModel model, StudentQuery.SortColumn column) {
+        boolean descending = model.getSortColumn() == column && !model.isDescending();
+        runAsync(model.sortBy(column, descending), count -> {
+            for (int i = 0; i < studentTable.getColumnCount(); i++) {
+                javax.swing.table.TableColumn tableColumn = studentTable.getColumnModel().getColumn(i);
+                tableColumn.setHeaderValue(model.getColumnName(tableColumn.getModelIndex()));
+            }
+            studentTable.getTableHeader().repaint();
+        });
+    }
+
     private JPanel createAddPanel() {
         JPanel panel = new JPanel();
         panel.setLayout(new GridBagLayout());
@@ -142,19 +353,21 @@ public class MainWindow extends JFrame {
                     phoneField.getText(),
                     Double.parseDouble(marksField.getText())
                 );
-                if (studentDAO.addStudent(student)) {
-                    JOptionPane.showMessageDialog(panel, "Student added successfully!");
-                    nameField.setText("");
-                    rollNoField.setText("");
-                    departmentField.setText("");
-                    emailField.setText("");
-                    phoneField.setText("");
-                    marksField.setText("");
-                    loadStudents();
-                    refreshStatistics();
-                } else {
-                    JOptionPane.showMessageDialog(panel, "Error adding student!");
-                }
+                addButton.setEnabled(false);
+                runAsync(studentService.addStudent(student), added -> {
+                    addButton.setEnabled(true);
+                    if (added) {
+                        JOptionPane.showMessageDialog(panel, "Student added successfully!");
+                        nameField.setText("");
+                        rollNoField.setText("");
+                        departmentField.setText("");
+                        emailField.setText("");
+                        phoneField.setText("");
+                        marksField.setText("");
+                    } else {
+                        JOptionPane.showMessageDialog(panel, "Error adding student!");
+                    }
+                }, () -> addButton.setEnabled(true));
             } catch (NumberFormatException ex) {
                 JOptionPane.showMessageDialog(panel, "Marks must be a number!");
             }
@@ -175,33 +388,53 @@ public class MainWindow extends JFrame {
         searchPanel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
 
         JTextField searchField = new JTextField(20);
+        searchField.setToolTipText("A single letter finds names that start with it; longer text finds names that contain it");
         JComboBox<String> searchType = new JComboBox<>(new String[]{"Name", "Department", "Roll No"});
         JButton searchButton = createButton("Search");
         JButton refreshAllButton = createButton("Show All");
+        JCheckBox instantBox = new JCheckBox("Instant");
+        instantBox.setBackground(new Color(236, 240, 241));
+        instantBox.setToolTipText("Filter as you type from an in-memory index of name, roll no, email and department");
+
+        // Debounce keystrokes, then filter from the in-memory index
+        Timer instantTimer = new Timer(150, e -> {
+            if (instantBox.isSelected() && searchIndex != null) {
+                displaySearchResults(searchIndex.search(searchField.getText(), INSTANT_SEARCH_LIMIT));
+            }
+        });
+        instantTimer.setRepeats(false);
+        searchField.getDocument().addDocumentListener(new javax.swing.event.DocumentListener() {
+            @Override
+            public void insertUpdate(javax.swing.event.DocumentEvent e) { instantTimer.restart(); }
+            @Override
+            public void removeUpdate(javax.swing.event.DocumentEvent e) { instantTimer.restart(); }
+            @Override
+            public void changedUpdate(javax.swing.event.DocumentEvent e) { instantTimer.restart(); }
+        });
+        instantBox.addActionListener(e -> {
+            if (instantBox.isSelected() && searchIndex == null) {
+                buildSearchIndex(instantTimer::restart);
+            }
+        });
 
         searchButton.addActionListener(e -> {
             String query = searchField.getText();
             String type = (String) searchType.getSelectedItem();
-            List<Student> results = null;
-
-            if (type.equals("Name")) {
-                results = studentDAO.searchByName(query);
-            } else if (type.equals("Department")) {
-                results = studentDAO.searchByDepartment(query);
-            } else if (type.equals("Roll No")) {
-                Student student = studentDAO.searchByRollNo(query);
-                if (student != null) {
-                    results = new java.util.ArrayList<>();
-                    results.add(student);
-                }
+            if (type.equals("Department")) {
+                // A department can be large; stream it instead of building the whole list
+                streamSearchResults(query, null);
+            } else if (type.equals("Name")) {
+                // A blank name lists everyone, without a limit
+                int limit = query.trim().isEmpty() ? Integer.MAX_VALUE : StudentDAO.getSearchLimit();
+                runAsync(studentService.search(type, query), students -> displaySearchResults(students, limit));
+            } else {
+                runAsync(studentService.search(type, query), this::displaySearchResults);
             }
-
-            displaySearchResults(results);
         });
 
         refreshAllButton.addActionListener(e -> {
             searchField.setText("");
-            displaySearchResults(studentDAO.getAllStudents());
+            streamSearchResults(null, null);
         });
 
         searchPanel.add(new JLabel("Search by:"));
@@ -211,6 +444,82 @@ public class MainWindow extends JFrame {
         searchPanel.add(searchButton);
         searchPanel.add(Box.createHorizontalStrut(5));
         searchPanel.add(refreshAllButton);
+        searchPanel.add(instantBox);
+
+        // Combined filters, run as one query in the database
+        JPanel filterPanel = new JPanel();
+        filterPanel.setBackground(new Color(236, 240, 241));
+        filterPanel.setBorder(BorderFactory.createEmptyBorder(0, 10, 10, 10));
+        JTextField departmentsField = new JTextField(14);
+        departmentsField.setToolTipText("One or more departments, separated by commas");
+        JTextField minMarksField = new JTextField(4);
+        JTextField maxMarksField = new JTextField(4);
+        JTextField prefixField = new JTextField(8);
+        JTextField createdFromField = new JTextField(7);
+        JTextField createdToField = new JTextField(7);
+        createdFromField.setToolTipText("yyyy-mm-dd");
+        createdToField.setToolTipText("yyyy-mm-dd, exclusive");
+        JComboBox<StudentQuery.SortColumn> sortBox = new JComboBox<>(StudentQuery.SortColumn.values());
+        JCheckBox descendingBox = new JCheckBox("Desc");
+        descendingBox.setBackground(new Color(236, 240, 241));
+        JButton filterButton = createButton("Filter");
+
+        filterButton.addActionListener(e -> {
+            StudentQuery query;
+            try {
+                List<String> departments = new java.util.ArrayList<>();
+                for (String department : departmentsField.getText().split(",")) {
+                    if (!department.trim().isEmpty()) {
+                        departments.add(department.trim());
+                    }
+                }
+                query = StudentQuery.builder()
+                    .departmentIn(departments)
+                    .marksBetween(parseMarks(minMarksField), parseMarks(maxMarksField))
+                    .namePrefix(prefixField.getText().trim())
+                    .createdBetween(parseDate(createdFromField), parseDate(createdToField))
+                    .orderBy((StudentQuery.SortColumn) sortBox.getSelectedItem(), descendingBox.isSelected())
+                    .build();
+            } catch (java.time.format.DateTimeParseException | NumberFormatException ex) {
+                JOptionPane.showMessageDialog(this, "Invalid filter: " + ex.getMessage(), "Filter", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+            runAsync(studentService.query(query), students -> {
+                displaySearchResults(students);
+                if (students.size() < query.getLimit()) {
+                    return;
+                }
+                // Stopped at the limit: say how many match in all
+                int generation = searchGeneration;
+                runAsync(studentService.count(query), total -> {
+                    if (generation == searchGeneration && total > students.size()) {
+                        searchNoticeLabel.setText("Showing " + students.size() + " of " + total
+                            + " matches. Refine the filters to see the rest.");
+                    }
+                });
+            });
+        });
+
+        filterPanel.add(new JLabel("Departments:"));
+        filterPanel.add(departmentsField);
+        filterPanel.add(new JLabel(" Marks:"));
+        filterPanel.add(minMarksField);
+        filterPanel.add(new JLabel("-"));
+        filterPanel.add(maxMarksField);
+        filterPanel.add(new JLabel(" Name starts:"));
+        filterPanel.add(prefixField);
+        filterPanel.add(new JLabel(" Created:"));
+        filterPanel.add(createdFromField);
+        filterPanel.add(new JLabel("-"));
+        filterPanel.add(createdToField);
+        filterPanel.add(new JLabel(" Sort:"));
+        filterPanel.add(sortBox);
+        filterPanel.add(descendingBox);
+        filterPanel.add(filterButton);
+
+        JPanel criteriaPanel = new JPanel(new BorderLayout());
+        criteriaPanel.add(searchPanel, BorderLayout.NORTH);
+        criteriaPanel.add(filterPanel, BorderLayout.SOUTH);
 
         // Results Table
         String[] columns = {"ID", "Name", "Roll No", "Department", "Email", "Phone", "Marks"};
@@ -221,80 +530,446 @@ public class MainWindow extends JFrame {
         searchTable.setRowHeight(25);
 
         JScrollPane scrollPane = new JScrollPane(searchTable);
+        searchNoticeLabel = new JLabel(" ");
+        searchNoticeLabel.setBorder(BorderFactory.createEmptyBorder(5, 10, 5, 10));
 
-        panel.add(searchPanel, BorderLayout.NORTH);
+        panel.add(criteriaPanel, BorderLayout.NORTH);
         panel.add(scrollPane, BorderLayout.CENTER);
+        panel.add(searchNoticeLabel, BorderLayout.SOUTH);
 
         return panel;
     }
 
-    private JPanel createStatisticsPanel() {
-        statisticsPanel = new JPanel();
-        statisticsPanel.setLayout(new GridBagLayout());
-        statisticsPanel.setBackground(new Color(236, 240, 241));
-        
-        updateStatisticsPanel();
-        
-        return statisticsPanel;
+    // Blank means no bound
+    private static Double parseMarks(JTextField field) {
+        String text = field.getText().trim();
+        return text.isEmpty() ? null : Double.valueOf(text);
     }
 
-    private void updateStatisticsPanel() {
-        statisticsPanel.removeAll();
-        
-        GridBagConstraints gbc = new GridBagConstraints();
-        gbc.insets = new Insets(20, 20, 20, 20);
+    // Start of the day entered, or null if blank
+    private static java.time.LocalDateTime parseDate(JTextField field) {
+        String text = field.getText().trim();
+        return text.isEmpty() ? null : java.time.LocalDate.parse(text).atStartOfDay();
+    }
 
-        Color statColor = new Color(41, 128, 185);
+    // Load the in-memory search index in the background, then run onReady on the EDT
+    private void buildSearchIndex(Runnable onReady) {
+        runAsync(studentService.submit(() -> {
+            try {
+                return StudentSearchIndex.build(studentDAO);
+            } catch (java.sql.SQLException ex) {
+                throw new IllegalStateException(ex.getMessage(), ex);
+            }
+        }), index -> {
+            searchIndex = index;
+            if (onReady != null) {
+                onReady.run();
+            }
+        });
+    }
 
-        // Total Students
-        gbc.gridx = 0;
-        gbc.gridy = 0;
-        addStatCard(statisticsPanel, gbc, "Total Students", String.valueOf(studentDAO.getTotalStudents()), statColor);
+    private JPanel createImportPanel() {
+        JPanel panel = new JPanel();
+        panel.setLayout(new BorderLayout());
+        panel.setBackground(new Color(236, 240, 241));
 
-        // Highest Marks
-        gbc.gridx = 1;
-        addStatCard(statisticsPanel, gbc, "Highest Marks", String.format("%.2f", studentDAO.getHighestMarks()), statColor);
+        // Import Options Panel
+        JPanel optionsPanel = new JPanel();
+        optionsPanel.setBackground(new Color(236, 240, 241));
+        optionsPanel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+
+        JTextField fileField = new JTextField(30);
+        fileField.setEditable(false);
+        JButton browseButton = createButton("Browse...");
+        JSpinner chunkSizeSpinner = new JSpinner(new SpinnerNumberModel(1000, 1, 100_000, 500));
+        JButton importButton = createButton("Import");
+        JButton cancelButton = createButton("Cancel");
+        cancelButton.setEnabled(false);
+
+        JProgressBar progressBar = new JProgressBar();
+        progressBar.setStringPainted(true);
+        progressBar.setString("");
+
+        JTextArea reportArea = new JTextArea();
+        reportArea.setEditable(false);
+        reportArea.setFont(new Font("Monospaced", Font.PLAIN, 12));
+
+        browseButton.addActionListener(e -> {
+            JFileChooser chooser = new JFileChooser();
+            chooser.setFileFilter(new javax.swing.filechooser.FileNameExtensionFilter("CSV files", "csv", "gz"));
+            if (chooser.showOpenDialog(this) == JFileChooser.APPROVE_OPTION) {
+                fileField.setText(chooser.getSelectedFile().getAbsolutePath());
+            }
+        });
 
-        // Lowest Marks
-        gbc.gridx = 2;
-        addStatCard(statisticsPanel, gbc, "Lowest Marks", String.format("%.2f", studentDAO.getLowestMarks()), statColor);
+        AtomicBoolean cancelRequested = new AtomicBoolean();
+        cancelButton.addActionListener(e -> cancelRequested.set(true));
 
-        // Average Marks
-        gbc.gridx = 0;
-        gbc.gridy = 1;
-        addStatCard(statisticsPanel, gbc, "Average Marks", String.format("%.2f", studentDAO.getAverageMarks()), statColor);
+        importButton.addActionListener(e -> {
+            String path = fileField.getText();
+            if (path.isEmpty()) {
+                JOptionPane.showMessageDialog(panel, "Please choose a CSV file to import!");
+                return;
+            }
+            StudentImporter importer = new StudentImporter(studentDAO, (Integer) chunkSizeSpinner.getValue());
+            cancelRequested.set(false);
+            importButton.setEnabled(false);
+            cancelButton.setEnabled(true);
+            progressBar.setIndeterminate(true);
+            progressBar.setString("Importing...");
+            reportArea.setText("");
+
+            CompletableFuture<ImportReport> result = studentService.submit(() -> {
+                try (Reader reader = openCsv(Paths.get(path))) {
+                    return importer.importCsv(reader,
+                        rows -> SwingUtilities.invokeLater(() -> progressBar.setString(rows + " rows processed")),
+                        cancelRequested::get);
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+            Runnable reset = () -> {
+                importButton.setEnabled(true);
+                cancelButton.setEnabled(false);
+                progressBar.setIndeterminate(false);
+                progressBar.setString("");
+            };
+            runAsync(result, report -> {
+                reset.run();
+                reportArea.setText(report.summary());
+                reportArea.setCaretPosition(0);
+            }, reset);
+        });
 
-        statisticsPanel.revalidate();
-        statisticsPanel.repaint();
+        optionsPanel.add(new JLabel("CSV file:"));
+        optionsPanel.add(fileField);
+        optionsPanel.add(browseButton);
+        optionsPanel.add(new JLabel("  Batch size:"));
+        optionsPanel.add(chunkSizeSpinner);
+        optionsPanel.add(importButton);
+        optionsPanel.add(Box.createHorizontalStrut(5));
+        optionsPanel.add(cancelButton);
+
+        JPanel reportPanel = new JPanel(new BorderLayout(0, 5));
+        reportPanel.setBackground(new Color(236, 240, 241));
+        reportPanel.setBorder(BorderFactory.createEmptyBorder(0, 10, 10, 10));
+        reportPanel.add(progressBar, BorderLayout.NORTH);
+        reportPanel.add(new JScrollPane(reportArea), BorderLayout.CENTER);
+
+        panel.add(optionsPanel, BorderLayout.NORTH);
+        panel.add(reportPanel, BorderLayout.CENTER);
+
+        return panel;
     }
 
-    private void refreshStatistics() {
-        if (statisticsPanel != null) {
-            updateStatisticsPanel();
+    private JPanel createExportPanel() {
+        JPanel panel = new JPanel();
+        panel.setLayout(new BorderLayout());
+        panel.setBackground(new Color(236, 240, 241));
+
+        // Export Options Panel
+        JPanel optionsPanel = new JPanel();
+        optionsPanel.setBackground(new Color(236, 240, 241));
+        optionsPanel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+
+        JComboBox<String> filterType = new JComboBox<>(new String[]{"All", "Department", "Name"});
+        JTextField filterField = new JTextField(20);
+        JCheckBox gzipBox = new JCheckBox("Gzip");
+        gzipBox.setBackground(new Color(236, 240, 241));
+        JButton exportButton = createButton("Export...");
+        JButton cancelButton = createButton("Cancel");
+        cancelButton.setEnabled(false);
+
+        JProgressBar progressBar = new JProgressBar();
+        progressBar.setStringPainted(true);
+        progressBar.setString("");
+        JLabel resultLabel = new JLabel(" ");
+
+        AtomicBoolean cancelRequested = new AtomicBoolean();
+        cancelButton.addActionListener(e -> cancelRequested.set(true));
+
+        exportButton.addActionListener(e -> {
+            String type = (String) filterType.getSelectedItem();
+            String department = type.equals("Department") ? filterField.getText() : null;
+            String name = type.equals("Name") ? filterField.getText() : null;
+            boolean gzip = gzipBox.isSelected();
+
+            JFileChooser chooser = new JFileChooser();
+            chooser.setSelectedFile(new java.io.File(gzip ? "students.csv.gz" : "students.csv"));
+            if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) {
+                return;
+            }
+            Path target = chooser.getSelectedFile().toPath();
+
+            cancelRequested.set(false);
+            exportButton.setEnabled(false);
+            cancelButton.setEnabled(true);
+            progressBar.setValue(0);
+            progressBar.setString("Counting rows...");
+            resultLabel.setText(" ");
+
+            StudentExporter exporter = new StudentExporter(studentDAO);
+            long start = System.nanoTime();
+            CompletableFuture<Integer> result = studentService.submit(() -> {
+                int total = studentDAO.countStudents(department, name);
+                SwingUtilities.invokeLater(() -> progressBar.setMaximum(Math.max(total, 1)));
+                try {
+                    return exporter.export(target, gzip, department, name,
+                        rows -> SwingUtilities.invokeLater(() -> {
+                            progressBar.setValue(rows);
+                            progressBar.setString(rows + " / " + total + " rows");
+                        }),
+                        cancelRequested::get);
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                } catch (java.sql.SQLException ex) {
+                    throw new IllegalStateException(ex.getMessage(), ex);
+                }
+            });
+            Runnable reset = () -> {
+                exportButton.setEnabled(true);
+                cancelButton.setEnabled(false);
+            };
+            runAsync(result, rows -> {
+                reset.run();
+                double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+                resultLabel.setText(rows < 0
+                    ? "Export cancelled."
+                    : String.format("Exported %d rows to %s in %.2f s", rows, target.getFileName(), seconds));
+            }, reset);
+        });
+
+        optionsPanel.add(new JLabel("Filter:"));
+        optionsPanel.add(filterType);
+        optionsPanel.add(filterField);
+        optionsPanel.add(gzipBox);
+        optionsPanel.add(exportButton);
+        optionsPanel.add(Box.createHorizontalStrut(5));
+        optionsPanel.add(cancelButton);
+
+        JPanel progressPanel = new JPanel(new BorderLayout(0, 5));
+        progressPanel.setBackground(new Color(236, 240, 241));
+        progressPanel.setBorder(BorderFactory.createEmptyBorder(0, 10, 10, 10));
+        progressPanel.add(progressBar, BorderLayout.NORTH);
+        progressPanel.add(resultLabel, BorderLayout.CENTER);
+
+        panel.add(optionsPanel, BorderLayout.NORTH);
+        panel.add(progressPanel, BorderLayout.CENTER);
+
+        return panel;
+    }
+
+    private JPanel createDiagnosticsPanel() {
+        JPanel panel = new JPanel();
+        panel.setLayout(new BorderLayout());
+        panel.setBackground(new Color(236, 240, 241));
+
+        String[] columns = {"Operation", "Calls", "Errors", "Rows", "Mean ms", "p50 ms", "p95 ms", "p99 ms", "Max ms"};
+        DefaultTableModel metricsModel = new DefaultTableModel(columns, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+        JTable metricsTable = new JTable(metricsModel);
+        metricsTable.setFont(new Font("Arial", Font.PLAIN, 11));
+        metricsTable.getTableHeader().setFont(new Font("Arial", Font.BOLD, 11));
+        JLabel poolLabel = new JLabel(" ");
+
+        // Buttons Panel
+        JPanel buttonPanel = new JPanel();
+        buttonPanel.setBackground(new Color(236, 240, 241));
+        JButton refreshButton = createButton("Refresh");
+        JButton jsonButton = createButton("Export JSON...");
+        JButton prometheusButton = createButton("Export Prometheus...");
+
+        Runnable refresh = () -> {
+            metricsModel.setRowCount(0);
+            for (OperationMetrics op : DaoMetrics.operations()) {
+                metricsModel.addRow(latencyRow(op.getName(), op.getCalls(), op.getErrors(), op.getRows(), op.getLatency()));
+            }
+            LatencyHistogram acquire = DaoMetrics.connectionAcquire();
+            metricsModel.addRow(latencyRow("(connection acquire)", acquire.getCount(), 0, 0, acquire));
+            PoolMetrics pool = DatabaseConnection.getPoolMetrics();
+            StringBuilder status = new StringBuilder(String.format(
+                "Pool: %d active, %d idle, %d / %d connections, %d timeouts, avg wait %.2f ms",
+                pool.getActive(), pool.getIdle(), pool.getTotal(), pool.getMaxSize(), pool.getTimeoutCount(),
+                pool.getAverageWaitMillis()));
+            ReplicaSet replicas = DatabaseConnection.getReplicaSet();
+            for (ReplicaSet.Status replica : replicas.getStatus()) {
+                status.append(String.format("  |  %s: %s, %d reads", replica.getName(),
+                    replica.isHealthy() ? "up" : "down", replica.getReads()));
+            }
+            if (!replicas.isEmpty()) {
+                status.append(String.format("  |  primary reads: %d after writes, %d fallback",
+                    replicas.getStickyReads(), replicas.getFallbackReads()));
+            }
+            poolLabel.setText(status.toString());
+        };
+        refreshButton.addActionListener(e -> refresh.run());
+        jsonButton.addActionListener(e ->
+            exportMetrics("student-metrics.json", MetricsExporter.toJson(DatabaseConnection.getPoolMetrics())));
+        prometheusButton.addActionListener(e ->
+            exportMetrics("student-metrics.prom", MetricsExporter.toPrometheus(DatabaseConnection.getPoolMetrics())));
+
+        // Refresh whenever the tab is opened
+        tabbedPane.addChangeListener(e -> {
+            if (tabbedPane.getSelectedComponent() == panel) {
+                refresh.run();
+            }
+        });
+
+        buttonPanel.add(refreshButton);
+        buttonPanel.add(jsonButton);
+        buttonPanel.add(prometheusButton);
+
+        JPanel poolPanel = new JPanel(new BorderLayout());
+        poolPanel.setBackground(new Color(236, 240, 241));
+        poolPanel.setBorder(BorderFactory.createEmptyBorder(5, 10, 5, 10));
+        poolPanel.add(poolLabel, BorderLayout.CENTER);
+
+        panel.add(poolPanel, BorderLayout.NORTH);
+        panel.add(new JScrollPane(metricsTable), BorderLayout.CENTER);
+        panel.add(buttonPanel, BorderLayout.SOUTH);
+
+        return panel;
+    }
+
+    private static Object[] latencyRow(String name, long calls, long errors, long rows, LatencyHistogram latency) {
+        return new Object[]{
+            name, calls, errors, rows,
+            String.format("%.3f", latency.getMeanNanos() / 1_000_000.0),
+            String.format("%.3f", latency.getPercentileNanos(50) / 1_000_000.0),
+            String.format("%.3f", latency.getPercentileNanos(95) / 1_000_000.0),
+            String.format("%.3f", latency.getPercentileNanos(99) / 1_000_000.0),
+            String.format("%.3f", latency.getMaxNanos() / 1_000_000.0)
+        };
+    }
+
+    private void exportMetrics(String defaultName, String content) {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setSelectedFile(new java.io.File(defaultName));
+        if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        try {
+            MetricsExporter.writeTo(chooser.getSelectedFile().toPath(), content);
+        } catch (IOException ex) {
+            JOptionPane.showMessageDialog(this, "Error writing metrics: " + ex.getMessage());
         }
     }
 
-    private void addStatCard(JPanel panel, GridBagConstraints gbc, String title, String value, Color color) {
-        JPanel card = new JPanel();
-        card.setLayout(new GridLayout(2, 1));
-        card.setBackground(color);
-        card.setPreferredSize(new Dimension(150, 100));
-        card.setBorder(BorderFactory.createLineBorder(Color.DARK_GRAY, 1));
+    private static Reader openCsv(Path path) throws IOException {
+        InputStream in = Files.newInputStream(path);
+        if (path.getFileName().toString().endsWith(".gz")) {
+            in = new GZIPInputStream(in, 64 * 1024);
+        }
+        return new InputStreamReader(in, StandardCharsets.UTF_8);
+    }
 
-        JLabel titleLabel = new JLabel(title);
-        titleLabel.setFont(new Font("Arial", Font.BOLD, 12));
-        titleLabel.setForeground(Color.WHITE);
-        titleLabel.setHorizontalAlignment(JLabel.CENTER);
+    private JPanel createStatisticsPanel() {
+        statisticsPanel = new StatisticsPanel();
+        
+        // The full analysis reads every row; start from the cached summary until the tab is opened
+        showStatisticsSummary();
+        
+        return statisticsPanel;
+    }
 
-        JLabel valueLabel = new JLabel(value);
-        valueLabel.setFont(new Font("Arial", Font.BOLD, 18));
-        valueLabel.setForeground(Color.WHITE);
-        valueLabel.setHorizontalAlignment(JLabel.CENTER);
+    // Full analysis while the Statistics tab is showing; otherwise the cached summary,
+    // with the analysis left for when the tab is opened
+    private void updateStatistics() {
+        if (statisticsPanel.isShowing()) {
+            refreshStatistics();
+        } else {
+            showStatisticsSummary();
+        }
+    }
 
-        card.add(titleLabel);
-        card.add(valueLabel);
+    private void showStatisticsSummary() {
+        int requested = ++statisticsGeneration;
+        statisticsStale = true;
+        runAsync(studentService.getStatistics(), stats -> {
+            if (requested == statisticsGeneration) {
+                // Nothing left to apply changes to until the next full analysis seeds it again
+                runningStatistics = null;
+                statisticsPanel.showSummary(stats);
+            }
+        });
+    }
+
+    private void refreshStatistics() {
+        if (statisticsPanel == null) {
+            return;
+        }
+        // Only the latest request may repaint, so a slow stale analysis cannot overwrite a newer one
+        int requested = ++statisticsGeneration;
+        statisticsStale = false;
+        CompletableFuture<MarksAnalytics> analytics = tableModel instanceof StudentSnapshotTableModel
+            // Analyse the snapshot already in memory; loadStudents() calls back in after each reload
+            ? studentService.analyze(((StudentSnapshotTableModel) tableModel).getSnapshot())
+            : studentService.getAnalytics();
+        runAsync(analytics, stats -> {
+            if (requested == statisticsGeneration) {
+                runningStatistics = new RunningStatistics(stats);
+                statisticsPanel.showAnalytics(stats);
+            }
+        });
+    }
+
+    // Apply one committed change to the table, the search index and the running
+    // statistics. Anything that cannot be applied in place falls back to a coalesced
+    // reload; percentiles and rankings follow in a delayed full analysis.
+    private void applyChange(StudentChangeEvent event) {
+        StudentChangeEvent.Type type = event.getType();
+        if (searchIndex != null) {
+            if (type == StudentChangeEvent.Type.DELETED) {
+                searchIndex.remove(event.getStudent().getId());
+            } else if (type == StudentChangeEvent.Type.RELOADED) {
+                searchIndexStale = true;
+            } else {
+                searchIndex.upsert(event.getStudent());
+            }
+        }
+        if (!tableModel.applyChange(event) || type == StudentChangeEvent.Type.RELOADED) {
+            // Reloading refreshes the statistics too
+            reloadTimer.restart();
+            return;
+        }
+        if (runningStatistics != null && runningStatistics.apply(event)) {
+            statisticsPanel.showRunning(runningStatistics);
+        }
+        fullStatisticsTimer.restart();
+    }
 
-        panel.add(card, gbc);
+    // Run a background DAO call and deliver its result on the EDT, showing the busy
+    // indicator meanwhile. Cancelled (superseded) calls are dropped silently.
+    private <T> void runAsync(CompletableFuture<T> future, Consumer<T> onSuccess) {
+        runAsync(future, onSuccess, () -> { });
+    }
+
+    private <T> void runAsync(CompletableFuture<T> future, Consumer<T> onSuccess, Runnable onFailure) {
+        setBusy(true);
+        future.whenComplete((result, error) -> SwingUtilities.invokeLater(() -> {
+            setBusy(false);
+            if (future.isCancelled()) {
+                return;
+            }
+            if (error != null) {
+                onFailure.run();
+                Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                JOptionPane.showMessageDialog(this, "Operation failed: " + cause.getMessage());
+                return;
+            }
+            onSuccess.accept(result);
+        }));
+    }
+
+    private void setBusy(boolean busy) {
+        busyCount += busy ? 1 : -1;
+        boolean showBusy = busyCount > 0;
+        busyIndicator.setVisible(showBusy);
+        setCursor(showBusy ? Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR) : Cursor.getDefaultCursor());
     }
 
     private void addFormRow(JPanel panel, GridBagConstraints gbc, String label, JTextField field, int row) {
@@ -320,24 +995,59 @@ public class MainWindow extends JFrame {
     }
 
     private void loadStudents() {
-        tableModel.setRowCount(0);
-        List<Student> students = studentDAO.getAllStudents();
-        for (Student student : students) {
-            tableModel.addRow(new Object[]{
-                student.getId(),
-                student.getName(),
-                student.getRollNo(),
-                student.getDepartment(),
-                student.getEmail(),
-                student.getPhone(),
-                student.getMarks()
-            });
+        runAsync(tableModel.refresh(), count -> {
+            if (tableModel instanceof StudentSnapshotTableModel) {
+                updateStatistics();
+            }
+        });
+    }
+
+    // Replace the search results with rows streamed from the database a chunk at a time
+    private void streamSearchResults(String department, String name) {
+        cancelStreamedSearch();
+        studentService.cancelSearch();
+        searchTableModel.setRowCount(0);
+        searchNoticeLabel.setText(" ");
+        searchGeneration++;
+        setBusy(true);
+        // A cancelled subscriber never calls back, so this is always the current one
+        streamedSearch = new StudentTableSubscriber(searchTableModel, SEARCH_MAX_ROWS, error -> {
+            boolean truncated = streamedSearch.isTruncated();
+            streamedSearch = null;
+            setBusy(false);
+            if (error != null) {
+                JOptionPane.showMessageDialog(this, "Operation failed: " + error.getMessage());
+            } else if (truncated) {
+                searchNoticeLabel.setText("Showing the first " + SEARCH_MAX_ROWS
+                    + " students. Refine your search to see the rest.");
+            }
+        });
+        studentService.publishStudents(department, name).subscribe(streamedSearch);
+    }
+
+    private void cancelStreamedSearch() {
+        if (streamedSearch != null) {
+            streamedSearch.cancel();
+            streamedSearch = null;
+            setBusy(false);
         }
     }
 
     private void displaySearchResults(List<Student> students) {
+        displaySearchResults(students, Integer.MAX_VALUE);
+    }
+
+    // Shows at most limit rows; a longer list means the search stopped at its limit
+    private void displaySearchResults(List<Student> students, int limit) {
+        cancelStreamedSearch();
         searchTableModel.setRowCount(0);
+        searchNoticeLabel.setText(" ");
+        searchGeneration++;
         if (students != null) {
+            if (students.size() > limit) {
+                students = students.subList(0, limit);
+                searchNoticeLabel.setText("Showing the first " + limit + " matches. Refine your search to see the rest.");
+            }
             for (Student student : students) {
                 searchTableModel.addRow(new Object[]{
                     student.getId(),
@@ -354,15 +1064,15 @@ public class MainWindow extends JFrame {
 
     private void deleteSelectedStudent() {
         int selectedRow = studentTable.getSelectedRow();
-        if (selectedRow != -1) {
-            int id = (int) tableModel.getValueAt(selectedRow, 0);
-            if (studentDAO.deleteStudent(id)) {
-                JOptionPane.showMessageDialog(this, "Student deleted successfully!");
-                loadStudents();
-                refreshStatistics();
-            } else {
-                JOptionPane.showMessageDialog(this, "Error deleting student!");
-            }
+        Student selected = selectedRow != -1 ? tableModel.getStudentAt(selectedRow) : null;
+        if (selected != null) {
+            runAsync(studentService.deleteStudent(selected.getId()), deleted -> {
+                if (deleted) {
+                    JOptionPane.showMessageDialog(this, "Student deleted successfully!");
+                } else {
+                    JOptionPane.showMessageDialog(this, "Error deleting student!");
+                }
+            });
         } else {
             JOptionPane.showMessageDialog(this, "Please select a student to delete!");
         }
@@ -370,79 +1080,140 @@ public class MainWindow extends JFrame {
 
     private void openUpdateDialog() {
         int selectedRow = studentTable.getSelectedRow();
-        if (selectedRow != -1) {
-            int id = (int) tableModel.getValueAt(selectedRow, 0);
-            Student student = getStudentById(id);
-
-            if (student != null) {
-                JDialog dialog = new JDialog(this, "Update Student", true);
-                dialog.setSize(400, 350);
-                dialog.setLocationRelativeTo(this);
-
-                JPanel panel = new JPanel();
-                panel.setLayout(new GridBagLayout());
-                panel.setBackground(new Color(236, 240, 241));
-                GridBagConstraints gbc = new GridBagConstraints();
-                gbc.insets = new Insets(8, 8, 8, 8);
-
-                JTextField nameField = new JTextField(student.getName(), 20);
-                JTextField rollNoField = new JTextField(student.getRollNo(), 20);
-                JTextField departmentField = new JTextField(student.getDepartment(), 20);
-                JTextField emailField = new JTextField(student.getEmail(), 20);
-                JTextField phoneField = new JTextField(student.getPhone(), 20);
-                JTextField marksField = new JTextField(String.valueOf(student.getMarks()), 20);
-
-                addFormRow(panel, gbc, "Name:", nameField, 0);
-                addFormRow(panel, gbc, "Roll No:", rollNoField, 1);
-                addFormRow(panel, gbc, "Department:", departmentField, 2);
-                addFormRow(panel, gbc, "Email:", emailField, 3);
-                addFormRow(panel, gbc, "Phone:", phoneField, 4);
-                addFormRow(panel, gbc, "Marks:", marksField, 5);
-
-                gbc.gridx = 0;
-                gbc.gridy = 6;
-                gbc.gridwidth = 2;
-                JButton updateButton = createButton("Update");
-                updateButton.addActionListener(e -> {
-                    try {
-                        Student updatedStudent = new Student(
-                            id,
-                            nameField.getText(),
-                            rollNoField.getText(),
-                            departmentField.getText(),
-                            emailField.getText(),
-                            phoneField.getText(),
-                            Double.parseDouble(marksField.getText())
-                        );
-                        if (studentDAO.updateStudent(updatedStudent)) {
-                            JOptionPane.showMessageDialog(dialog, "Student updated successfully!");
-                            loadStudents();
-                            refreshStatistics();
-                            dialog.dispose();
-                        } else {
-                            JOptionPane.showMessageDialog(dialog, "Error updating student!");
-                        }
-                    } catch (NumberFormatException ex) {
-                        JOptionPane.showMessageDialog(dialog, "Marks must be a number!");
-                    }
-                });
-                panel.add(updateButton, gbc);
-
-                dialog.add(panel);
-                dialog.setVisible(true);
-            }
+        Student selected = selectedRow != -1 ? tableModel.getStudentAt(selectedRow) : null;
+        if (selected != null) {
+            runAsync(studentService.findById(selected.getId()), student -> {
+                if (student != null) {
+                    showUpdateDialog(student);
+                }
+            });
         } else {
             JOptionPane.showMessageDialog(this, "Please select a student to update!");
         }
     }
 
-    private Student getStudentById(int id) {
-        List<Student> students = studentDAO.getAllStudents();
-        for (Student student : students) {
-            if (student.getId() == id) {
-                return student;
+    private void showUpdateDialog(Student student) {
+        JDialog dialog = new JDialog(this, "Update Student", true);
+        dialog.setSize(400, 350);
+        dialog.setLocationRelativeTo(this);
+
+        JPanel panel = new JPanel();
+        panel.setLayout(new GridBagLayout());
+        panel.setBackground(new Color(236, 240, 241));
+        GridBagConstraints gbc = new GridBagConstraints();
+        gbc.insets = new Insets(8, 8, 8, 8);
+
+        JTextField nameField = new JTextField(student.getName(), 20);
+        JTextField rollNoField = new JTextField(student.getRollNo(), 20);
+        JTextField departmentField = new JTextField(student.getDepartment(), 20);
+        JTextField emailField = new JTextField(student.getEmail(), 20);
+        JTextField phoneField = new JTextField(student.getPhone(), 20);
+        // Blank for a NULL mark, which stays NULL unless a value is typed in
+        JTextField marksField = new JTextField(student.hasMarks() ? String.valueOf(student.getMarks()) : "", 20);
+
+        addFormRow(panel, gbc, "Name:", nameField, 0);
+        addFormRow(panel, gbc, "Roll No:", rollNoField, 1);
+        addFormRow(panel, gbc, "Department:", departmentField, 2);
+        addFormRow(panel, gbc, "Email:", emailField, 3);
+        addFormRow(panel, gbc, "Phone:", phoneField, 4);
+        addFormRow(panel, gbc, "Marks:", marksField, 5);
+
+        gbc.gridx = 0;
+        gbc.gridy = 6;
+        gbc.gridwidth = 2;
+        JButton updateButton = createButton("Update");
+        updateButton.addActionListener(e -> {
+            try {
+                boolean keepNull = !student.hasMarks() && marksField.getText().trim().isEmpty();
+                double marks = keepNull ? 0 : Double.parseDouble(marksField.getText());
+                // Starting from the row as loaded, only the fields edited are written
+                Student updatedStudent = new Student(student);
+                updatedStudent.setName(nameField.getText());
+                updatedStudent.setRollNo(rollNoField.getText());
+                updatedStudent.setDepartment(departmentField.getText());
+                updatedStudent.setEmail(emailField.getText());
+                updatedStudent.setPhone(phoneField.getText());
+                if (!keepNull) {
+                    updatedStudent.setMarks(marks);
+                }
+                saveUpdate(dialog, updateButton, updatedStudent);
+            } catch (NumberFormatException ex) {
+                JOptionPane.showMessageDialog(dialog, "Marks must be a number!");
+            }
+        });
+        panel.add(updateButton, gbc);
+
+        dialog.add(panel);
+        dialog.setVisible(true);
+    }
+
+    private void saveUpdate(JDialog dialog, JButton updateButton, Student updatedStudent) {
+        updateButton.setEnabled(false);
+        runAsync(studentService.updateStudent(updatedStudent), result -> {
+            updateButton.setEnabled(true);
+            switch (result) {
+                case UPDATED:
+                    JOptionPane.showMessageDialog(dialog, "Student updated successfully!");
+                    dialog.dispose();
+                    break;
+                case CONFLICT:
+                    resolveUpdateConflict(dialog, updateButton, updatedStudent);
+                    break;
+                case NOT_FOUND:
+                    JOptionPane.showMessageDialog(dialog, "This student has been deleted by another user.");
+                    dialog.dispose();
+                    break;
+                default:
+                    JOptionPane.showMessageDialog(dialog, "Error updating student!");
             }
+        }, () -> updateButton.setEnabled(true));
+    }
+
+    // The stored row with the fields edited in the dialog applied on top; the rest keep
+    // whatever the other user saved
+    private static Student withEdits(Student current, Student edited) {
+        Student merged = new Student(current);
+        if (edited.isDirty(Student.Field.NAME)) {
+            merged.setName(edited.getName());
+        }
+        if (edited.isDirty(Student.Field.ROLL_NO)) {
+            merged.setRollNo(edited.getRollNo());
+        }
+        if (edited.isDirty(Student.Field.DEPARTMENT)) {
+            merged.setDepartment(edited.getDepartment());
+        }
+        if (edited.isDirty(Student.Field.EMAIL)) {
+            merged.setEmail(edited.getEmail());
+        }
+        if (edited.isDirty(Student.Field.PHONE)) {
+            merged.setPhone(edited.getPhone());
         }
-        return null;
+        if (edited.isDirty(Student.Field.MARKS)) {
+            merged.setMarks(edited.getMarks());
+        }
+        return merged;
+    }
+
+    // Someone else saved this student after the dialog was opened
+    private void resolveUpdateConflict(JDialog dialog, JButton updateButton, Student updatedStudent) {
+        String[] options = {"Overwrite", "Reload", "Cancel"};
+        int choice = JOptionPane.showOptionDialog(dialog,
+            "Another user changed this student after you opened it.\n"
+                + "Overwrite with the fields you changed, or reload theirs?",
+            "Update Conflict", JOptionPane.YES_NO_CANCEL_OPTION, JOptionPane.WARNING_MESSAGE, null, options, options[1]);
+        if (choice == 2 || choice == JOptionPane.CLOSED_OPTION) {
+            return;
+        }
+        runAsync(studentService.findById(updatedStudent.getId()), current -> {
+            if (current == null) {
+                JOptionPane.showMessageDialog(dialog, "This student has been deleted by another user.");
+                dialog.dispose();
+            } else if (choice == 0) {
+                saveUpdate(dialog, updateButton, withEdits(current, updatedStudent));
+            } else {
+                dialog.dispose();
+                showUpdateDialog(current);
+            }
+        });
     }
 }
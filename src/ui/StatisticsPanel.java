@@ -0,0 +1,271 @@
+package ui;
+
+import models.MarksAnalytics;
+import models.StatisticsSnapshot;
+import models.Student;
+import service.RunningStatistics;
+
+import javax.swing.BorderFactory;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JTable;
+import javax.swing.table.DefaultTableModel;
+import java.awt.BorderLayout;
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Font;
+import java.awt.GridBagConstraints;
+import java.awt.GridBagLayout;
+import java.awt.GridLayout;
+import java.awt.Insets;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+// The Statistics tab. Components are built once; a full MarksAnalytics refreshes
+// every figure, and RunningStatistics updates only what it tracks (cards,
+// histogram and per-department moments) in place after a single change. Until
+// the tab is first opened it shows the DAO's cached StatisticsSnapshot summary.
+public class StatisticsPanel extends JPanel {
+    private static final String[] DEPARTMENT_COLUMNS = {
+        "Rank", "Department", "Students", "Average", "Std Dev", "Median", "90th", "Highest", "Lowest", "Top Student"
+    };
+    private static final int DEPARTMENT_COLUMN = 1;
+
+    private final JLabel totalLabel;
+    private final JLabel averageLabel;
+    private final JLabel deviationLabel;
+    private final JLabel medianLabel;
+    private final JLabel highestLabel;
+    private final JLabel lowestLabel;
+    private final JLabel quartilesLabel;
+    private final JLabel tailLabel;
+    private final HistogramChart histogram;
+    private final JLabel outOfRangeLabel = new JLabel(" ");
+    private final DefaultTableModel topModel = new DefaultTableModel(new String[]{"#", "Name", "Roll No", "Department", "Marks"}, 0);
+    private final DefaultTableModel departmentModel = new DefaultTableModel(DEPARTMENT_COLUMNS, 0);
+    private final JLabel statusLabel = new JLabel(" ");
+
+    public StatisticsPanel() {
+        setLayout(new GridBagLayout());
+        setBackground(new Color(236, 240, 241));
+
+        GridBagConstraints gbc = new GridBagConstraints();
+        gbc.insets = new Insets(8, 8, 8, 8);
+
+        Color statColor = new Color(41, 128, 185);
+
+        // Summary Cards
+        gbc.gridy = 0;
+        gbc.gridx = 0;
+        totalLabel = addStatCard(gbc, "Total Students", statColor);
+        gbc.gridx = 1;
+        averageLabel = addStatCard(gbc, "Average Marks", statColor);
+        gbc.gridx = 2;
+        deviationLabel = addStatCard(gbc, "Std Deviation", statColor);
+        gbc.gridx = 3;
+        medianLabel = addStatCard(gbc, "Median", statColor);
+
+        gbc.gridy = 1;
+        gbc.gridx = 0;
+        highestLabel = addStatCard(gbc, "Highest Marks", statColor);
+        gbc.gridx = 1;
+        lowestLabel = addStatCard(gbc, "Lowest Marks", statColor);
+        gbc.gridx = 2;
+        quartilesLabel = addStatCard(gbc, "25th - 75th", statColor);
+        gbc.gridx = 3;
+        tailLabel = addStatCard(gbc, "90th / 99th", statColor);
+
+        // Marks Distribution
+        String[] bands = new String[MarksAnalytics.HISTOGRAM_BINS];
+        for (int i = 0; i < bands.length; i++) {
+            bands[i] = String.format("%.0f-%.0f", i * MarksAnalytics.HISTOGRAM_WIDTH, (i + 1) * MarksAnalytics.HISTOGRAM_WIDTH);
+        }
+        histogram = new HistogramChart(bands, new long[bands.length], statColor);
+        JPanel histogramPanel = new JPanel(new BorderLayout());
+        histogramPanel.setBorder(BorderFactory.createTitledBorder("Marks Distribution"));
+        histogramPanel.add(histogram, BorderLayout.CENTER);
+        histogramPanel.add(outOfRangeLabel, BorderLayout.SOUTH);
+
+        gbc.gridy = 2;
+        gbc.gridx = 0;
+        gbc.gridwidth = 2;
+        gbc.fill = GridBagConstraints.BOTH;
+        add(histogramPanel, gbc);
+
+        // Top Students
+        JScrollPane topScroll = new JScrollPane(createReportTable(topModel));
+        topScroll.setBorder(BorderFactory.createTitledBorder("Top Students"));
+        topScroll.setPreferredSize(new Dimension(420, 200));
+
+        gbc.gridx = 2;
+        add(topScroll, gbc);
+
+        // Department Rankings
+        JScrollPane departmentScroll = new JScrollPane(createReportTable(departmentModel));
+        departmentScroll.setBorder(BorderFactory.createTitledBorder("Department Rankings"));
+        departmentScroll.setPreferredSize(new Dimension(860, 150));
+
+        gbc.gridy = 3;
+        gbc.gridx = 0;
+        gbc.gridwidth = 4;
+        add(departmentScroll, gbc);
+
+        gbc.gridy = 4;
+        add(statusLabel, gbc);
+    }
+
+    // Replace every figure with a full analysis
+    public void showAnalytics(MarksAnalytics stats) {
+        totalLabel.setText(String.valueOf(stats.getTotalStudents()));
+        averageLabel.setText(String.format("%.2f", stats.getAverageMarks()));
+        deviationLabel.setText(String.format("%.2f", stats.getStandardDeviation()));
+        medianLabel.setText(String.format("%.2f", stats.getMedian()));
+        highestLabel.setText(String.format("%.2f", stats.getHighestMarks()));
+        lowestLabel.setText(String.format("%.2f", stats.getLowestMarks()));
+        quartilesLabel.setText(String.format("%.1f - %.1f", stats.getPercentile(25), stats.getPercentile(75)));
+        tailLabel.setText(String.format("%.1f / %.1f", stats.getPercentile(90), stats.getPercentile(99)));
+        showHistogram(stats.getHistogram(), stats.getBelowHistogram(), stats.getAboveHistogram());
+
+        topModel.setRowCount(0);
+        int position = 1;
+        for (Student student : stats.getTopStudents()) {
+            topModel.addRow(new Object[]{
+                position++, student.getName(), student.getRollNo(), student.getDepartment(),
+                String.format("%.2f", student.getMarks())
+            });
+        }
+
+        departmentModel.setRowCount(0);
+        for (MarksAnalytics.DepartmentAnalytics dept : stats.getDepartments()) {
+            List<Student> top = dept.getTopStudents();
+            departmentModel.addRow(new Object[]{
+                dept.getRank(),
+                dept.getDepartment(),
+                dept.getTotalStudents(),
+                String.format("%.2f", dept.getAverageMarks()),
+                String.format("%.2f", dept.getStandardDeviation()),
+                String.format("%.2f", dept.getMedian()),
+                String.format("%.2f", dept.getPercentile(90)),
+                String.format("%.2f", dept.getHighestMarks()),
+                String.format("%.2f", dept.getLowestMarks()),
+                top.isEmpty() ? "" : top.get(0).getName() + " (" + String.format("%.2f", top.get(0).getMarks()) + ")"
+            });
+        }
+        statusLabel.setText(" ");
+    }
+
+    // Counts, averages and extremes from the aggregate query; the distribution,
+    // percentiles and rankings wait for a full analysis
+    public void showSummary(StatisticsSnapshot stats) {
+        totalLabel.setText(String.valueOf(stats.getTotalStudents()));
+        averageLabel.setText(String.format("%.2f", stats.getAverageMarks()));
+        highestLabel.setText(String.format("%.2f", stats.getHighestMarks()));
+        lowestLabel.setText(String.format("%.2f", stats.getLowestMarks()));
+        for (JLabel label : new JLabel[]{deviationLabel, medianLabel, quartilesLabel, tailLabel}) {
+            label.setText("-");
+        }
+        showHistogram(new long[MarksAnalytics.HISTOGRAM_BINS], 0, 0);
+        topModel.setRowCount(0);
+
+        departmentModel.setRowCount(0);
+        for (StatisticsSnapshot.DepartmentStatistics dept : stats.getDepartments().values()) {
+            departmentModel.addRow(new Object[]{
+                "", dept.getDepartment(), dept.getTotalStudents(),
+                String.format("%.2f", dept.getAverageMarks()), "", "", "",
+                String.format("%.2f", dept.getHighestMarks()),
+                String.format("%.2f", dept.getLowestMarks()), ""
+            });
+        }
+        statusLabel.setText("Summary only; the full analysis runs when this tab is open.");
+    }
+
+    // Update the running figures in place; percentiles, rankings and top students keep
+    // their last full values until showAnalytics is called again
+    public void showRunning(RunningStatistics stats) {
+        String bound = stats.isExtremesStale() ? "~" : "";
+        totalLabel.setText(String.valueOf(stats.getTotalStudents()));
+        averageLabel.setText(String.format("%.2f", stats.getAverageMarks()));
+        deviationLabel.setText(String.format("%.2f", stats.getStandardDeviation()));
+        highestLabel.setText(bound + String.format("%.2f", stats.getHighestMarks()));
+        lowestLabel.setText(bound + String.format("%.2f", stats.getLowestMarks()));
+        showHistogram(stats.getHistogram(), stats.getBelowHistogram(), stats.getAboveHistogram());
+
+        Set<String> present = new HashSet<>();
+        for (RunningStatistics.Department dept : stats.getDepartments()) {
+            present.add(dept.getName());
+            int row = departmentRow(dept.getName());
+            if (row < 0) {
+                departmentModel.addRow(new Object[]{"", dept.getName(), 0, "", "", "", "", "", "", ""});
+                row = departmentModel.getRowCount() - 1;
+            }
+            setIfChanged(row, 2, dept.getTotalStudents());
+            setIfChanged(row, 3, String.format("%.2f", dept.getAverageMarks()));
+            setIfChanged(row, 4, String.format("%.2f", dept.getStandardDeviation()));
+            setIfChanged(row, 7, bound + String.format("%.2f", dept.getHighestMarks()));
+            setIfChanged(row, 8, bound + String.format("%.2f", dept.getLowestMarks()));
+        }
+        // A department whose last student went away
+        for (int row = departmentModel.getRowCount() - 1; row >= 0; row--) {
+            if (!present.contains((String) departmentModel.getValueAt(row, DEPARTMENT_COLUMN))) {
+                departmentModel.removeRow(row);
+            }
+        }
+        statusLabel.setText("Updated incrementally; percentiles, rankings and top students refresh shortly.");
+    }
+
+    private void showHistogram(long[] counts, long below, long above) {
+        histogram.setCounts(counts);
+        outOfRangeLabel.setText(below + above > 0 ? String.format("Below 0: %d, above 100: %d", below, above) : " ");
+    }
+
+    private int departmentRow(String department) {
+        for (int row = 0; row < departmentModel.getRowCount(); row++) {
+            if (Objects.equals(departmentModel.getValueAt(row, DEPARTMENT_COLUMN), department)) {
+                return row;
+            }
+        }
+        return -1;
+    }
+
+    // Only touched cells repaint
+    private void setIfChanged(int row, int column, Object value) {
+        if (!Objects.equals(departmentModel.getValueAt(row, column), value)) {
+            departmentModel.setValueAt(value, row, column);
+        }
+    }
+
+    private JLabel addStatCard(GridBagConstraints gbc, String title, Color color) {
+        JPanel card = new JPanel();
+        card.setLayout(new GridLayout(2, 1));
+        card.setBackground(color);
+        card.setPreferredSize(new Dimension(150, 100));
+        card.setBorder(BorderFactory.createLineBorder(Color.DARK_GRAY, 1));
+
+        JLabel titleLabel = new JLabel(title);
+        titleLabel.setFont(new Font("Arial", Font.BOLD, 12));
+        titleLabel.setForeground(Color.WHITE);
+        titleLabel.setHorizontalAlignment(JLabel.CENTER);
+
+        JLabel valueLabel = new JLabel("-");
+        valueLabel.setFont(new Font("Arial", Font.BOLD, 18));
+        valueLabel.setForeground(Color.WHITE);
+        valueLabel.setHorizontalAlignment(JLabel.CENTER);
+
+        card.add(titleLabel);
+        card.add(valueLabel);
+
+        add(card, gbc);
+        return valueLabel;
+    }
+
+    private static JTable createReportTable(DefaultTableModel model) {
+        JTable table = new JTable(model);
+        table.setFont(new Font("Arial", Font.PLAIN, 11));
+        table.getTableHeader().setFont(new Font("Arial", Font.BOLD, 11));
+        table.setEnabled(false);
+        return table;
+    }
+}
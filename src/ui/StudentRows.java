@@ -0,0 +1,20 @@
+package ui;
+
+import dao.StudentChangeEvent;
+import models.Student;
+
+import javax.swing.table.TableModel;
+import java.util.concurrent.CompletableFuture;
+
+// What the View Students tab needs from its table model
+interface StudentRows extends TableModel {
+    // The student on a row, or null if it is not available yet
+    Student getStudentAt(int row);
+
+    // Reload from the database; completes on the EDT with the new row count
+    CompletableFuture<Integer> refresh();
+
+    // Apply one committed change in place, on the EDT. Returns false if the model
+    // cannot and the caller should refresh() instead.
+    boolean applyChange(StudentChangeEvent event);
+}
@@ -0,0 +1,147 @@
+package ui;
+
+import dao.StudentChangeEvent;
+import models.Student;
+import service.AsyncStudentService;
+import service.StudentSnapshot;
+import service.StudentSnapshotFile;
+
+import javax.swing.SwingUtilities;
+import javax.swing.table.AbstractTableModel;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+
+// Table model over a StudentSnapshot held entirely in memory. Cells are read
+// straight from the snapshot's columns, so no Student or row arrays are kept.
+// With a snapshot file, the last saved roster is mapped and shown at once and
+// each refresh from the database is saved back in the background. Saves go to
+// the file and a ".1" sibling by turns, never to the one this model has mapped.
+public class StudentSnapshotTableModel extends AbstractTableModel implements StudentRows {
+    private static final String[] COLUMNS = {"ID", "Name", "Roll No", "Department", "Email", "Phone", "Marks"};
+
+    private final AsyncStudentService studentService;
+    private final Path[] snapshotFiles; // null: nothing is saved
+    private int mappedFile = -1; // index into snapshotFiles, or -1 if none is mapped
+    private long savedGeneration;
+    private StudentSnapshot snapshot = StudentSnapshot.EMPTY;
+    private int generation;
+
+    public StudentSnapshotTableModel(AsyncStudentService studentService, Path snapshotFile) {
+        this.studentService = studentService;
+        if (snapshotFile == null) {
+            snapshotFiles = null;
+            return;
+        }
+        snapshotFiles = new Path[] {snapshotFile, snapshotFile.resolveSibling(snapshotFile.getFileName() + ".1")};
+        long first = StudentSnapshotFile.generation(snapshotFiles[0]);
+        long second = StudentSnapshotFile.generation(snapshotFiles[1]);
+        int newest = second > first ? 1 : 0;
+        savedGeneration = Math.max(first, second);
+        if (savedGeneration >= 0) {
+            // Mapping only touches the fixed-width columns, so this is cheap enough for the EDT
+            try {
+                snapshot = StudentSnapshotFile.open(snapshotFiles[newest]);
+                mappedFile = newest;
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Ignoring saved snapshot " + snapshotFiles[newest] + ": " + e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public CompletableFuture<Integer> refresh() {
+        int requested = ++generation;
+        CompletableFuture<Integer> applied = new CompletableFuture<>();
+        studentService.submit(() -> {
+            try {
+                return StudentSnapshot.load(studentService.getStudentDAO());
+            } catch (SQLException e) {
+                throw new IllegalStateException(e.getMessage(), e);
+            }
+        }).whenComplete((loaded, error) -> SwingUtilities.invokeLater(() -> {
+            if (error != null) {
+                applied.completeExceptionally(error);
+                return;
+            }
+            if (requested == generation) {
+                snapshot = loaded;
+                fireTableDataChanged();
+                save(loaded);
+            }
+            applied.complete(snapshot.size());
+        }));
+        return applied;
+    }
+
+    private void save(StudentSnapshot loaded) {
+        if (snapshotFiles == null) {
+            return;
+        }
+        // The mapped file stays mapped until the buffer is collected, so keep writing the other one
+        Path target = snapshotFiles[mappedFile == 0 ? 1 : 0];
+        long saved = ++savedGeneration;
+        studentService.submit(() -> {
+            try {
+                StudentSnapshotFile.write(loaded, target, saved);
+            } catch (IOException e) {
+                System.err.println("Error saving snapshot " + target + ": " + e.getMessage());
+            }
+            return null;
+        });
+    }
+
+    // The snapshot is immutable; every change is picked up by the next refresh()
+    @Override
+    public boolean applyChange(StudentChangeEvent event) {
+        return false;
+    }
+
+    public StudentSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    @Override
+    public Student getStudentAt(int row) {
+        return row >= 0 && row < snapshot.size() ? snapshot.getStudent(row) : null;
+    }
+
+    @Override
+    public int getRowCount() {
+        return snapshot.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMNS[column];
+    }
+
+    @Override
+    public Class<?> getColumnClass(int column) {
+        switch (column) {
+            case 0: return Integer.class;
+            case 6: return Double.class;
+            default: return String.class;
+        }
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        switch (column) {
+            case 0: return snapshot.getId(row);
+            case 1: return snapshot.getName(row);
+            case 2: return snapshot.getRollNo(row);
+            case 3: return snapshot.getDepartment(row);
+            case 4: return snapshot.getEmail(row);
+            case 5: return snapshot.getPhone(row);
+            case 6: return snapshot.getMarks(row);
+            default: return null;
+        }
+    }
+}
@@ -0,0 +1,375 @@
+package ui;
+
+import dao.StudentChangeEvent;
+import dao.StudentDAO;
+import dao.StudentQuery;
+import models.Student;
+import service.AsyncStudentService;
+
+import javax.swing.SwingUtilities;
+import javax.swing.table.AbstractTableModel;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+// Virtual table model over the students table. Rows are fetched a page at a time
+// with keyset pagination as they are rendered, and only the most recently used
+// pages are kept in memory. All state is touched on the EDT only; page loads run
+// on the service's worker pool and are applied back on the EDT. Sorting by another
+// column is done by the database: pages then come from StudentDAO.query, keyset
+// paged after the last row of the previous page, or by offset when that is not cached.
+public class StudentTableModel extends AbstractTableModel implements StudentRows {
+    private static final String[] COLUMNS = {"ID", "Name", "Roll No", "Department", "Email", "Phone", "Marks"};
+
+    private final AsyncStudentService studentService;
+    private final StudentDAO studentDAO;
+    private final int pageSize;
+    private final Map<Integer, Student[]> pages;
+    private final Set<Integer> pendingPages = new HashSet<>();
+    // Pending pages whose query may have run before a change was applied; reloaded on arrival
+    private final Set<Integer> stalePages = new HashSet<>();
+    private int rowCount;
+    // Bumped on refresh so pages requested before it are discarded when they arrive
+    private int generation;
+    // afterIds[p] is the keyset boundary for page p (id of the last row on page p - 1), or -1 if unknown
+    private int[] afterIds = new int[0];
+    private StudentQuery.SortColumn sortColumn = StudentQuery.SortColumn.ID;
+    private boolean descending;
+
+    public StudentTableModel(AsyncStudentService studentService, int pageSize, int maxCachedPages) {
+        this.studentService = studentService;
+        this.studentDAO = studentService.getStudentDAO();
+        this.pageSize = pageSize;
+        this.pages = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Student[]> eldest) {
+                return size() > maxCachedPages;
+            }
+        };
+    }
+
+    // Drop every cached page and re-read the row count in the background.
+    // The returned future completes on the EDT once the new count is applied.
+    // The count is a live COUNT(*) on the primary, like the pages, rather than the
+    // cached statistics total: rows added elsewhere show up, deleted ones don't linger.
+    @Override
+    public CompletableFuture<Integer> refresh() {
+        int requested = ++generation;
+        CompletableFuture<Integer> applied = new CompletableFuture<>();
+        studentService.submit(() -> studentDAO.countStudents(null, null)).whenComplete((count, error) -> SwingUtilities.invokeLater(() -> {
+            if (error != null) {
+                applied.completeExceptionally(error);
+                return;
+            }
+            if (requested == generation) {
+                pages.clear();
+                pendingPages.clear();
+                stalePages.clear();
+                rowCount = count;
+                afterIds = new int[(rowCount + pageSize - 1) / pageSize];
+                Arrays.fill(afterIds, -1);
+                if (afterIds.length > 0) {
+                    afterIds[0] = 0;
+                }
+                fireTableDataChanged();
+            }
+            applied.complete(count);
+        }));
+        return applied;
+    }
+
+    // Order rows by a column in the database and reload from the first page
+    public CompletableFuture<Integer> sortBy(StudentQuery.SortColumn column, boolean descending) {
+        this.sortColumn = column;
+        this.descending = descending;
+        return refresh();
+    }
+
+    public StudentQuery.SortColumn getSortColumn() {
+        return sortColumn;
+    }
+
+    public boolean isDescending() {
+        return descending;
+    }
+
+    // Anything but ascending id order, which has its own keyset bookkeeping below
+    private boolean isSorted() {
+        return sortColumn != StudentQuery.SortColumn.ID || descending;
+    }
+
+    // The student on a row, or null while its page is still loading
+    @Override
+    public Student getStudentAt(int row) {
+        if (row < 0 || row >= rowCount) {
+            return null;
+        }
+        int page = row / pageSize;
+        Student[] data = pages.get(page);
+        if (data == null) {
+            requestPage(page);
+            return null;
+        }
+        int index = row % pageSize;
+        return index < data.length ? data[index] : null;
+    }
+
+    private void requestPage(int page) {
+        if (!pendingPages.add(page)) {
+            return;
+        }
+        int requested = generation;
+        if (isSorted()) {
+            StudentQuery.Builder query = StudentQuery.builder().orderBy(sortColumn, descending).limit(pageSize);
+            Student[] previous = page > 0 ? pages.get(page - 1) : null;
+            if (previous != null && previous.length == pageSize) {
+                query.after(previous[pageSize - 1]);
+            } else {
+                query.offset(page * pageSize);
+            }
+            StudentQuery built = query.build();
+            studentService.submit(() -> studentDAO.query(built).toArray(new Student[0]))
+                .whenComplete((data, error) -> SwingUtilities.invokeLater(() -> pageLoaded(requested, page, data, error)));
+            return;
+        }
+        int knownAfterId = afterIds[page];
+        if (knownAfterId < 0 && page > 0) {
+            Student[] previous = pages.get(page - 1);
+            if (previous != null && previous.length > 0) {
+                knownAfterId = previous[previous.length - 1].getId();
+            }
+        }
+        int afterIdHint = knownAfterId;
+        studentService.submit(() -> {
+            int afterId = afterIdHint >= 0 ? afterIdHint : studentDAO.getIdAtOffset(page * pageSize - 1);
+            List<Student> students = afterId < 0 ? List.of() : studentDAO.getStudentsPage(afterId, pageSize);
+            return students.toArray(new Student[0]);
+        }).whenComplete((data, error) -> SwingUtilities.invokeLater(() -> pageLoaded(requested, page, data, error)));
+    }
+
+    private void pageLoaded(int requested, int page, Student[] data, Throwable error) {
+        if (requested != generation) {
+            return;
+        }
+        pendingPages.remove(page);
+        if (stalePages.remove(page)) {
+            requestPage(page);
+            return;
+        }
+        if (error != null) {
+            System.err.println("Error loading students page " + page + ": " + error.getMessage());
+            return;
+        }
+        pages.put(page, data);
+        if (!isSorted() && data.length == pageSize && page + 1 < afterIds.length) {
+            afterIds[page + 1] = data[data.length - 1].getId();
+        }
+        int firstRow = page * pageSize;
+        int lastRow = Math.min(rowCount, firstRow + pageSize) - 1;
+        if (lastRow >= firstRow) {
+            fireTableRowsUpdated(firstRow, lastRow);
+        }
+    }
+
+    @Override
+    public boolean applyChange(StudentChangeEvent event) {
+        if (isSorted()) {
+            // Only an update that keeps its place in the order is applied in place
+            return event.getType() == StudentChangeEvent.Type.UPDATED && replaceSortedRow(event.getStudent());
+        }
+        switch (event.getType()) {
+            case UPDATED:
+                stalePages.addAll(pendingPages);
+                replaceRow(event.getStudent());
+                return true;
+            case ADDED:
+                // Rows shift only at the end, but a page in flight could miss or repeat it
+                return pendingPages.isEmpty() && appendRow(event.getStudent());
+            case DELETED:
+                return pendingPages.isEmpty() && removeRow(event.getStudent().getId());
+            default:
+                return false;
+        }
+    }
+
+    private void replaceRow(Student student) {
+        for (Map.Entry<Integer, Student[]> entry : pages.entrySet()) {
+            Student[] data = entry.getValue();
+            int index = indexOfId(data, student.getId());
+            if (index >= 0) {
+                data[index] = student;
+                int row = entry.getKey() * pageSize + index;
+                fireTableRowsUpdated(row, row);
+                return;
+            }
+        }
+        // Not cached: its page is read fresh when it is next shown
+    }
+
+    private boolean replaceSortedRow(Student student) {
+        stalePages.addAll(pendingPages);
+        for (Map.Entry<Integer, Student[]> entry : pages.entrySet()) {
+            Student[] data = entry.getValue();
+            for (int index = 0; index < data.length; index++) {
+                if (data[index].getId() == student.getId()) {
+                    if (!sortColumn.valueOf(data[index]).equals(sortColumn.valueOf(student))) {
+                        return false;
+                    }
+                    data[index] = student;
+                    int row = entry.getKey() * pageSize + index;
+                    fireTableRowsUpdated(row, row);
+                    return true;
+                }
+            }
+        }
+        return true;
+    }
+
+    // New ids come from AUTO_INCREMENT, so a new student sorts last
+    private boolean appendRow(Student student) {
+        if (rowCount > 0) {
+            Student[] lastData = pages.get((rowCount - 1) / pageSize);
+            if (lastData != null && lastData.length > 0 && lastData[lastData.length - 1].getId() > student.getId()) {
+                return false;
+            }
+        }
+        int row = rowCount++;
+        int page = row / pageSize;
+        if (page == afterIds.length) {
+            afterIds = Arrays.copyOf(afterIds, page + 1);
+            Student[] previous = page > 0 ? pages.get(page - 1) : null;
+            afterIds[page] = page == 0 ? 0 : previous != null && previous.length == pageSize
+                ? previous[pageSize - 1].getId() : -1;
+        }
+        Student[] data = pages.get(page);
+        if (data != null) {
+            data = Arrays.copyOf(data, data.length + 1);
+            data[data.length - 1] = student;
+            pages.put(page, data);
+        }
+        fireTableRowsInserted(row, row);
+        return true;
+    }
+
+    // Close the gap by pulling the first row of each following cached page back one
+    // page. At the first uncached page the chain breaks: the page before it is now
+    // one row short and everything after it has shifted, so those are dropped.
+    private boolean removeRow(int id) {
+        int page = -1;
+        int index = -1;
+        for (Map.Entry<Integer, Student[]> entry : pages.entrySet()) {
+            index = indexOfId(entry.getValue(), id);
+            if (index >= 0) {
+                page = entry.getKey();
+                break;
+            }
+        }
+        if (page < 0) {
+            // Position unknown without a query
+            return false;
+        }
+        int row = page * pageSize + index;
+        Student[] data = pages.get(page);
+        Student[] shrunk = new Student[data.length - 1];
+        System.arraycopy(data, 0, shrunk, 0, index);
+        System.arraycopy(data, index + 1, shrunk, index, data.length - index - 1);
+        pages.put(page, shrunk);
+
+        int pageCount = afterIds.length;
+        int next = page + 1;
+        while (next < pageCount && pages.containsKey(next)) {
+            Student[] previous = pages.get(next - 1);
+            Student[] current = pages.get(next);
+            Student[] grown = Arrays.copyOf(previous, previous.length + 1);
+            grown[previous.length] = current[0];
+            pages.put(next - 1, grown);
+            pages.put(next, Arrays.copyOfRange(current, 1, current.length));
+            afterIds[next] = current[0].getId();
+            next++;
+        }
+        if (next < pageCount) {
+            pages.remove(next - 1);
+            for (int later = next; later < pageCount; later++) {
+                pages.remove(later);
+                afterIds[later] = -1;
+            }
+        }
+
+        rowCount--;
+        int newPageCount = (rowCount + pageSize - 1) / pageSize;
+        if (newPageCount < pageCount) {
+            pages.remove(pageCount - 1);
+            afterIds = Arrays.copyOf(afterIds, newPageCount);
+        }
+        fireTableRowsDeleted(row, row);
+        return true;
+    }
+
+    // Pages are in id order
+    private static int indexOfId(Student[] data, int id) {
+        int low = 0;
+        int high = data.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int midId = data[mid].getId();
+            if (midId < id) {
+                low = mid + 1;
+            } else if (midId > id) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNS.length;
+    }
+
+    // The sorted column carries an arrow
+    @Override
+    public String getColumnName(int column) {
+        if (!isSorted() || StudentQuery.SortColumn.forTableColumn(column) != sortColumn) {
+            return COLUMNS[column];
+        }
+        return COLUMNS[column] + (descending ? " \u25BC" : " \u25B2");
+    }
+
+    @Override
+    public Class<?> getColumnClass(int column) {
+        switch (column) {
+            case 0: return Integer.class;
+            case 6: return Double.class;
+            default: return String.class;
+        }
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        Student student = getStudentAt(row);
+        if (student == null) {
+            return column == 1 ? "Loading..." : null;
+        }
+        switch (column) {
+            case 0: return student.getId();
+            case 1: return student.getName();
+            case 2: return student.getRollNo();
+            case 3: return student.getDepartment();
+            case 4: return student.getEmail();
+            case 5: return student.getPhone();
+            case 6: return student.getMarks();
+            default: return null;
+        }
+    }
+}
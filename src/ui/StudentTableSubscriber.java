@@ -0,0 +1,130 @@
+package ui;
+
+import models.Student;
+
+import javax.swing.SwingUtilities;
+import javax.swing.table.DefaultTableModel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Flow;
+import java.util.function.Consumer;
+
+// Appends students from a Flow.Publisher to a DefaultTableModel a chunk at a time.
+// The next chunk is only requested once the EDT has added the previous one, so
+// rows never pile up between the cursor and the table however large the result.
+// onDone runs on the EDT with null on success or the failure, unless cancelled.
+class StudentTableSubscriber implements Flow.Subscriber<Student> {
+    static final int CHUNK_SIZE = 500;
+
+    private final DefaultTableModel model;
+    private final int maxRows;
+    private final Consumer<Throwable> onDone;
+    private volatile Flow.Subscription subscription;
+    private volatile boolean cancelled;
+    private volatile boolean truncated;
+    // Only touched from the publisher's signals, which never overlap
+    private List<Object[]> chunk = new ArrayList<>(CHUNK_SIZE);
+    private int received;
+    private boolean finished;
+
+    // maxRows of 0 means no limit
+    StudentTableSubscriber(DefaultTableModel model, int maxRows, Consumer<Throwable> onDone) {
+        this.model = model;
+        this.maxRows = maxRows;
+        this.onDone = onDone;
+    }
+
+    // Whether there were more than maxRows rows, so some are not shown
+    boolean isTruncated() {
+        return truncated;
+    }
+
+    // Stop loading; rows already added stay. Call on the EDT.
+    void cancel() {
+        cancelled = true;
+        Flow.Subscription s = subscription;
+        if (s != null) {
+            s.cancel();
+        }
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        this.subscription = subscription;
+        if (cancelled) {
+            subscription.cancel();
+        } else {
+            subscription.request(CHUNK_SIZE);
+        }
+    }
+
+    @Override
+    public void onNext(Student student) {
+        // Rows keep coming past maxRows only if there are more: stop at the first extra one
+        if (finished) {
+            return;
+        }
+        if (maxRows > 0 && received == maxRows) {
+            truncated = true;
+            subscription.cancel();
+            finish(null);
+            return;
+        }
+        chunk.add(new Object[]{
+            student.getId(),
+            student.getName(),
+            student.getRollNo(),
+            student.getDepartment(),
+            student.getEmail(),
+            student.getPhone(),
+            student.getMarks()
+        });
+        received++;
+        if (chunk.size() == CHUNK_SIZE) {
+            List<Object[]> full = takeChunk();
+            SwingUtilities.invokeLater(() -> {
+                if (!cancelled) {
+                    addRows(full);
+                    subscription.request(CHUNK_SIZE);
+                }
+            });
+        }
+    }
+
+    @Override
+    public void onError(Throwable error) {
+        finish(error);
+    }
+
+    @Override
+    public void onComplete() {
+        finish(null);
+    }
+
+    private void finish(Throwable error) {
+        // Signals already on their way can still arrive after the subscription is cancelled
+        if (finished) {
+            return;
+        }
+        finished = true;
+        List<Object[]> rest = takeChunk();
+        SwingUtilities.invokeLater(() -> {
+            if (!cancelled) {
+                addRows(rest);
+                onDone.accept(error);
+            }
+        });
+    }
+
+    private List<Object[]> takeChunk() {
+        List<Object[]> taken = chunk;
+        chunk = new ArrayList<>(CHUNK_SIZE);
+        return taken;
+    }
+
+    private void addRows(List<Object[]> rows) {
+        for (Object[] row : rows) {
+            model.addRow(row);
+        }
+    }
+}